@@ -0,0 +1,71 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Actualizaciones de stock concurrentes desde 8 hilos sobre un conjunto de productos de distinto tamaño:
+// con 1 producto todos compiten por la misma fila, con el catálogo completo casi nunca coinciden
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ActualizacionStockBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Productos {
+
+        @Param({"1", "100", "100000"})
+        public int actualizados;
+    }
+
+    @State(Scope.Thread)
+    public static class Movimientos {
+
+        private ProductoService productoService;
+        private SplittableRandom random;
+        private int actualizados;
+        private boolean entrada;
+        private int id;
+
+        @Setup(Level.Trial)
+        public void preparar(AplicacionBenchmark aplicacion, Productos productos, ThreadParams hilo) {
+            productoService = aplicacion.getBean(ProductoService.class);
+            random = new SplittableRandom(GeneradorCatalogo.SEMILLA + hilo.getThreadIndex());
+            actualizados = Math.min(productos.actualizados, aplicacion.productos);
+        }
+
+        // Cada entrada de una unidad va seguida de su salida en el mismo producto: el stock nunca queda
+        // negativo aunque el catálogo tenga productos agotados
+        ProductoResponseDto mover() {
+            entrada = !entrada;
+            if (entrada) {
+                id = 1 + random.nextInt(actualizados);
+            }
+            return productoService.actualizarStock(id, entrada ? 1 : -1);
+        }
+    }
+
+    @Benchmark
+    public ProductoResponseDto actualizarStock(Movimientos movimientos) {
+        return movimientos.mover();
+    }
+}
@@ -0,0 +1,51 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.AppinventarioApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Aplicación completa (servicios, repositorios, cachés) sin servidor web sobre H2 en memoria, poblada con el
+// catálogo sintético. Se arranca una vez por fork de JMH y los benchmarks la reciben como parámetro
+@State(Scope.Benchmark)
+public class AplicacionBenchmark {
+
+    @Param("100000")
+    public int productos;
+
+    private ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(AppinventarioApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bd_benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.keep-alive=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "app.hilos-virtuales.detectar-fijados=false",
+                        "app.archivo.cron=-",
+                        // Se mide el camino de la petición, no la escritura de los log.info de cada llamada
+                        "logging.level.edu.cibertec.appinventario=WARN")
+                .run();
+        new GeneradorCatalogo(GeneradorCatalogo.SEMILLA).poblar(getBean(JdbcTemplate.class), productos);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    public <T> T getBean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.cibertec.appinventario.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Argumentos --clave=valor de las herramientas de línea de comandos (generador de catálogo y conductor de carga)
+final class Argumentos {
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    Argumentos(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido (se espera --clave=valor): " + arg);
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+    }
+
+    String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    String obligatorio(String clave) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el argumento --" + clave);
+        }
+        return valor;
+    }
+
+    int entero(String clave, int porDefecto) {
+        return valores.containsKey(clave) ? Integer.parseInt(valores.get(clave).replace("_", "")) : porDefecto;
+    }
+
+    long largo(String clave, long porDefecto) {
+        return valores.containsKey(clave) ? Long.parseLong(valores.get(clave).replace("_", "")) : porDefecto;
+    }
+
+    double decimal(String clave, double porDefecto) {
+        return valores.containsKey(clave) ? Double.parseDouble(valores.get(clave)) : porDefecto;
+    }
+
+    Duration duracion(String clave, Duration porDefecto) {
+        return valores.containsKey(clave) ? Duration.parse(valores.get(clave)) : porDefecto;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda por código (lectores de caja) con códigos aleatorios de todo el catálogo: la mayoría no están
+// en la caché de consultas de findByCodigo ni en la caché de productos del servicio
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BusquedaCodigoBenchmark {
+
+    @State(Scope.Thread)
+    public static class Codigos {
+
+        private ProductoRepository productoRepository;
+        private ProductoService productoService;
+        private SplittableRandom random;
+        private int productos;
+
+        @Setup(Level.Trial)
+        public void preparar(AplicacionBenchmark aplicacion, ThreadParams hilo) {
+            productoRepository = aplicacion.getBean(ProductoRepository.class);
+            productoService = aplicacion.getBean(ProductoService.class);
+            random = new SplittableRandom(GeneradorCatalogo.SEMILLA + hilo.getThreadIndex());
+            productos = aplicacion.productos;
+        }
+
+        String siguiente() {
+            return GeneradorCatalogo.codigo(1 + random.nextInt(productos));
+        }
+    }
+
+    @Benchmark
+    public Optional<Producto> repositorio(Codigos codigos) {
+        return codigos.productoRepository.findByCodigo(codigos.siguiente());
+    }
+
+    @Benchmark
+    public ProductoResponseDto servicio(Codigos codigos) {
+        return codigos.productoService.findByCodigo(codigos.siguiente());
+    }
+}
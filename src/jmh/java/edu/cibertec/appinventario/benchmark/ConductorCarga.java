@@ -0,0 +1,347 @@
+package edu.cibertec.appinventario.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Conductor de carga HTTP contra una instancia en marcha poblada con GenerarCatalogo (el mismo --productos).
+// Cada cliente es un hilo virtual que elige la operación según la mezcla de lecturas y escrituras, y el producto,
+// la categoría o la marca según su popularidad (Zipf). Al terminar muestra por operación el rendimiento y los
+// percentiles de latencia:
+//   mvn -Pbenchmark -DskipTests test-compile exec:exec@carga -Dcarga.opciones="--base=http://localhost:8080
+//       --productos=1000000 --clientes=64 --duracion=PT2M"
+// Opciones:
+//   --mezcla=codigo=35,id=20,...  pesos de las operaciones (las no indicadas no se ejecutan); por defecto los de
+//                                 Operacion. "listado" (/api/productos) transmite el catálogo completo por encima
+//                                 de app.listados.maximo-resultados y no entra en la mezcla por defecto
+//   --tasa=N                      peticiones/s en total (carga abierta): la latencia se mide desde el instante
+//                                 previsto de envío, así las esperas del servidor no se ocultan (omisión coordinada).
+//                                 Sin tasa cada cliente envía la siguiente petición al recibir la respuesta
+//   --calentamiento=PT30S, --zipf=0.99, --timeout=PT10S, --semilla, --salida=resultados.json
+public final class ConductorCarga {
+
+    enum Operacion {
+        PRODUCTO_POR_CODIGO("codigo", 35),
+        PRODUCTO_POR_ID("id", 20),
+        PRODUCTOS_PAGINADOS("paginados", 15),
+        PRODUCTOS_LISTADO("listado", 0),
+        CATEGORIAS("categorias", 4),
+        CATEGORIA_POR_ID("categoria", 5),
+        MARCAS("marcas", 4),
+        MARCA_POR_ID("marca", 5),
+        ACTUALIZAR_STOCK("stock", 10),
+        ACTUALIZAR_CATEGORIA("actualizar-categoria", 1),
+        ACTUALIZAR_MARCA("actualizar-marca", 1);
+
+        private final String clave;
+        private final int pesoPorDefecto;
+
+        Operacion(String clave, int pesoPorDefecto) {
+            this.clave = clave;
+            this.pesoPorDefecto = pesoPorDefecto;
+        }
+
+        static Operacion porClave(String clave) {
+            return Arrays.stream(values())
+                    .filter(operacion -> operacion.clave.equals(clave))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Operación desconocida en la mezcla: " + clave));
+        }
+    }
+
+    record Configuracion(URI base, int productos, int clientes, Duration duracion, Duration calentamiento,
+                         Map<Operacion, Integer> mezcla, double tasa, double zipf, Duration timeout, long semilla) {
+
+        static Configuracion de(Argumentos argumentos) {
+            Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+            String pesos = argumentos.texto("mezcla", null);
+            if (pesos == null) {
+                Arrays.stream(Operacion.values()).forEach(operacion -> mezcla.put(operacion, operacion.pesoPorDefecto));
+            } else {
+                for (String peso : pesos.split(",")) {
+                    String[] partes = peso.split("=");
+                    mezcla.put(Operacion.porClave(partes[0].strip()), Integer.parseInt(partes[1].strip()));
+                }
+            }
+            return new Configuracion(
+                    URI.create(argumentos.texto("base", "http://localhost:8080")),
+                    argumentos.entero("productos", 10_000),
+                    argumentos.entero("clientes", 64),
+                    argumentos.duracion("duracion", Duration.ofMinutes(1)),
+                    argumentos.duracion("calentamiento", Duration.ofSeconds(15)),
+                    mezcla,
+                    argumentos.decimal("tasa", 0),
+                    argumentos.decimal("zipf", 0.99),
+                    argumentos.duracion("timeout", Duration.ofSeconds(10)),
+                    argumentos.largo("semilla", GeneradorCatalogo.SEMILLA));
+        }
+    }
+
+    record Resultado(String operacion, long peticiones, long errores, double porSegundo,
+                     double p50Ms, double p95Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    private final Configuracion configuracion;
+    private final Operacion[] operaciones;
+    private final int[] pesosAcumulados;
+    private final DistribucionZipf popularidadProductos;
+    private final DistribucionZipf popularidadPaginas;
+    private final DistribucionZipf popularidadCategorias;
+    private final DistribucionZipf popularidadMarcas;
+    private final int marcas;
+
+    private final Map<Operacion, Histogram> latencias = new EnumMap<>(Operacion.class);
+    private final AtomicLongArray errores = new AtomicLongArray(Operacion.values().length);
+
+    ConductorCarga(Configuracion configuracion) {
+        this.configuracion = configuracion;
+        this.operaciones = configuracion.mezcla().entrySet().stream()
+                .filter(peso -> peso.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toArray(Operacion[]::new);
+        if (operaciones.length == 0) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación con peso positivo");
+        }
+        this.pesosAcumulados = new int[operaciones.length];
+        int acumulado = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            acumulado += configuracion.mezcla().get(operaciones[i]);
+            pesosAcumulados[i] = acumulado;
+        }
+
+        int productos = configuracion.productos();
+        this.marcas = GeneradorCatalogo.marcas(productos);
+        this.popularidadProductos = new DistribucionZipf(productos, configuracion.zipf());
+        this.popularidadPaginas = new DistribucionZipf(Math.max(1, productos / Cliente.TAMANO_PAGINA), configuracion.zipf());
+        this.popularidadCategorias = new DistribucionZipf(GeneradorCatalogo.CATEGORIAS, configuracion.zipf());
+        this.popularidadMarcas = new DistribucionZipf(marcas, configuracion.zipf());
+        for (Operacion operacion : operaciones) {
+            // Hasta 1 hora con 3 cifras significativas
+            latencias.put(operacion, new ConcurrentHistogram(TimeUnit.HOURS.toNanos(1), 3));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracion configuracion = Configuracion.de(new Argumentos(args));
+        List<Resultado> resultados = new ConductorCarga(configuracion).ejecutar();
+
+        System.out.println();
+        System.out.printf("%-22s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "Operación", "peticiones", "errores", "pet/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "máx ms");
+        for (Resultado r : resultados) {
+            System.out.printf("%-22s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", r.operacion(), r.peticiones(),
+                    r.errores(), r.porSegundo(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.p999Ms(), r.maxMs());
+        }
+
+        String salida = new Argumentos(args).texto("salida", null);
+        if (salida != null) {
+            Map<String, Object> informe = new LinkedHashMap<>();
+            informe.put("configuracion", configuracion);
+            informe.put("resultados", resultados);
+            new ObjectMapper().findAndRegisterModules()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                    .writeValue(new File(salida), informe);
+        }
+    }
+
+    List<Resultado> ejecutar() throws Exception {
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        // Intervalo entre peticiones de cada cliente con carga abierta (0: carga cerrada)
+        long intervalo = configuracion.tasa() > 0 ? (long) (configuracion.clientes() * 1e9 / configuracion.tasa()) : 0;
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(configuracion.timeout())
+                     .executor(ejecutor)
+                     .build()) {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int c = 0; c < configuracion.clientes(); c++) {
+                Cliente cliente = new Cliente(new SplittableRandom(configuracion.semilla() + c));
+                long primerEnvio = inicio + (intervalo * c) / configuracion.clientes();
+                tareas.add(ejecutor.submit(() -> {
+                    cliente.ejecutar(http, primerEnvio, intervalo, inicioMedicion, fin);
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+
+        double segundos = configuracion.duracion().toNanos() / 1e9;
+        List<Resultado> resultados = new ArrayList<>();
+        Histogram total = new Histogram(TimeUnit.HOURS.toNanos(1), 3);
+        long erroresTotales = 0;
+        for (Operacion operacion : operaciones) {
+            Histogram histograma = latencias.get(operacion);
+            total.add(histograma);
+            erroresTotales += errores.get(operacion.ordinal());
+            resultados.add(resultado(operacion.clave, histograma, errores.get(operacion.ordinal()), segundos));
+        }
+        resultados.add(resultado("total", total, erroresTotales, segundos));
+        return resultados;
+    }
+
+    private static Resultado resultado(String operacion, Histogram histograma, long errores, double segundos) {
+        return new Resultado(operacion, histograma.getTotalCount(), errores, histograma.getTotalCount() / segundos,
+                ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(95)),
+                ms(histograma.getValueAtPercentile(99)), ms(histograma.getValueAtPercentile(99.9)),
+                ms(histograma.getMaxValue()));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private final class Cliente {
+
+        static final int TAMANO_PAGINA = 20;
+
+        private final SplittableRandom random;
+        private int productoConEntrada;
+
+        Cliente(SplittableRandom random) {
+            this.random = random;
+        }
+
+        void ejecutar(HttpClient http, long primerEnvio, long intervalo, long inicioMedicion, long fin) {
+            long previsto = primerEnvio;
+            while (true) {
+                long ahora = System.nanoTime();
+                if (intervalo > 0) {
+                    if (previsto > ahora) {
+                        LockSupport.parkNanos(previsto - ahora);
+                    }
+                } else {
+                    previsto = ahora;
+                }
+                if (previsto >= fin) {
+                    return;
+                }
+
+                Operacion operacion = elegir();
+                boolean correcta;
+                try {
+                    int status = http.send(peticion(operacion), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    correcta = status < 400;
+                } catch (IOException e) {
+                    correcta = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (previsto >= inicioMedicion) {
+                    latencias.get(operacion).recordValue(Math.min(System.nanoTime() - previsto, TimeUnit.HOURS.toNanos(1)));
+                    if (!correcta) {
+                        errores.incrementAndGet(operacion.ordinal());
+                    }
+                }
+                previsto += intervalo;
+            }
+        }
+
+        private Operacion elegir() {
+            int valor = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+            for (int i = 0; i < pesosAcumulados.length; i++) {
+                if (valor < pesosAcumulados[i]) {
+                    return operaciones[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private HttpRequest peticion(Operacion operacion) {
+            return switch (operacion) {
+                case PRODUCTO_POR_CODIGO -> get("/api/productos/codigo/" + GeneradorCatalogo.codigo(producto()));
+                case PRODUCTO_POR_ID -> get("/api/productos/" + producto());
+                case PRODUCTOS_PAGINADOS -> get("/api/productos/paginados?size=" + TAMANO_PAGINA
+                        + "&page=" + (popularidadPaginas.muestra(random) - 1));
+                case PRODUCTOS_LISTADO -> get("/api/productos");
+                case CATEGORIAS -> get("/api/categorias");
+                case CATEGORIA_POR_ID -> get("/api/categorias/" + popularidadCategorias.muestra(random));
+                case MARCAS -> get("/api/marcas");
+                case MARCA_POR_ID -> get("/api/marcas/" + popularidadMarcas.muestra(random));
+                case ACTUALIZAR_STOCK -> actualizarStock();
+                case ACTUALIZAR_CATEGORIA -> {
+                    int id = popularidadCategorias.muestra(random);
+                    yield put("/api/categorias/" + id, """
+                            {"nombre": "%s", "descripcion": "Revisada por el conductor de carga"}"""
+                            .formatted(GeneradorCatalogo.nombreCategoria(id)));
+                }
+                case ACTUALIZAR_MARCA -> {
+                    int id = popularidadMarcas.muestra(random);
+                    yield put("/api/marcas/" + id, """
+                            {"nombre": "%s", "descripcion": "Revisada por el conductor de carga", "paisOrigen": "%s"}"""
+                            .formatted(GeneradorCatalogo.nombreMarca(id), GeneradorCatalogo.paisMarca(id)));
+                }
+            };
+        }
+
+        private int producto() {
+            return GeneradorCatalogo.idPorPopularidad(popularidadProductos.muestra(random), configuracion.productos());
+        }
+
+        // Cada entrada de una unidad va seguida de su salida en el mismo producto: el stock no se agota
+        // y los productos sin stock del catálogo no producen errores
+        private HttpRequest actualizarStock() {
+            int cantidad;
+            if (productoConEntrada == 0) {
+                productoConEntrada = producto();
+                cantidad = 1;
+            } else {
+                cantidad = -1;
+            }
+            HttpRequest peticion = HttpRequest.newBuilder(uri("/api/productos/" + productoConEntrada
+                            + "/actualizar-stock?cantidad=" + cantidad))
+                    .timeout(configuracion.timeout())
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            if (cantidad < 0) {
+                productoConEntrada = 0;
+            }
+            return peticion;
+        }
+
+        private HttpRequest get(String ruta) {
+            return HttpRequest.newBuilder(uri(ruta)).timeout(configuracion.timeout()).GET().build();
+        }
+
+        private HttpRequest put(String ruta, String json) {
+            return HttpRequest.newBuilder(uri(ruta))
+                    .timeout(configuracion.timeout())
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private URI uri(String ruta) {
+            return configuracion.base().resolve(ruta);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.cibertec.appinventario.benchmark;
+
+import java.util.random.RandomGenerator;
+
+// Distribución de Zipf sobre 1..n: el elemento de rango k aparece con probabilidad proporcional a 1/k^s.
+// Muestreo por rechazo-inversión (Hörmann y Derflinger): memoria constante y coste O(1) por muestra,
+// así sirve igual para 50 categorías que para 10 millones de productos
+final class DistribucionZipf {
+
+    private final int n;
+    private final double exponente;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    DistribucionZipf(int n, double exponente) {
+        if (n < 1 || exponente <= 0) {
+            throw new IllegalArgumentException("Zipf requiere n >= 1 y exponente > 0");
+        }
+        this.n = n;
+        this.exponente = exponente;
+        this.hIntegralX1 = hIntegral(1.5) - 1d;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2d - hIntegralInversa(hIntegral(2.5) - h(2));
+    }
+
+    // Rango entre 1 (el más frecuente) y n
+    int muestra(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInversa(u);
+            int k = (int) Math.max(1, Math.min(n, Math.round(x)));
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    // Integral de h(x) = x^-exponente
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1Dividido((1d - exponente) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponente * Math.log(x));
+    }
+
+    private double hIntegralInversa(double x) {
+        double t = Math.max(-1d, x * (1d - exponente));
+        return Math.exp(log1pDividido(t) * x);
+    }
+
+    // log(1 + x) / x y (e^x - 1) / x, estables cerca de 0 (exponente próximo a 1)
+    private static double log1pDividido(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1d - x * (0.5 - x * (1d / 3 - 0.25 * x));
+    }
+
+    private static double expm1Dividido(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1d + x * 0.5 * (1d + x / 3 * (1d + 0.25 * x));
+    }
+}
@@ -0,0 +1,290 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Catálogo sintético reproducible: con la misma semilla genera siempre los mismos datos, de modo que dos
+// versiones de la aplicación se miden sobre el mismo catálogo. El producto i tiene ID i y código codigo(i).
+// Sesgos de un catálogo real: pocas categorías y marcas concentran la mayoría de productos (Zipf), nombres
+// largos de longitud variable, precios log-normales (muchos baratos, cola de caros), stock agotado en parte
+// del catálogo y un pequeño porcentaje de productos desactivados
+public final class GeneradorCatalogo {
+
+    public static final long SEMILLA = 20240601L;
+
+    static final int CATEGORIAS = 50;
+
+    // Exponente de Zipf del reparto de productos entre categorías y marcas
+    private static final double SESGO_CATALOGOS = 1.0;
+    // Precio mediano 25,00 (log-normal con sigma 1,2: el 5 % más caro supera los 180,00)
+    private static final double LOG_PRECIO_MEDIANO = Math.log(25);
+    private static final double SIGMA_PRECIO = 1.2;
+    private static final double PRECIO_MAXIMO = 99_999.99;
+    private static final double FRACCION_AGOTADOS = 0.08;
+    private static final double FRACCION_INACTIVOS = 0.03;
+
+    private static final int TAMANO_LOTE = 1_000;
+    private static final LocalDateTime FECHA_CREACION = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FECHA_DESACTIVACION = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    private static final String[] TIPOS = {
+            "Arroz", "Aceite vegetal", "Leche evaporada", "Azúcar rubia", "Café tostado", "Galletas", "Atún en trozos",
+            "Fideos", "Detergente", "Jabón de tocador", "Shampoo", "Papel higiénico", "Yogurt", "Mantequilla",
+            "Cereal", "Gaseosa", "Agua mineral", "Chocolate", "Mermelada", "Avena"
+    };
+    private static final String[] ATRIBUTOS = {
+            "integral", "light", "premium", "familiar", "clásico", "extra", "natural", "orgánico", "sin azúcar",
+            "sin lactosa", "edición limitada", "con vitaminas", "aroma intenso", "reforzado", "original", "suave"
+    };
+    private static final String[] PRESENTACIONES = {
+            "250 g", "500 g", "1 kg", "5 kg", "400 ml", "1 L", "2.5 L", "pack x 6", "pack x 12", "caja x 24", "doypack"
+    };
+    private static final String[] RUBROS = {
+            "Abarrotes", "Lácteos", "Bebidas", "Limpieza", "Cuidado personal", "Desayuno", "Conservas", "Snacks",
+            "Panadería", "Congelados"
+    };
+    private static final String[] PAISES = {"Perú", "Chile", "Colombia", "México", "Brasil", "Argentina", "EE. UU."};
+
+    private final long semilla;
+
+    public GeneradorCatalogo(long semilla) {
+        this.semilla = semilla;
+    }
+
+    public static String codigo(int indice) {
+        return "SKU-%08d".formatted(indice);
+    }
+
+    // Número de marcas según el tamaño del catálogo: 200 hasta 400.000 productos, una por cada 2.000 después
+    static int marcas(int productos) {
+        return Math.max(200, productos / 2_000);
+    }
+
+    static String nombreCategoria(int id) {
+        return RUBROS[(id - 1) % RUBROS.length] + " " + id;
+    }
+
+    static String nombreMarca(int id) {
+        return "Marca " + id;
+    }
+
+    static String paisMarca(int id) {
+        return PAISES[(id - 1) % PAISES.length];
+    }
+
+    // ID del producto con el rango de popularidad dado (1 = el más pedido). Los productos populares se reparten
+    // por todo el rango de IDs con una permutación fija, en lugar de ser los primeros insertados
+    static int idPorPopularidad(int rango, int productos) {
+        long multiplicador = productos % 1_000_003 == 0 ? 998_244_353L : 1_000_003L;
+        return (int) ((rango - 1) * multiplicador % productos) + 1;
+    }
+
+    // Entidades en memoria con sus categorías y marcas (sin base de datos)
+    public List<Producto> productos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        generar(cantidad, productos::add);
+        return productos;
+    }
+
+    // Inserta categorías, marcas y productos. En PostgreSQL los productos se cargan con COPY, sin materializar
+    // el catálogo en memoria, y se ajustan las secuencias; en otras bases de datos, con lotes JDBC
+    public void poblar(JdbcTemplate jdbcTemplate, int cantidad) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO categorias (id, nombre, descripcion, activo, fecha_creacion) VALUES (?, ?, ?, TRUE, ?)",
+                crearCategorias(), TAMANO_LOTE, (ps, categoria) -> {
+                    ps.setInt(1, categoria.getId());
+                    ps.setString(2, categoria.getNombre());
+                    ps.setString(3, categoria.getDescripcion());
+                    ps.setTimestamp(4, Timestamp.valueOf(FECHA_CREACION));
+                });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO marcas (id, nombre, descripcion, pais_origen, activo, fecha_creacion)
+                VALUES (?, ?, ?, ?, TRUE, ?)""", crearMarcas(marcas(cantidad)), TAMANO_LOTE, (ps, marca) -> {
+            ps.setInt(1, marca.getId());
+            ps.setString(2, marca.getNombre());
+            ps.setString(3, marca.getDescripcion());
+            ps.setString(4, marca.getPaisOrigen());
+            ps.setTimestamp(5, Timestamp.valueOf(FECHA_CREACION));
+        });
+
+        boolean postgres = Boolean.TRUE.equals(
+                jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> c.isWrapperFor(PGConnection.class)));
+        if (postgres) {
+            copiar(jdbcTemplate, cantidad);
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('categorias', 'id'), ?)",
+                    Long.class, CATEGORIAS);
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('marcas', 'id'), ?)",
+                    Long.class, marcas(cantidad));
+            jdbcTemplate.queryForObject("SELECT setval('productos_id_seq', ?)", Long.class, cantidad);
+            jdbcTemplate.execute("ANALYZE categorias, marcas, productos");
+        } else {
+            List<Producto> lote = new ArrayList<>(TAMANO_LOTE);
+            generar(cantidad, producto -> {
+                lote.add(producto);
+                if (lote.size() == TAMANO_LOTE || producto.getId() == cantidad) {
+                    insertar(jdbcTemplate, lote);
+                    lote.clear();
+                }
+            });
+        }
+    }
+
+    private void generar(int cantidad, Consumer<Producto> destino) {
+        List<Categoria> categorias = crearCategorias();
+        List<Marca> marcas = crearMarcas(marcas(cantidad));
+        DistribucionZipf repartoCategorias = new DistribucionZipf(categorias.size(), SESGO_CATALOGOS);
+        DistribucionZipf repartoMarcas = new DistribucionZipf(marcas.size(), SESGO_CATALOGOS);
+        SplittableRandom random = new SplittableRandom(semilla);
+
+        for (int id = 1; id <= cantidad; id++) {
+            Marca marca = marcas.get(repartoMarcas.muestra(random) - 1);
+            Producto producto = new Producto();
+            producto.setId(id);
+            producto.setCodigo(codigo(id));
+            producto.setNombre(nombre(id, marca, random));
+            producto.setDescripcion(random.nextInt(10) == 0 ? null : descripcion(random));
+            producto.setPrecio(precio(random));
+            producto.setStock(random.nextDouble() < FRACCION_AGOTADOS ? 0 : 1 + (int) (-150 * Math.log(random.nextDouble())));
+            producto.setCategoria(categorias.get(repartoCategorias.muestra(random) - 1));
+            producto.setMarca(marca);
+            boolean activo = random.nextDouble() >= FRACCION_INACTIVOS;
+            producto.setActivo(activo);
+            producto.setFechaCreacion(FECHA_CREACION);
+            producto.setFechaDesactivacion(activo ? null : FECHA_DESACTIVACION);
+            destino.accept(producto);
+        }
+    }
+
+    // Hasta 100 caracteres (el límite de la columna): tipo, marca, de 1 a 6 atributos y presentación
+    private static String nombre(int id, Marca marca, SplittableRandom random) {
+        StringBuilder nombre = new StringBuilder(100)
+                .append(TIPOS[random.nextInt(TIPOS.length)]).append(' ').append(marca.getNombre());
+        int atributos = 1 + Math.min(5, (int) (-Math.log(random.nextDouble()) * 1.5));
+        for (int i = 0; i < atributos; i++) {
+            nombre.append(' ').append(ATRIBUTOS[random.nextInt(ATRIBUTOS.length)]);
+        }
+        nombre.append(' ').append(PRESENTACIONES[random.nextInt(PRESENTACIONES.length)]).append(" #").append(id);
+        return nombre.length() <= 100 ? nombre.toString() : nombre.substring(nombre.length() - 100);
+    }
+
+    private static String descripcion(SplittableRandom random) {
+        StringBuilder descripcion = new StringBuilder(255);
+        int frases = 1 + random.nextInt(6);
+        for (int i = 0; i < frases && descripcion.length() < 200; i++) {
+            descripcion.append("Producto ").append(ATRIBUTOS[random.nextInt(ATRIBUTOS.length)])
+                    .append(" de calidad ").append(ATRIBUTOS[random.nextInt(ATRIBUTOS.length)]).append(". ");
+        }
+        return descripcion.toString().strip();
+    }
+
+    private static BigDecimal precio(SplittableRandom random) {
+        double precio = Math.exp(LOG_PRECIO_MEDIANO + SIGMA_PRECIO * random.nextGaussian());
+        return BigDecimal.valueOf(Math.min(Math.max(precio, 0.10), PRECIO_MAXIMO)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void insertar(JdbcTemplate jdbcTemplate, List<Producto> productos) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO productos (id, codigo, nombre, descripcion, precio, stock, categoria_id, marca_id,
+                                       activo, fecha_creacion, fecha_desactivacion)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", productos, TAMANO_LOTE, (ps, producto) -> {
+            ps.setInt(1, producto.getId());
+            ps.setString(2, producto.getCodigo());
+            ps.setString(3, producto.getNombre());
+            ps.setString(4, producto.getDescripcion());
+            ps.setBigDecimal(5, producto.getPrecio());
+            ps.setInt(6, producto.getStock());
+            ps.setInt(7, producto.getCategoria().getId());
+            ps.setInt(8, producto.getMarca().getId());
+            ps.setBoolean(9, producto.getActivo());
+            ps.setTimestamp(10, Timestamp.valueOf(producto.getFechaCreacion()));
+            ps.setTimestamp(11, producto.getFechaDesactivacion() != null
+                    ? Timestamp.valueOf(producto.getFechaDesactivacion()) : null);
+        });
+    }
+
+    private void copiar(JdbcTemplate jdbcTemplate, int cantidad) {
+        String sql = """
+                COPY productos (id, codigo, nombre, descripcion, precio, stock, categoria_id, marca_id,
+                                activo, fecha_creacion, fecha_desactivacion) FROM STDIN (FORMAT csv)""";
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Writer salida = new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), sql, 64 * 1024), StandardCharsets.UTF_8))) {
+                generar(cantidad, producto -> {
+                    try {
+                        salida.write(filaCsv(producto));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    private static String filaCsv(Producto producto) {
+        return String.join(",",
+                String.valueOf(producto.getId()),
+                producto.getCodigo(),
+                csv(producto.getNombre()),
+                csv(producto.getDescripcion()),
+                producto.getPrecio().toPlainString(),
+                String.valueOf(producto.getStock()),
+                String.valueOf(producto.getCategoria().getId()),
+                String.valueOf(producto.getMarca().getId()),
+                String.valueOf(producto.getActivo()),
+                FECHA_CREACION.toString(),
+                producto.getFechaDesactivacion() != null ? producto.getFechaDesactivacion().toString() : "") + "\n";
+    }
+
+    // Vacío sin comillas es NULL en el CSV de COPY
+    private static String csv(String texto) {
+        return texto == null ? "" : '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<Categoria> crearCategorias() {
+        List<Categoria> categorias = new ArrayList<>(CATEGORIAS);
+        for (int id = 1; id <= CATEGORIAS; id++) {
+            Categoria categoria = new Categoria();
+            categoria.setId(id);
+            categoria.setNombre(nombreCategoria(id));
+            categoria.setDescripcion("Productos de " + RUBROS[(id - 1) % RUBROS.length].toLowerCase());
+            categorias.add(categoria);
+        }
+        return categorias;
+    }
+
+    private static List<Marca> crearMarcas(int cantidad) {
+        List<Marca> marcas = new ArrayList<>(cantidad);
+        for (int id = 1; id <= cantidad; id++) {
+            Marca marca = new Marca();
+            marca.setId(id);
+            marca.setNombre(nombreMarca(id));
+            marca.setDescripcion("Marca sintética " + id);
+            marca.setPaisOrigen(paisMarca(id));
+            marcas.add(marca);
+        }
+        return marcas;
+    }
+}
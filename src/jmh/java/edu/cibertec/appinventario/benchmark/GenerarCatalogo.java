@@ -0,0 +1,38 @@
+package edu.cibertec.appinventario.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// Genera el catálogo sintético en una base de datos con el esquema ya creado (la aplicación arrancada una vez
+// con Flyway) y sin productos:
+//   mvn -Pbenchmark -DskipTests test-compile exec:exec@catalogo -Dcatalogo.opciones="--url=jdbc:postgresql://
+//       localhost:5432/bd_inventario --usuario=postgres --clave=... --productos=1000000"
+// Opcional: --semilla (por defecto GeneradorCatalogo.SEMILLA). Si la aplicación ya está en marcha, el índice de
+// sugerencias se reconstruye con POST /api/productos/sugerir/indice
+public final class GenerarCatalogo {
+
+    private GenerarCatalogo() {
+    }
+
+    public static void main(String[] args) {
+        Argumentos argumentos = new Argumentos(args);
+        int productos = argumentos.entero("productos", 10_000);
+        long semilla = argumentos.largo("semilla", GeneradorCatalogo.SEMILLA);
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                argumentos.obligatorio("url"), argumentos.texto("usuario", "postgres"), argumentos.texto("clave", ""));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Long existentes = jdbcTemplate.queryForObject("SELECT count(*) FROM productos", Long.class);
+        if (existentes != null && existentes > 0) {
+            throw new IllegalStateException("La tabla productos ya tiene " + existentes + " filas; "
+                    + "el catálogo sintético usa los IDs desde 1 y necesita las tablas vacías");
+        }
+
+        long inicio = System.nanoTime();
+        new GeneradorCatalogo(semilla).poblar(jdbcTemplate, productos);
+        System.out.printf("Catálogo generado: %d productos, %d categorías, %d marcas (semilla %d) en %.1f s%n",
+                productos, GeneradorCatalogo.CATEGORIAS, GeneradorCatalogo.marcas(productos), semilla,
+                (System.nanoTime() - inicio) / 1e9);
+    }
+}
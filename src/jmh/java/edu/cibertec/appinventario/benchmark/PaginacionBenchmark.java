@@ -0,0 +1,63 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.PageResponseDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Lectura de una página a distintas profundidades: paginación por desplazamiento (OFFSET, recorre y descarta
+// las filas anteriores) frente a paginación por cursor (salta con el índice a la última clave vista)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginacionBenchmark {
+
+    private static final int TAMANO_PAGINA = 20;
+
+    // Filas anteriores a la página leída; el catálogo por defecto tiene 100.000 productos
+    @Param({"0", "1000", "10000", "90000"})
+    public int desplazamiento;
+
+    private ProductoService productoService;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void preparar(AplicacionBenchmark aplicacion) {
+        productoService = aplicacion.getBean(ProductoService.class);
+
+        // Cursor de la página que empieza en el desplazamiento, avanzando por páginas grandes
+        int leidos = 0;
+        while (leidos < desplazamiento) {
+            int size = Math.min(1_000, desplazamiento - leidos);
+            cursor = productoService.getByCursor(cursor, size, false, false).nextCursor();
+            leidos += size;
+        }
+    }
+
+    @Benchmark
+    public PageResponseDto<ProductoResponseDto> desplazamiento() {
+        return productoService.getPaginated(desplazamiento / TAMANO_PAGINA, TAMANO_PAGINA, false, false);
+    }
+
+    @Benchmark
+    public CursorPageResponseDto<ProductoResponseDto> cursor() {
+        return productoService.getByCursor(cursor, TAMANO_PAGINA, false, false);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.cibertec.appinventario.benchmark;
+
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
+import edu.cibertec.appinventario.mapper.CategoriaMapperImpl;
+import edu.cibertec.appinventario.mapper.MarcaMapperImpl;
+import edu.cibertec.appinventario.mapper.ProductoMapper;
+import edu.cibertec.appinventario.mapper.ProductoMapperImpl;
+import edu.cibertec.appinventario.model.Producto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversión de listas de entidades a DTO con los mapeadores de MapStruct, de 1k a 1M productos
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductoMapperBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int cantidad;
+
+    private AnnotationConfigApplicationContext contexto;
+    private ProductoMapper productoMapper;
+    private List<Producto> productos;
+
+    @Setup
+    public void preparar() {
+        // Solo los mapeadores, con las mismas dependencias que en la aplicación
+        contexto = new AnnotationConfigApplicationContext(
+                ProductoMapperImpl.class, CategoriaMapperImpl.class, MarcaMapperImpl.class);
+        productoMapper = contexto.getBean(ProductoMapper.class);
+        productos = new GeneradorCatalogo(GeneradorCatalogo.SEMILLA).productos(cantidad);
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<ProductoResponseDto> toDtoList() {
+        return productoMapper.toDtoList(productos);
+    }
+
+    @Benchmark
+    public List<ProductoSimpleDto> toSimpleDtoList() {
+        return productoMapper.toSimpleDtoList(productos);
+    }
+}
@@ -1,13 +1,56 @@
 package edu.cibertec.appinventario;
 
+import edu.cibertec.appinventario.dto.EntidadCarga;
+import edu.cibertec.appinventario.dto.FormatoCarga;
+import edu.cibertec.appinventario.service.CargaMasivaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @SpringBootApplication
+@EnableScheduling
 public class AppinventarioApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(AppinventarioApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(AppinventarioApplication.class, args);
     }
 
+    // Carga inicial desde la línea de comandos, por ejemplo:
+    // java -jar appinventario.jar --cargar-categorias=categorias.csv --cargar-productos=productos.ndjson
+    @Bean
+    ApplicationRunner cargaMasivaRunner(CargaMasivaService cargaMasivaService) {
+        return args -> {
+            // Categorías y marcas primero, para que los productos encuentren sus claves foráneas
+            for (EntidadCarga entidad : EntidadCarga.values()) {
+                String opcion = "cargar-" + entidad.name().toLowerCase();
+                if (!args.containsOption(opcion)) {
+                    continue;
+                }
+                for (String archivo : args.getOptionValues(opcion)) {
+                    Path ruta = Path.of(archivo);
+                    FormatoCarga formato = archivo.endsWith(".ndjson") || archivo.endsWith(".jsonl")
+                            ? FormatoCarga.NDJSON
+                            : FormatoCarga.CSV;
+                    try (InputStream datos = Files.newInputStream(ruta)) {
+                        log.info("Cargando {} desde {}", entidad, ruta);
+                        log.info("Resultado: {}", cargaMasivaService.cargar(entidad, formato, datos));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("No se pudo leer " + ruta, e);
+                    }
+                }
+            }
+        };
+    }
 }
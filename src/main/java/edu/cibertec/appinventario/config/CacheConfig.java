@@ -0,0 +1,69 @@
+package edu.cibertec.appinventario.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Cachés de datos de referencia (categorías y marcas)
+    public static final String CATEGORIAS = "categorias";
+    public static final String CATEGORIAS_LISTAS = "categoriasListas";
+    public static final String CATEGORIAS_EXISTENTES = "categoriasExistentes";
+    public static final String MARCAS = "marcas";
+    public static final String MARCAS_LISTAS = "marcasListas";
+    public static final String MARCAS_EXISTENTES = "marcasExistentes";
+
+    // Cachés de productos consultados por ID y por código (lectores de caja)
+    public static final String PRODUCTOS = "productos";
+    public static final String PRODUCTOS_POR_CODIGO = "productosPorCodigo";
+
+    // Claves de las listas completas dentro de las cachés *_LISTAS
+    public static final String CLAVE_TODAS = "'todas'";
+    public static final String CLAVE_SIMPLES = "'simples'";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.catalogos.tamano-maximo:1000}") long tamanoMaximo,
+            @Value("${app.cache.catalogos.expiracion:PT10M}") Duration expiracion,
+            @Value("${app.cache.productos.tamano-maximo:10000}") long tamanoMaximoProductos,
+            @Value("${app.cache.productos.expiracion:PT30M}") Duration expiracionProductos) {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Solo se admiten las cachés registradas aquí
+        cacheManager.setCacheNames(List.of());
+
+        Caffeine<Object, Object> catalogos = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(expiracion)
+                .recordStats();
+
+        for (String nombre : List.of(CATEGORIAS, CATEGORIAS_LISTAS, CATEGORIAS_EXISTENTES,
+                MARCAS, MARCAS_LISTAS, MARCAS_EXISTENTES)) {
+            cacheManager.registerCustomCache(nombre, catalogos.build());
+        }
+
+        // Caffeine expulsa por frecuencia de uso (W-TinyLFU), así los SKU más consultados
+        // permanecen en caché aunque lleguen ráfagas de códigos leídos una sola vez
+        Caffeine<Object, Object> productos = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximoProductos)
+                .expireAfterWrite(expiracionProductos)
+                .recordStats();
+
+        cacheManager.registerCustomCache(PRODUCTOS, productos.build());
+        cacheManager.registerCustomCache(PRODUCTOS_POR_CODIGO, productos.build());
+        // Las invalidaciones se aplican al confirmar la transacción, para que una lectura
+        // concurrente no vuelva a cachear el estado anterior a la escritura
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
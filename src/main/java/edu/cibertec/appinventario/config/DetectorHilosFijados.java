@@ -0,0 +1,76 @@
+package edu.cibertec.appinventario.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Detecta hilos virtuales fijados a su hilo de plataforma (bloqueos dentro de synchronized o código nativo).
+// En Java 21 un hilo fijado que espera E/S bloquea también al hilo portador, y con un pool de portadores
+// del tamaño del número de CPU unos pocos bloqueos en el camino JDBC bastan para frenar todo el servidor.
+// Escucha el evento jdk.VirtualThreadPinned de JFR en el propio proceso y registra la pila de cada caso
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "app.hilos-virtuales.detectar-fijados", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DetectorHilosFijados implements SmartLifecycle {
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int MARCOS_REGISTRADOS = 12;
+
+    private final Duration umbral;
+    private final AtomicLong detectados = new AtomicLong();
+    private RecordingStream stream;
+
+    public DetectorHilosFijados(@Value("${app.hilos-virtuales.umbral-fijado:PT0.02S}") Duration umbral) {
+        this.umbral = umbral;
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Detección de hilos virtuales fijados activa (umbral {})", umbral);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    // Hilos virtuales fijados durante más del umbral desde el arranque
+    public long getDetectados() {
+        return detectados.get();
+    }
+
+    private void registrar(RecordedEvent evento) {
+        detectados.incrementAndGet();
+        List<RecordedFrame> marcos = evento.getStackTrace() != null ? evento.getStackTrace().getFrames() : List.of();
+        log.warn("Hilo virtual fijado durante {} ms:{}", evento.getDuration().toMillis(), marcos.stream()
+                .limit(MARCOS_REGISTRADOS)
+                .map(m -> "\n\tat " + m.getMethod().getType().getName() + "." + m.getMethod().getName()
+                        + "(línea " + m.getLineNumber() + ")")
+                .collect(Collectors.joining()));
+    }
+}
@@ -0,0 +1,71 @@
+package edu.cibertec.appinventario.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Caché de segundo nivel de Hibernate. Las regiones se crean aquí con su tamaño y expiración;
+// Hibernate falla al arrancar si una entidad cacheable usa una región no declarada
+@Configuration
+public class HibernateCacheConfig {
+
+    // Regiones de entidades (datos de referencia, se leen con cada producto)
+    public static final String REGION_CATEGORIAS = "entidad.categorias";
+    public static final String REGION_MARCAS = "entidad.marcas";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.hibernate.entidades.tamano-maximo:1000}") long tamanoEntidades,
+            @Value("${app.cache.hibernate.entidades.expiracion:PT1H}") Duration expiracionEntidades) {
+
+        // Un CacheManager propio por contexto: el predeterminado del proveedor es único en la JVM y dos
+        // contextos (pruebas con distinta configuración) intentarían crear las mismas regiones
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("appinventario:hibernate:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        cacheManager.createCache(REGION_CATEGORIAS, configuracion(tamanoEntidades, expiracionEntidades));
+        cacheManager.createCache(REGION_MARCAS, configuracion(tamanoEntidades, expiracionEntidades));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // Métricas cache.* de las regiones con las mismas etiquetas que las cachés de Spring: Prometheus exige
+    // el mismo conjunto de etiquetas en todas las series de una métrica. La región lleva el prefijo
+    // hibernate., como en /api/admin/caches
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(region -> {
+            String nombre = "hibernate." + region;
+            CaffeineCacheMetrics.monitor(registry,
+                    hibernateCacheManager.getCache(region).unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                    nombre, "cache.manager", "hibernateCacheManager", "name", nombre);
+        });
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuracion(long tamanoMaximo, Duration expiracion) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(tamanoMaximo));
+        configuracion.setExpireAfterWrite(OptionalLong.of(expiracion.toNanos()));
+        configuracion.setNativeStatisticsEnabled(true);
+        return configuracion;
+    }
+}
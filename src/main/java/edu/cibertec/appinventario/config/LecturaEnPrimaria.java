@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Lecturas que llenan una caché de Spring (@Cacheable): con réplicas configuradas se sirven desde la
+// primaria. Una réplica retrasada devolvería la versión anterior a una escritura ya invalidada, y esa
+// versión quedaría en la caché hasta que expire (LecturaPropia solo protege al cliente que escribió)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LecturaEnPrimaria {
+}
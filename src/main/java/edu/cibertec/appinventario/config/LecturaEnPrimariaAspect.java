@@ -0,0 +1,38 @@
+package edu.cibertec.appinventario.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Marca el hilo mientras dura un método @LecturaEnPrimaria para que ReplicasDataSource entregue conexiones
+// de la primaria. Envuelve a la caché y a la transacción; la conexión física se pide en la primera sentencia
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LecturaEnPrimariaAspect {
+
+    private static final ThreadLocal<Boolean> EN_PRIMARIA = new ThreadLocal<>();
+
+    // Indica si el hilo actual está dentro de un método @LecturaEnPrimaria
+    static boolean activa() {
+        return Boolean.TRUE.equals(EN_PRIMARIA.get());
+    }
+
+    @Around("@annotation(edu.cibertec.appinventario.config.LecturaEnPrimaria)")
+    public Object leerEnPrimaria(ProceedingJoinPoint punto) throws Throwable {
+        if (activa()) {
+            return punto.proceed();
+        }
+        EN_PRIMARIA.set(true);
+        try {
+            return punto.proceed();
+        } finally {
+            EN_PRIMARIA.remove();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package edu.cibertec.appinventario.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+// Lectura de las propias escrituras: las réplicas van con algo de retraso, así que tras confirmar una
+// transacción de escritura en una petición HTTP las lecturas del resto de la petición, y las del mismo
+// cliente durante la ventana configurada (cookie devuelta por LecturaPropiaFilter), se sirven desde la
+// base de datos primaria
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+public class LecturaPropia implements TransactionExecutionListener {
+
+    static final String COOKIE = "ultima-escritura";
+
+    private static final ThreadLocal<Long> PRIMARIA_HASTA = new ThreadLocal<>();
+
+    private final Duration ventana;
+
+    public LecturaPropia(@Value("${app.datasource.replicas.lectura-propia:PT5S}") Duration ventana) {
+        this.ventana = ventana;
+    }
+
+    public Duration getVentana() {
+        return ventana;
+    }
+
+    // Indica si las lecturas del hilo actual deben ir a la primaria
+    public static boolean activa() {
+        Long hasta = PRIMARIA_HASTA.get();
+        return hasta != null && hasta > System.currentTimeMillis();
+    }
+
+    static void activarHasta(long instante) {
+        PRIMARIA_HASTA.set(instante);
+    }
+
+    static void limpiar() {
+        PRIMARIA_HASTA.remove();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        // Solo en peticiones HTTP, donde LecturaPropiaFilter limpia la marca al terminar. En los hilos de
+        // las tareas programadas (compactación, barrido de reservas...) nadie la borraría y sus lecturas
+        // quedarían fijadas en la primaria
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return;
+        }
+        long hasta = System.currentTimeMillis() + ventana.toMillis();
+        activarHasta(hasta);
+
+        // La transacción termina antes de escribir la respuesta: el cliente recibe la cookie con ella
+        HttpServletResponse response = atributos.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(hasta));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(ventana.toSeconds(), 1));
+            response.addCookie(cookie);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.cibertec.appinventario.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+// Envía a la primaria las lecturas de los clientes que escribieron hace menos de la ventana de
+// lectura propia (cookie fijada por LecturaPropia al confirmar la escritura)
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+@RequiredArgsConstructor
+public class LecturaPropiaFilter extends OncePerRequestFilter {
+
+    private final LecturaPropia lecturaPropia;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Cookie cookie = WebUtils.getCookie(request, LecturaPropia.COOKIE);
+        LecturaPropia.limpiar();
+        if (cookie != null) {
+            try {
+                LecturaPropia.activarHasta(Math.min(Long.parseLong(cookie.getValue()),
+                        System.currentTimeMillis() + lecturaPropia.getVentana().toMillis()));
+            } catch (NumberFormatException e) {
+                // Cookie alterada: se ignora y la lectura puede ir a una réplica
+            }
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LecturaPropia.limpiar();
+        }
+    }
+}
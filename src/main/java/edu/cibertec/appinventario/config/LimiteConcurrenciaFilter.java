@@ -0,0 +1,156 @@
+package edu.cibertec.appinventario.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import edu.cibertec.appinventario.exception.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Control de admisión para el modo de hilos virtuales: Tomcat ya no limita la concurrencia con su pool
+// de 200 hilos, así que una ráfaga crearía miles de hilos compitiendo por las conexiones de Hikari.
+// Cada petición a /api espera aquí un permiso (hay tantos como conexiones en el pool); esperar en un
+// semáforo no ocupa un hilo de plataforma, y si no se obtiene a tiempo se responde 503 en lugar de
+// agotar el connectionTimeout de Hikari. Las respuestas en streaming (StreamingResponseBody) siguen trabajando
+// en un despacho asíncrono después de que la cadena de filtros devuelve, así que su permiso se libera al
+// terminar el procesamiento asíncrono
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final Duration esperaMaxima;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public LimiteConcurrenciaFilter(DataSource dataSource,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.concurrencia.espera-maxima:PT5S}") Duration esperaMaxima)
+            throws SQLException {
+        this(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize(), esperaMaxima, objectMapper);
+    }
+
+    LimiteConcurrenciaFilter(int permisos, Duration esperaMaxima, ObjectMapper objectMapper) {
+        // Semáforo justo: las peticiones se atienden en orden de llegada
+        this.permisos = new Semaphore(permisos, true);
+        this.esperaMaxima = esperaMaxima;
+        this.objectMapper = objectMapper;
+        log.info("Límite de peticiones concurrentes a /api: {} (espera máxima {})", permisos, esperaMaxima);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = permisos.tryAcquire(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+
+        if (!admitida) {
+            rechazar(request, response);
+            return;
+        }
+
+        boolean asincrona = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarPermiso());
+                asincrona = true;
+            }
+        } finally {
+            if (!asincrona) {
+                permisos.release();
+            }
+        }
+    }
+
+    // Libera el permiso una sola vez al terminar, con error o por tiempo agotado; los despachos asíncronos
+    // no pasan por este filtro (OncePerRequestFilter), así que no piden otro
+    private class LiberarPermiso implements AsyncListener {
+
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        // Un nuevo startAsync descarta los listeners registrados: hay que volver a registrarse
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void liberar() {
+            if (liberado.compareAndSet(false, true)) {
+                permisos.release();
+            }
+        }
+    }
+
+    // Peticiones esperando permiso en este momento
+    public int getEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.warn("Petición rechazada por saturación: {} {} ({} en espera)",
+                request.getMethod(), request.getRequestURI(), permisos.getQueueLength());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "El servidor está saturado, intente nuevamente",
+                request.getRequestURI()
+        );
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,113 @@
+package edu.cibertec.appinventario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Conexiones de solo lectura: reparte las transacciones readOnly entre las réplicas sanas por turnos.
+// Si ninguna réplica está disponible, la petición debe leer sus propias escrituras (LecturaPropia) o la
+// lectura va a llenar una caché (LecturaEnPrimaria), la conexión sale de la base de datos primaria
+@Slf4j
+public class ReplicasDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Tiempo máximo de la comprobación de salud de cada réplica, en segundos
+    private static final int TIEMPO_VALIDACION = 2;
+
+    private final DataSource primaria;
+    private final List<Replica> replicas;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final AtomicLong lecturasEnPrimaria = new AtomicLong();
+
+    public ReplicasDataSource(DataSource primaria, List<HikariDataSource> replicas) {
+        this.primaria = primaria;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!LecturaPropia.activa() && !LecturaEnPrimariaAspect.activa()) {
+            for (int intento = 0; intento < replicas.size(); intento++) {
+                Replica replica = replicas.get(Math.floorMod(turno.getAndIncrement(), replicas.size()));
+                if (!replica.sana) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.lecturas.incrementAndGet();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.marcar(false, e);
+                }
+            }
+        }
+        lecturasEnPrimaria.incrementAndGet();
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Las réplicas usan las credenciales configuradas");
+    }
+
+    // Vuelve a incluir las réplicas recuperadas y excluye las que dejaron de responder
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.intervalo-salud:PT10S}")
+    public void comprobarSalud() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.marcar(connection.isValid(TIEMPO_VALIDACION), null);
+            } catch (SQLException e) {
+                replica.marcar(false, e);
+            }
+        }
+    }
+
+    public List<String> getReplicasSanas() {
+        return replicas.stream().filter(r -> r.sana).map(r -> r.dataSource.getPoolName()).toList();
+    }
+
+    // Transacciones de solo lectura servidas por cada réplica, en el orden configurado
+    public List<Long> getLecturasPorReplica() {
+        return replicas.stream().map(r -> r.lecturas.get()).toList();
+    }
+
+    // Transacciones de solo lectura servidas por la primaria (lectura propia, llenado de cachés o sin réplicas)
+    public long getLecturasEnPrimaria() {
+        return lecturasEnPrimaria.get();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.dataSource.close());
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private final AtomicLong lecturas = new AtomicLong();
+        private volatile boolean sana = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void marcar(boolean sana, SQLException causa) {
+            if (this.sana != sana) {
+                if (sana) {
+                    log.info("Réplica {} disponible de nuevo", dataSource.getPoolName());
+                } else {
+                    log.warn("Réplica {} fuera de servicio: {}", dataSource.getPoolName(),
+                            causa != null ? causa.getMessage() : "conexión no válida");
+                }
+            }
+            this.sana = sana;
+        }
+    }
+}
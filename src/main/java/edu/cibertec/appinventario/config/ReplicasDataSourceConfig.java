@@ -0,0 +1,78 @@
+package edu.cibertec.appinventario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Réplicas de lectura. Solo se activa si se configuran sus URL (app.datasource.replicas.urls); sin ellas
+// la aplicación usa el DataSource autoconfigurado de spring.datasource.
+// El DataSource principal retrasa la obtención de la conexión física hasta la primera sentencia: para
+// entonces el gestor de transacciones ya marcó la conexión como de solo lectura en las transacciones
+// readOnly, y esa conexión se pide a ReplicasDataSource en lugar de a la primaria
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+public class ReplicasDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicasDataSource replicasDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primariaDataSource,
+            @Value("${app.datasource.replicas.urls}") List<String> urls,
+            @Value("${app.datasource.replicas.tamano-pool:${spring.datasource.hikari.maximum-pool-size:10}}") int tamanoPool,
+            @Value("${app.datasource.replicas.tiempo-conexion:PT2S}") Duration tiempoConexion,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(tamanoPool);
+            replica.setReadOnly(true);
+            // Una réplica caída no debe impedir el arranque ni retener la petición más de unos segundos
+            replica.setInitializationFailTimeout(-1);
+            replica.setConnectionTimeout(tiempoConexion.toMillis());
+            // Los pools de réplicas no son beans: Actuator solo instrumenta la primaria
+            meterRegistry.ifAvailable(registry ->
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+
+        ReplicasDataSource replicasDataSource = new ReplicasDataSource(primariaDataSource, replicas);
+        replicasDataSource.comprobarSalud();
+        return replicasDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primariaDataSource, ReplicasDataSource replicasDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primariaDataSource);
+        dataSource.setReadOnlyDataSource(replicasDataSource);
+        return dataSource;
+    }
+}
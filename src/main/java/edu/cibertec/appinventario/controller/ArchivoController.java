@@ -0,0 +1,29 @@
+package edu.cibertec.appinventario.controller;
+
+import edu.cibertec.appinventario.dto.ArchivoResultadoDto;
+import edu.cibertec.appinventario.service.ArchivoProductoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/archivo")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Archivo", description = "API de administración para archivar registros desactivados")
+public class ArchivoController {
+
+    private final ArchivoProductoService archivoProductoService;
+
+    @Operation(summary = "Archivar ahora los productos desactivados hace más de la antigüedad configurada")
+    @ApiResponse(responseCode = "200", description = "Número de productos movidos al histórico")
+    @PostMapping("/productos")
+    public ResponseEntity<ArchivoResultadoDto> archivarProductos() {
+        log.info("Solicitud para archivar productos desactivados");
+        return ResponseEntity.ok(archivoProductoService.archivar());
+    }
+}
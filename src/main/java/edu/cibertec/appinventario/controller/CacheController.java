@@ -0,0 +1,31 @@
+package edu.cibertec.appinventario.controller;
+
+import edu.cibertec.appinventario.dto.CacheEstadisticasDto;
+import edu.cibertec.appinventario.service.CacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Cachés", description = "API de administración para consultar el estado de las cachés")
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    @Operation(summary = "Obtener estadísticas de aciertos y fallos de las cachés")
+            @ApiResponse(responseCode = "200", description = "Estadísticas de cada caché (las regiones de Hibernate con prefijo hibernate.)")
+    @GetMapping
+    public ResponseEntity<List<CacheEstadisticasDto>> getEstadisticas() {
+        log.info("Solicitud para obtener estadísticas de cachés");
+        return ResponseEntity.ok(cacheService.getEstadisticas());
+    }
+}
@@ -0,0 +1,55 @@
+package edu.cibertec.appinventario.controller;
+
+import edu.cibertec.appinventario.dto.CargaResultadoDto;
+import edu.cibertec.appinventario.dto.EntidadCarga;
+import edu.cibertec.appinventario.dto.FormatoCarga;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.service.CargaMasivaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/carga")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Carga masiva", description = "API de administración para la carga inicial de catálogos")
+public class CargaMasivaController {
+
+    private final CargaMasivaService cargaMasivaService;
+
+    @Operation(summary = "Cargar categorías, marcas o productos mediante COPY")
+            @ApiResponse(responseCode = "200", description = "Resultado de la carga con filas leídas e insertadas")
+            @ApiResponse(responseCode = "400", description = "Entidad, formato o contenido inválido")
+    @PostMapping(value = "/{entidad}", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CargaResultadoDto> cargar(
+            @Parameter(description = "Entidad a cargar: categorias, marcas o productos") @PathVariable String entidad,
+            @Parameter(description = "Formato (csv o ndjson); por defecto se toma del Content-Type")
+            @RequestParam(required = false) String formato,
+            HttpServletRequest request) throws IOException {
+
+        EntidadCarga entidadCarga = EntidadCarga.desde(entidad);
+        FormatoCarga formatoCarga = FormatoCarga.desde(formato != null ? formato : tipoContenido(request));
+
+        log.info("Solicitud de carga masiva de {} en formato {}", entidadCarga, formatoCarga);
+        // El cuerpo se pasa directamente al COPY sin cargarlo en memoria
+        CargaResultadoDto resultado = cargaMasivaService.cargar(entidadCarga, formatoCarga, request.getInputStream());
+        return ResponseEntity.ok(resultado);
+    }
+
+    private String tipoContenido(HttpServletRequest request) {
+        if (request.getContentType() == null) {
+            throw new BadRequestException("Debe indicar el formato de la carga");
+        }
+        return MediaType.parseMediaType(request.getContentType()).getSubtype().equals("csv") ? "csv" : "ndjson";
+    }
+}
@@ -3,6 +3,7 @@ package edu.cibertec.appinventario.controller;
 import edu.cibertec.appinventario.dto.CategoriaRequestDto;
 import edu.cibertec.appinventario.dto.CategoriaResponseDto;
 import edu.cibertec.appinventario.dto.CategoriaSimpleDto;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 import edu.cibertec.appinventario.service.CategoriaService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -80,10 +81,12 @@ public class CategoriaController {
     @Operation(summary = "Obtener todas las categorías")
     @ApiResponse(responseCode = "200", description = "Lista de categorías")
     @GetMapping
-    public ResponseEntity<List<CategoriaResponseDto>> getAll() {
+    public ResponseEntity<List<CategoriaResponseDto>> getAll(
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para obtener todas las categorías");
-        List<CategoriaResponseDto> categorias = categoriaService.getAll();
+        List<CategoriaResponseDto> categorias = categoriaService.getAll(incluirInactivos);
         return ResponseEntity.ok(categorias);
     }
 
@@ -92,13 +95,36 @@ public class CategoriaController {
     @GetMapping("/paginadas")
     public ResponseEntity<PageResponseDto<CategoriaResponseDto>> getPaginated(
             @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size) {
-
-        log.info("Solicitud para obtener categorías paginadas: página {}, tamaño {}", page, size);
-        PageResponseDto<CategoriaResponseDto> categoriasPaginadas = categoriaService.getPaginated(page, size);
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Calcular el total exacto (false: total estimado, sin COUNT)")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener categorías paginadas: página {}, tamaño {}, con total {}", page, size, withTotal);
+        PageResponseDto<CategoriaResponseDto> categoriasPaginadas =
+                categoriaService.getPaginated(page, size, withTotal, incluirInactivos);
         return ResponseEntity.ok(categoriasPaginadas);
     }
 
+    @Operation(summary = "Obtener categorías paginadas por cursor")
+    @ApiResponse(responseCode = "200", description = "Página de categorías y cursor de la siguiente página")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponseDto<CategoriaResponseDto>> getByCursor(
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir el total de elementos (ejecuta un conteo adicional)")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener categorías por cursor: tamaño {}, con total {}", size, withTotal);
+        CursorPageResponseDto<CategoriaResponseDto> categoriasPorCursor =
+                categoriaService.getByCursor(cursor, size, withTotal, incluirInactivos);
+        return ResponseEntity.ok(categoriasPorCursor);
+    }
+
     @Operation(summary = "Obtener lista simple de todas las categorías activas")
     @ApiResponse(responseCode = "200", description = "Lista simple de categorías")
     @GetMapping("/simple")
@@ -110,14 +136,19 @@ public class CategoriaController {
     }
 
     @Operation(summary = "Buscar categorías por nombre")
-    @ApiResponse(responseCode = "200", description = "Categorías que coinciden con el criterio de búsqueda")
+    @ApiResponse(responseCode = "200", description = "Página de categorías que coinciden, ordenadas por relevancia")
     @GetMapping("/buscar")
-    public ResponseEntity<List<CategoriaResponseDto>> findByNombre(
-            @Parameter(description = "Nombre o parte del nombre a buscar")
-            @RequestParam String nombre) {
+    public ResponseEntity<PageResponseDto<CategoriaResponseDto>> findByNombre(
+            @Parameter(description = "Nombre o parte del nombre a buscar (tolera errores de tipeo)")
+            @RequestParam String nombre,
+            @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar categorías por nombre: {}", nombre);
-        List<CategoriaResponseDto> categorias = categoriaService.findByNombre(nombre);
+        PageResponseDto<CategoriaResponseDto> categorias =
+                categoriaService.findByNombre(nombre, page, size, incluirInactivos);
         return ResponseEntity.ok(categorias);
     }
 
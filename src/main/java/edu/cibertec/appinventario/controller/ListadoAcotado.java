@@ -0,0 +1,92 @@
+package edu.cibertec.appinventario.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Respuesta de los listados sin paginación. Se leen como mucho app.listados.maximo-resultados + 1 filas:
+// si caben, la lista ya serializada se envía con su Content-Length; si no, el mismo arreglo JSON se envía
+// en streaming (transferencia por bloques) leyendo la base de datos con un cursor, sin materializarlo en
+// memoria. Cada vez que se supera el límite se incrementa la métrica listados.limite.superado.
+// Ambos casos usan StreamingResponseBody porque Spring elige el manejador por el tipo declarado
+@Component
+@Slf4j
+class ListadoAcotado {
+
+    static final String METRICA_LIMITE_SUPERADO = "listados.limite.superado";
+    static final String CABECERA_STREAMING = "X-Listado-Streaming";
+
+    private final int maximoResultados;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    ListadoAcotado(@Value("${app.listados.maximo-resultados:1000}") int maximoResultados,
+                   ObjectMapper objectMapper,
+                   MeterRegistry meterRegistry) {
+        this.maximoResultados = maximoResultados;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> ResponseEntity<StreamingResponseBody> responder(String listado, IntFunction<List<T>> primeros,
+                                                       Consumer<Consumer<T>> todos) {
+        List<T> resultados = primeros.apply(maximoResultados + 1);
+        if (resultados.size() <= maximoResultados) {
+            byte[] json = serializar(resultados);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(json.length)
+                    .body(salida -> salida.write(json));
+        }
+
+        log.warn("El listado {} supera {} resultados, se envía en streaming", listado, maximoResultados);
+        Counter.builder(METRICA_LIMITE_SUPERADO)
+                .description("Listados que superaron el máximo de resultados y se enviaron en streaming")
+                .tag("listado", listado)
+                .register(meterRegistry)
+                .increment();
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(salida)) {
+                generator.writeStartArray();
+                todos.accept(elemento -> {
+                    try {
+                        writer.writeValue(generator, elemento);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(CABECERA_STREAMING, "true")
+                .body(cuerpo);
+    }
+
+    private byte[] serializar(List<?> resultados) {
+        try {
+            return objectMapper.writeValueAsBytes(resultados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package edu.cibertec.appinventario.controller;
 
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.MarcaRequestDto;
 import edu.cibertec.appinventario.dto.MarcaResponseDto;
 import edu.cibertec.appinventario.dto.MarcaSimpleDto;
@@ -84,10 +85,12 @@ public class MarcaController {
     @Operation(summary = "Obtener todas las marcas")
     @ApiResponse(responseCode = "200", description = "Lista de marcas")
     @GetMapping
-    public ResponseEntity<List<MarcaResponseDto>> getAll() {
+    public ResponseEntity<List<MarcaResponseDto>> getAll(
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para obtener todas las marcas");
-        List<MarcaResponseDto> marcas = marcaService.getAll();
+        List<MarcaResponseDto> marcas = marcaService.getAll(incluirInactivos);
         return ResponseEntity.ok(marcas);
     }
 
@@ -96,13 +99,36 @@ public class MarcaController {
     @GetMapping("/paginadas")
     public ResponseEntity<PageResponseDto<MarcaResponseDto>> getPaginated(
             @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size) {
-
-        log.info("Solicitud para obtener marcas paginadas: página {}, tamaño {}", page, size);
-        PageResponseDto<MarcaResponseDto> marcasPaginadas = marcaService.getPaginated(page, size);
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Calcular el total exacto (false: total estimado, sin COUNT)")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener marcas paginadas: página {}, tamaño {}, con total {}", page, size, withTotal);
+        PageResponseDto<MarcaResponseDto> marcasPaginadas =
+                marcaService.getPaginated(page, size, withTotal, incluirInactivos);
         return ResponseEntity.ok(marcasPaginadas);
     }
 
+    @Operation(summary = "Obtener marcas paginadas por cursor")
+    @ApiResponse(responseCode = "200", description = "Página de marcas y cursor de la siguiente página")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponseDto<MarcaResponseDto>> getByCursor(
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir el total de elementos (ejecuta un conteo adicional)")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener marcas por cursor: tamaño {}, con total {}", size, withTotal);
+        CursorPageResponseDto<MarcaResponseDto> marcasPorCursor =
+                marcaService.getByCursor(cursor, size, withTotal, incluirInactivos);
+        return ResponseEntity.ok(marcasPorCursor);
+    }
+
     @Operation(summary = "Obtener lista simple de todas las marcas activas")
     @ApiResponse(responseCode = "200", description = "Lista simple de marcas")
     @GetMapping("/simple")
@@ -114,14 +140,18 @@ public class MarcaController {
     }
 
     @Operation(summary = "Buscar marcas por nombre")
-    @ApiResponse(responseCode = "200", description = "Marcas que coinciden con el criterio de búsqueda")
+    @ApiResponse(responseCode = "200", description = "Página de marcas que coinciden, ordenadas por relevancia")
     @GetMapping("/buscar-por-nombre")
-    public ResponseEntity<List<MarcaResponseDto>> findByNombre(
-            @Parameter(description = "Nombre o parte del nombre a buscar")
-            @RequestParam String nombre) {
+    public ResponseEntity<PageResponseDto<MarcaResponseDto>> findByNombre(
+            @Parameter(description = "Nombre o parte del nombre a buscar (tolera errores de tipeo)")
+            @RequestParam String nombre,
+            @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar marcas por nombre: {}", nombre);
-        List<MarcaResponseDto> marcas = marcaService.findByNombre(nombre);
+        PageResponseDto<MarcaResponseDto> marcas = marcaService.findByNombre(nombre, page, size, incluirInactivos);
         return ResponseEntity.ok(marcas);
     }
 
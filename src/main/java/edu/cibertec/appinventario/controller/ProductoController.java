@@ -1,20 +1,51 @@
 package edu.cibertec.appinventario.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.dto.FiltroProductosResponseDto;
+import edu.cibertec.appinventario.dto.ImportacionProductosRequestDto;
+import edu.cibertec.appinventario.dto.ImportacionResultadoDto;
+import edu.cibertec.appinventario.dto.IndiceBusquedaEstadisticasDto;
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.LoteStockResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 import edu.cibertec.appinventario.dto.ProductoRequestDto;
 import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
+import edu.cibertec.appinventario.dto.ReservaStockDto;
+import edu.cibertec.appinventario.dto.ReservaStockRequestDto;
+import edu.cibertec.appinventario.dto.StockDisponibleDto;
+import edu.cibertec.appinventario.dto.SugerenciaProductoDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.service.BusquedaProductoService;
+import edu.cibertec.appinventario.service.MovimientoStockService;
+import edu.cibertec.appinventario.service.ProductoImportacionService;
 import edu.cibertec.appinventario.service.ProductoService;
+import edu.cibertec.appinventario.service.ReservaStockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -26,6 +57,12 @@ import java.util.List;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ProductoImportacionService productoImportacionService;
+    private final BusquedaProductoService busquedaProductoService;
+    private final MovimientoStockService movimientoStockService;
+    private final ReservaStockService reservaStockService;
+    private final ObjectMapper objectMapper;
+    private final ListadoAcotado listadoAcotado;
 
     @Operation(summary = "Crear nuevo producto")
             @ApiResponse(responseCode = "201", description = "Producto creado exitosamente")
@@ -39,6 +76,34 @@ public class ProductoController {
         return new ResponseEntity<>(createdProducto, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Importar productos en lote",
+            description = "Los errores indican en linea la posición del producto en la lista, empezando en 1")
+            @ApiResponse(responseCode = "200", description = "Resultado de la importación con los errores por línea")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+    @PostMapping("/lote")
+    public ResponseEntity<ImportacionResultadoDto> importar(
+            @Valid @RequestBody ImportacionProductosRequestDto requestDto) {
+
+        log.info("Solicitud para importar {} productos", requestDto.productos().size());
+        ImportacionResultadoDto resultado = productoImportacionService.importar(requestDto.productos());
+        return ResponseEntity.ok(resultado);
+    }
+
+    @Operation(summary = "Importar productos desde un archivo CSV",
+            description = "Los errores indican en linea la posición del producto entre las filas de datos, "
+                    + "empezando en 1: no cuentan la cabecera ni las líneas en blanco")
+            @ApiResponse(responseCode = "200", description = "Resultado de la importación con los errores por línea")
+            @ApiResponse(responseCode = "400", description = "Archivo inválido o sin las columnas requeridas")
+    @PostMapping(value = "/lote/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportacionResultadoDto> importarCsv(
+            @Parameter(description = "CSV con cabecera codigo,nombre,descripcion,precio,stock,categoriaId,marcaId")
+            @RequestParam("archivo") MultipartFile archivo) throws IOException {
+
+        log.info("Solicitud para importar productos desde CSV: {}", archivo.getOriginalFilename());
+        ImportacionResultadoDto resultado = productoImportacionService.importarCsv(archivo.getInputStream());
+        return ResponseEntity.ok(resultado);
+    }
+
     @Operation(summary = "Obtener producto por ID")
             @ApiResponse(responseCode = "200", description = "Producto encontrado")
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
@@ -77,14 +142,55 @@ public class ProductoController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Obtener todos los productos")
-    @ApiResponse(responseCode = "200", description = "Lista de productos")
+    @Operation(summary = "Obtener todos los productos",
+            description = "Por encima de app.listados.maximo-resultados la lista se envía en streaming")
+    @ApiResponse(responseCode = "200", description = "Lista de productos ordenada por nombre",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductoResponseDto.class))))
     @GetMapping
-    public ResponseEntity<List<ProductoResponseDto>> getAll() {
+    public ResponseEntity<StreamingResponseBody> getAll(
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para obtener todos los productos");
-        List<ProductoResponseDto> productos = productoService.getAll();
-        return ResponseEntity.ok(productos);
+        return listadoAcotado.responder("todos",
+                limite -> productoService.getAll(incluirInactivos, limite),
+                consumidor -> productoService.exportarTodos(incluirInactivos, consumidor));
+    }
+
+    @Operation(summary = "Exportar todos los productos en streaming")
+            @ApiResponse(responseCode = "200", description = "Productos en formato NDJSON, uno por línea")
+            @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato de salida (ndjson)") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para exportar productos en formato: {}", format);
+        if (!"ndjson".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Formato de exportación no soportado: " + format);
+        }
+
+        // Cada producto se escribe en la respuesta a medida que se lee del cursor
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(salida)) {
+                // Sin el espacio que Jackson escribe por defecto entre valores raíz: cada línea empieza con {
+                generator.setRootValueSeparator(null);
+                productoService.exportar(incluirInactivos, producto -> {
+                    try {
+                        writer.writeValue(generator, producto);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
     }
 
     @Operation(summary = "Obtener productos paginados")
@@ -92,13 +198,86 @@ public class ProductoController {
     @GetMapping("/paginados")
     public ResponseEntity<PageResponseDto<ProductoResponseDto>> getPaginated(
             @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size) {
-
-        log.info("Solicitud para obtener productos paginados: página {}, tamaño {}", page, size);
-        PageResponseDto<ProductoResponseDto> productosPaginados = productoService.getPaginated(page, size);
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Calcular el total exacto (false: total estimado, sin COUNT)")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener productos paginados: página {}, tamaño {}, con total {}", page, size, withTotal);
+        PageResponseDto<ProductoResponseDto> productosPaginados =
+                productoService.getPaginated(page, size, withTotal, incluirInactivos);
         return ResponseEntity.ok(productosPaginados);
     }
 
+    @Operation(summary = "Obtener productos paginados por cursor")
+    @ApiResponse(responseCode = "200", description = "Página de productos y cursor de la siguiente página")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponseDto<ProductoResponseDto>> getByCursor(
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir el total de elementos (ejecuta un conteo adicional)")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener productos por cursor: tamaño {}, con total {}", size, withTotal);
+        CursorPageResponseDto<ProductoResponseDto> productosPorCursor =
+                productoService.getByCursor(cursor, size, withTotal, incluirInactivos);
+        return ResponseEntity.ok(productosPorCursor);
+    }
+
+    @Operation(summary = "Obtener el listado resumido de productos por cursor",
+            description = "Solo código, nombre, precio y stock; se sirve desde un índice de cobertura. "
+                    + "El stock es el compactado: no incluye los movimientos de los últimos segundos "
+                    + "(app.stock.compactacion.intervalo)")
+    @ApiResponse(responseCode = "200", description = "Página de productos resumidos y cursor de la siguiente página")
+    @GetMapping("/resumen")
+    public ResponseEntity<CursorPageResponseDto<ProductoSimpleDto>> getResumenByCursor(
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
+
+        log.info("Solicitud para obtener resumen de productos por cursor: tamaño {}", size);
+        CursorPageResponseDto<ProductoSimpleDto> resumen =
+                productoService.getResumenByCursor(cursor, size, incluirInactivos);
+        return ResponseEntity.ok(resumen);
+    }
+
+    @Operation(summary = "Filtrar productos combinando criterios",
+            description = "Todos los criterios son opcionales y se combinan con AND. Las facetas de categoría "
+                    + "y marca cuentan los productos que cumplen el resto de criterios. El filtro conStock "
+                    + "usa el stock compactado, que va unos segundos por detrás de los movimientos "
+                    + "(app.stock.compactacion.intervalo): puede incluir productos recién agotados.")
+    @ApiResponse(responseCode = "200", description = "Página de productos, cursor de la siguiente página y facetas")
+    @ApiResponse(responseCode = "400", description = "Rango de precios o cursor inválido")
+    @GetMapping("/filtrar")
+    public ResponseEntity<FiltroProductosResponseDto> filtrar(
+            @Parameter(description = "ID de la categoría") @RequestParam(required = false) Integer categoriaId,
+            @Parameter(description = "ID de la marca") @RequestParam(required = false) Integer marcaId,
+            @Parameter(description = "Precio mínimo") @RequestParam(required = false) BigDecimal precioMin,
+            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal precioMax,
+            @Parameter(description = "Solo productos con stock compactado mayor a cero")
+            @RequestParam(required = false) Boolean conStock,
+            @Parameter(description = "Estado del producto (por defecto, solo activos)")
+            @RequestParam(required = false) Boolean activo,
+            @Parameter(description = "Términos que deben aparecer en el nombre, en cualquier orden")
+            @RequestParam(required = false) String nombre,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir los conteos por categoría y marca")
+            @RequestParam(defaultValue = "true") boolean facetas) {
+
+        FiltroProductoDto filtro = new FiltroProductoDto(categoriaId, marcaId, precioMin, precioMax, conStock, activo, nombre);
+        log.info("Solicitud para filtrar productos: {}", filtro);
+        FiltroProductosResponseDto resultado = productoService.filtrar(filtro, cursor, size, facetas);
+        return ResponseEntity.ok(resultado);
+    }
+
     @Operation(summary = "Buscar producto por código")
             @ApiResponse(responseCode = "200", description = "Producto encontrado")
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
@@ -112,59 +291,116 @@ public class ProductoController {
     }
 
     @Operation(summary = "Buscar productos por nombre")
-    @ApiResponse(responseCode = "200", description = "Productos que coinciden con el criterio de búsqueda")
+    @ApiResponse(responseCode = "200", description = "Página de productos que coinciden, ordenados por relevancia")
     @GetMapping("/buscar-por-nombre")
-    public ResponseEntity<List<ProductoResponseDto>> findByNombre(
-            @Parameter(description = "Nombre o parte del nombre a buscar")
-            @RequestParam String nombre) {
+    public ResponseEntity<PageResponseDto<ProductoResponseDto>> findByNombre(
+            @Parameter(description = "Nombre o parte del nombre a buscar (tolera errores de tipeo)")
+            @RequestParam String nombre,
+            @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar productos por nombre: {}", nombre);
-        List<ProductoResponseDto> productos = productoService.findByNombre(nombre);
+        PageResponseDto<ProductoResponseDto> productos =
+                productoService.findByNombre(nombre, page, size, incluirInactivos);
         return ResponseEntity.ok(productos);
     }
 
-    @Operation(summary = "Buscar productos por categoría")
-    @ApiResponse(responseCode = "200", description = "Productos que pertenecen a la categoría especificada")
+    @Operation(summary = "Sugerir productos mientras se escribe (autocompletado)")
+    @ApiResponse(responseCode = "200", description = "Productos cuyo nombre, código o descripción coinciden por prefijo o similitud")
+    @ApiResponse(responseCode = "400", description = "Texto vacío o límite fuera de rango")
+    @GetMapping("/sugerir")
+    public ResponseEntity<List<SugerenciaProductoDto>> sugerir(
+            @Parameter(description = "Texto escrito hasta el momento") @RequestParam String q,
+            @Parameter(description = "Número máximo de sugerencias (1-50)") @RequestParam(defaultValue = "10") int limite) {
+
+        log.debug("Solicitud de sugerencias para: {}", q);
+        List<SugerenciaProductoDto> sugerencias = busquedaProductoService.sugerir(q, limite);
+        return ResponseEntity.ok(sugerencias);
+    }
+
+    @Operation(summary = "Obtener el estado del índice de sugerencias")
+    @ApiResponse(responseCode = "200", description = "Tamaño, memoria estimada y duración de la última reconstrucción")
+    @GetMapping("/sugerir/indice")
+    public ResponseEntity<IndiceBusquedaEstadisticasDto> getIndiceSugerencias() {
+        log.info("Solicitud para obtener estadísticas del índice de sugerencias");
+        return ResponseEntity.ok(busquedaProductoService.getEstadisticas());
+    }
+
+    @Operation(summary = "Reconstruir el índice de sugerencias desde la base de datos")
+    @ApiResponse(responseCode = "200", description = "Estadísticas del índice reconstruido")
+    @PostMapping("/sugerir/indice")
+    public ResponseEntity<IndiceBusquedaEstadisticasDto> reconstruirIndiceSugerencias() {
+        log.info("Solicitud para reconstruir el índice de sugerencias");
+        return ResponseEntity.ok(busquedaProductoService.reconstruir());
+    }
+
+    @Operation(summary = "Buscar productos por categoría", deprecated = true,
+            description = "Usar GET /api/productos/filtrar")
+    @ApiResponse(responseCode = "200", description = "Productos que pertenecen a la categoría especificada",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductoResponseDto.class))))
     @GetMapping("/por-categoria/{categoriaId}")
-    public ResponseEntity<List<ProductoResponseDto>> findByCategoria(
-            @Parameter(description = "ID de la categoría") @PathVariable Integer categoriaId) {
+    public ResponseEntity<StreamingResponseBody> findByCategoria(
+            @Parameter(description = "ID de la categoría") @PathVariable Integer categoriaId,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar productos por categoría ID: {}", categoriaId);
-        List<ProductoResponseDto> productos = productoService.findByCategoria(categoriaId);
-        return ResponseEntity.ok(productos);
+        return listadoAcotado.responder("por-categoria",
+                limite -> productoService.findByCategoria(categoriaId, incluirInactivos, limite),
+                consumidor -> productoService.exportarPorCategoria(categoriaId, incluirInactivos, consumidor));
     }
 
-    @Operation(summary = "Buscar productos por marca")
-    @ApiResponse(responseCode = "200", description = "Productos que pertenecen a la marca especificada")
+    @Operation(summary = "Buscar productos por marca", deprecated = true,
+            description = "Usar GET /api/productos/filtrar")
+    @ApiResponse(responseCode = "200", description = "Productos que pertenecen a la marca especificada",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductoResponseDto.class))))
     @GetMapping("/por-marca/{marcaId}")
-    public ResponseEntity<List<ProductoResponseDto>> findByMarca(
-            @Parameter(description = "ID de la marca") @PathVariable Integer marcaId) {
+    public ResponseEntity<StreamingResponseBody> findByMarca(
+            @Parameter(description = "ID de la marca") @PathVariable Integer marcaId,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar productos por marca ID: {}", marcaId);
-        List<ProductoResponseDto> productos = productoService.findByMarca(marcaId);
-        return ResponseEntity.ok(productos);
+        return listadoAcotado.responder("por-marca",
+                limite -> productoService.findByMarca(marcaId, incluirInactivos, limite),
+                consumidor -> productoService.exportarPorMarca(marcaId, incluirInactivos, consumidor));
     }
 
-    @Operation(summary = "Buscar productos por rango de precio")
-    @ApiResponse(responseCode = "200", description = "Productos dentro del rango de precio especificado")
+    @Operation(summary = "Buscar productos por rango de precio", deprecated = true,
+            description = "Usar GET /api/productos/filtrar")
+    @ApiResponse(responseCode = "200", description = "Productos dentro del rango de precio especificado",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductoResponseDto.class))))
     @GetMapping("/por-rango-precio")
-    public ResponseEntity<List<ProductoResponseDto>> findByRangoPrecio(
+    public ResponseEntity<StreamingResponseBody> findByRangoPrecio(
             @Parameter(description = "Precio mínimo") @RequestParam BigDecimal precioMin,
-            @Parameter(description = "Precio máximo") @RequestParam BigDecimal precioMax) {
+            @Parameter(description = "Precio máximo") @RequestParam BigDecimal precioMax,
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para buscar productos por rango de precio: {} - {}", precioMin, precioMax);
-        List<ProductoResponseDto> productos = productoService.findByRangoPrecio(precioMin, precioMax);
-        return ResponseEntity.ok(productos);
+        return listadoAcotado.responder("por-rango-precio",
+                limite -> productoService.findByRangoPrecio(precioMin, precioMax, incluirInactivos, limite),
+                consumidor -> productoService.exportarPorRangoPrecio(precioMin, precioMax, incluirInactivos,
+                        consumidor));
     }
 
-    @Operation(summary = "Obtener productos con stock disponible")
-    @ApiResponse(responseCode = "200", description = "Productos con stock mayor a cero")
+    @Operation(summary = "Obtener productos con stock disponible", deprecated = true,
+            description = "Usar GET /api/productos/filtrar. Filtra por el stock compactado, que va unos "
+                    + "segundos por detrás de los movimientos (app.stock.compactacion.intervalo): "
+                    + "puede incluir productos recién agotados")
+    @ApiResponse(responseCode = "200", description = "Productos con stock mayor a cero",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductoResponseDto.class))))
     @GetMapping("/con-stock")
-    public ResponseEntity<List<ProductoResponseDto>> findProductosConStock() {
+    public ResponseEntity<StreamingResponseBody> findProductosConStock(
+            @Parameter(description = "Incluir también los registros desactivados")
+            @RequestParam(defaultValue = "false") boolean incluirInactivos) {
 
         log.info("Solicitud para obtener productos con stock disponible");
-        List<ProductoResponseDto> productos = productoService.findProductosConStock();
-        return ResponseEntity.ok(productos);
+        return listadoAcotado.responder("con-stock",
+                limite -> productoService.findProductosConStock(incluirInactivos, limite),
+                consumidor -> productoService.exportarConStock(incluirInactivos, consumidor));
     }
 
     @Operation(summary = "Verificar si existe un producto por código")
@@ -193,4 +429,90 @@ public class ProductoController {
         ProductoResponseDto updatedProducto = productoService.actualizarStock(id, cantidad);
         return ResponseEntity.ok(updatedProducto);
     }
+
+    @Operation(summary = "Obtener el historial de movimientos de stock de un producto",
+            description = "Del más reciente al más antiguo. Los movimientos con aplicado=false aún no se han "
+                    + "consolidado en el stock del producto, pero ya cuentan en el stock que devuelve GET /{id}")
+    @ApiResponse(responseCode = "200", description = "Página de movimientos y cursor de la siguiente página")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    @GetMapping("/{id}/movimientos")
+    public ResponseEntity<CursorPageResponseDto<MovimientoStockDto>> getMovimientos(
+            @Parameter(description = "ID del producto") @PathVariable Integer id,
+            @Parameter(description = "Cursor devuelto por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página") @RequestParam(defaultValue = "20") int size) {
+
+        log.info("Solicitud para obtener movimientos de stock del producto ID: {}", id);
+        CursorPageResponseDto<MovimientoStockDto> movimientos = movimientoStockService.getHistorial(id, cursor, size);
+        return ResponseEntity.ok(movimientos);
+    }
+
+    @Operation(summary = "Reservar stock de un producto",
+            description = "Retiene las unidades hasta que la reserva se confirma, se libera o vence, sin modificar "
+                    + "el stock. Pensado para el checkout en lugar de restar y volver a sumar al abandonar el carrito")
+    @ApiResponse(responseCode = "201", description = "Reserva creada")
+    @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o stock disponible insuficiente")
+    @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    @PostMapping("/{id}/reservas")
+    public ResponseEntity<ReservaStockDto> reservar(
+            @Parameter(description = "ID del producto") @PathVariable Integer id,
+            @Valid @RequestBody ReservaStockRequestDto requestDto) {
+
+        log.info("Solicitud para reservar {} unidades del producto ID: {}", requestDto.cantidad(), id);
+        ReservaStockDto reserva = reservaStockService.reservar(id, requestDto);
+        return new ResponseEntity<>(reserva, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Confirmar una reserva", description = "Registra la salida de las unidades reservadas")
+    @ApiResponse(responseCode = "200", description = "Reserva confirmada")
+    @ApiResponse(responseCode = "400", description = "La reserva no está activa o ha expirado")
+    @ApiResponse(responseCode = "404", description = "Reserva no encontrada")
+    @PostMapping("/{id}/reservas/{reservaId}/confirmar")
+    public ResponseEntity<ReservaStockDto> confirmarReserva(
+            @Parameter(description = "ID del producto") @PathVariable Integer id,
+            @Parameter(description = "ID de la reserva") @PathVariable Long reservaId) {
+
+        log.info("Solicitud para confirmar la reserva ID: {} del producto ID: {}", reservaId, id);
+        ReservaStockDto reserva = reservaStockService.confirmar(id, reservaId);
+        return ResponseEntity.ok(reserva);
+    }
+
+    @Operation(summary = "Liberar una reserva", description = "Devuelve las unidades al stock disponible")
+    @ApiResponse(responseCode = "204", description = "Reserva liberada")
+    @ApiResponse(responseCode = "400", description = "La reserva no está activa")
+    @ApiResponse(responseCode = "404", description = "Reserva no encontrada")
+    @DeleteMapping("/{id}/reservas/{reservaId}")
+    public ResponseEntity<Void> liberarReserva(
+            @Parameter(description = "ID del producto") @PathVariable Integer id,
+            @Parameter(description = "ID de la reserva") @PathVariable Long reservaId) {
+
+        log.info("Solicitud para liberar la reserva ID: {} del producto ID: {}", reservaId, id);
+        reservaStockService.liberar(id, reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Obtener el stock disponible de un producto",
+            description = "Stock vigente menos las unidades retenidas por reservas activas sin vencer")
+    @ApiResponse(responseCode = "200", description = "Stock, reservado y disponible")
+    @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    @GetMapping("/{id}/disponible")
+    public ResponseEntity<StockDisponibleDto> getDisponible(
+            @Parameter(description = "ID del producto") @PathVariable Integer id) {
+
+        log.info("Solicitud para obtener el stock disponible del producto ID: {}", id);
+        return ResponseEntity.ok(reservaStockService.getDisponible(id));
+    }
+
+    @Operation(summary = "Actualizar stock de varios productos en lote")
+            @ApiResponse(responseCode = "200", description = "Resultado de cada movimiento del lote")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+    @PostMapping("/stock/lote")
+    public ResponseEntity<LoteStockResponseDto> actualizarStockEnLote(
+            @Valid @RequestBody LoteStockRequestDto requestDto) {
+
+        log.info("Solicitud para actualizar stock en lote: {} movimientos", requestDto.movimientos().size());
+        LoteStockResponseDto resultado = productoService.actualizarStockEnLote(requestDto);
+        return ResponseEntity.ok(resultado);
+    }
 }
@@ -0,0 +1,9 @@
+package edu.cibertec.appinventario.dto;
+
+import java.time.LocalDateTime;
+
+public record ArchivoResultadoDto(
+        int archivados,
+        LocalDateTime desactivadosAntesDe,
+        long duracionMs
+) {}
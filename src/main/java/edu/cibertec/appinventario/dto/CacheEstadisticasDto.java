@@ -0,0 +1,10 @@
+package edu.cibertec.appinventario.dto;
+
+public record CacheEstadisticasDto(
+        String nombre,
+        long tamano,
+        long aciertos,
+        long fallos,
+        double tasaAciertos,
+        long expulsiones
+) {}
@@ -0,0 +1,10 @@
+package edu.cibertec.appinventario.dto;
+
+public record CargaResultadoDto(
+        EntidadCarga entidad,
+        long leidos,
+        long insertados,
+        long rechazados,
+        long duracionMs,
+        double filasPorSegundo
+) {}
@@ -0,0 +1,11 @@
+package edu.cibertec.appinventario.dto;
+
+import java.util.List;
+
+public record CursorPageResponseDto<T>(
+        List<T> content,
+        int pageSize,
+        String nextCursor,
+        boolean hasNext,
+        Long totalElements
+) {}
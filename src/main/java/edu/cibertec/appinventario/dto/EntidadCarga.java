@@ -0,0 +1,19 @@
+package edu.cibertec.appinventario.dto;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+
+import java.util.Arrays;
+
+// Tablas que admite el cargador masivo, en el orden en que deben cargarse
+public enum EntidadCarga {
+    CATEGORIAS,
+    MARCAS,
+    PRODUCTOS;
+
+    public static EntidadCarga desde(String valor) {
+        return Arrays.stream(values())
+                .filter(e -> e.name().equalsIgnoreCase(valor))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Entidad de carga no soportada: " + valor));
+    }
+}
@@ -0,0 +1,8 @@
+package edu.cibertec.appinventario.dto;
+
+public record ErrorImportacionDto(
+        // Posición del producto entre los recibidos, desde 1 (en el CSV sin contar la cabecera ni las líneas en blanco)
+        int linea,
+        String codigo,
+        String mensaje
+) {}
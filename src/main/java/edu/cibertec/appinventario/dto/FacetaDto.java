@@ -0,0 +1,7 @@
+package edu.cibertec.appinventario.dto;
+
+public record FacetaDto(
+        Integer id,
+        String nombre,
+        long total
+) {}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import java.math.BigDecimal;
+
+// Criterios combinables del filtrado de productos; los valores null no filtran
+public record FiltroProductoDto(
+        Integer categoriaId,
+        Integer marcaId,
+        BigDecimal precioMin,
+        BigDecimal precioMax,
+        Boolean conStock,
+        Boolean activo,
+        String nombre
+) {}
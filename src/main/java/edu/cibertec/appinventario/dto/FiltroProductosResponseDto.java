@@ -0,0 +1,9 @@
+package edu.cibertec.appinventario.dto;
+
+import java.util.List;
+
+public record FiltroProductosResponseDto(
+        CursorPageResponseDto<ProductoResponseDto> pagina,
+        List<FacetaDto> categorias,
+        List<FacetaDto> marcas
+) {}
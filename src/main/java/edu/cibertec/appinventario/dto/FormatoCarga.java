@@ -0,0 +1,19 @@
+package edu.cibertec.appinventario.dto;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+
+// Formatos de entrada del cargador masivo; el CSV debe traer cabecera y las columnas en el orden de la tabla
+public enum FormatoCarga {
+    CSV,
+    NDJSON;
+
+    public static FormatoCarga desde(String valor) {
+        if ("csv".equalsIgnoreCase(valor) || "text/csv".equalsIgnoreCase(valor)) {
+            return CSV;
+        }
+        if ("ndjson".equalsIgnoreCase(valor) || "application/x-ndjson".equalsIgnoreCase(valor)) {
+            return NDJSON;
+        }
+        throw new BadRequestException("Formato de carga no soportado: " + valor);
+    }
+}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Las filas se validan una a una durante la importación para informar el error de cada línea
+public record ImportacionProductosRequestDto(
+        @NotEmpty(message = "La importación debe contener al menos un producto")
+        @Size(max = 100000, message = "La importación no debe exceder los 100000 productos")
+        List<@NotNull ProductoRequestDto> productos
+) {}
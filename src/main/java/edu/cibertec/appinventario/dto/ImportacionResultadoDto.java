@@ -0,0 +1,12 @@
+package edu.cibertec.appinventario.dto;
+
+import java.util.List;
+
+public record ImportacionResultadoDto(
+        int recibidos,
+        int insertados,
+        int rechazados,
+        List<ErrorImportacionDto> errores,
+        long duracionMs,
+        double filasPorSegundo
+) {}
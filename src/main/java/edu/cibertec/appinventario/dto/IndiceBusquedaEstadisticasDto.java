@@ -0,0 +1,12 @@
+package edu.cibertec.appinventario.dto;
+
+import java.time.LocalDateTime;
+
+public record IndiceBusquedaEstadisticasDto(
+        int documentos,
+        int trigramas,
+        long postings,
+        long bytesEstimados,
+        long duracionReconstruccionMs,
+        LocalDateTime ultimaReconstruccion
+) {}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record LoteStockRequestDto(
+        @NotEmpty(message = "El lote debe contener al menos un movimiento")
+        @Size(max = 10000, message = "El lote no debe exceder los 10000 movimientos")
+        List<@Valid @NotNull MovimientoStockRequestDto> movimientos
+) {}
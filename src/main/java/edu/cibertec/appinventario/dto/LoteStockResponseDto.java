@@ -0,0 +1,10 @@
+package edu.cibertec.appinventario.dto;
+
+import java.util.List;
+
+public record LoteStockResponseDto(
+        int total,
+        int aplicados,
+        int rechazados,
+        List<MovimientoStockResultadoDto> resultados
+) {}
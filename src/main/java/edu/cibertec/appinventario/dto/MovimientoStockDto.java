@@ -0,0 +1,13 @@
+package edu.cibertec.appinventario.dto;
+
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+
+import java.time.LocalDateTime;
+
+public record MovimientoStockDto(
+        Long id,
+        Integer cantidad,
+        TipoMovimientoStock tipo,
+        LocalDateTime fecha,
+        boolean aplicado
+) {}
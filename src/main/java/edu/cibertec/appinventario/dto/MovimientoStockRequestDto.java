@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record MovimientoStockRequestDto(
+        Integer id,
+
+        @Size(max = 50, message = "El código no debe exceder los 50 caracteres")
+        String codigo,
+
+        @NotNull(message = "La cantidad es obligatoria")
+        Integer cantidad
+) {}
@@ -0,0 +1,10 @@
+package edu.cibertec.appinventario.dto;
+
+public record MovimientoStockResultadoDto(
+        int linea,
+        Integer id,
+        String codigo,
+        Integer cantidad,
+        boolean aplicado,
+        String mensaje
+) {}
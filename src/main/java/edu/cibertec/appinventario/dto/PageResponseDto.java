@@ -7,5 +7,7 @@ public record PageResponseDto<T>(
         int pageNumber,
         int pageSize,
         long totalElements,
-        int totalPages
+        int totalPages,
+        boolean hasNext,
+        boolean approximateTotal
 ) {}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import edu.cibertec.appinventario.model.EstadoReservaStock;
+
+import java.time.LocalDateTime;
+
+public record ReservaStockDto(
+        Long id,
+        Integer productoId,
+        Integer cantidad,
+        EstadoReservaStock estado,
+        LocalDateTime expiracion,
+        LocalDateTime fecha
+) {}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record ReservaStockRequestDto(
+        @NotNull(message = "La cantidad es obligatoria")
+        @Positive(message = "La cantidad debe ser mayor que cero")
+        Integer cantidad,
+
+        // Opcional: si no se indica, se usa app.stock.reservas.duracion
+        @Positive(message = "La duración debe ser mayor que cero")
+        Integer duracionSegundos
+) {}
@@ -0,0 +1,10 @@
+package edu.cibertec.appinventario.dto;
+
+public record StockDisponibleDto(
+        Integer productoId,
+        // Stock vigente (productos.stock más los movimientos aún no compactados)
+        int stock,
+        // Unidades retenidas por reservas activas sin vencer
+        int reservado,
+        int disponible
+) {}
@@ -0,0 +1,8 @@
+package edu.cibertec.appinventario.dto;
+
+public record SugerenciaProductoDto(
+        Integer id,
+        String codigo,
+        String nombre,
+        double puntuacion
+) {}
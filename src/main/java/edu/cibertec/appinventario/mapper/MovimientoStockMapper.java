@@ -0,0 +1,16 @@
+package edu.cibertec.appinventario.mapper;
+
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.model.MovimientoStock;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface MovimientoStockMapper {
+
+    // De entidad a DTO del historial
+    MovimientoStockDto toDto(MovimientoStock entity);
+
+    List<MovimientoStockDto> toDtoList(List<MovimientoStock> entities);
+}
@@ -27,12 +27,20 @@ public interface ProductoMapper {
     @Mapping(target = "marca", source = "marca")
     ProductoResponseDto toDto(Producto entity);
 
+    // Con el stock vigente (productos.stock más los movimientos aún no compactados)
+    @Mapping(target = "categoria", source = "entity.categoria")
+    @Mapping(target = "marca", source = "entity.marca")
+    @Mapping(target = "stock", source = "stock")
+    ProductoResponseDto toDto(Producto entity, Integer stock);
+
     // De entidad a DTO simple
     ProductoSimpleDto toSimpleDto(Producto entity);
 
-    // Para actualizar una entidad existente con un DTO
+    // Para actualizar una entidad existente con un DTO. El stock no se sobrescribe: la diferencia con el
+    // vigente se registra como movimiento de ajuste
     @Mapping(target = "categoria", source = "categoriaId", qualifiedByName = "categoriaIdToCategoria")
     @Mapping(target = "marca", source = "marcaId", qualifiedByName = "marcaIdToMarca")
+    @Mapping(target = "stock", ignore = true)
     void updateEntityFromDto(ProductoRequestDto dto, @MappingTarget Producto entity);
 
     // Para convertir listas de entidades a listas de DTOs
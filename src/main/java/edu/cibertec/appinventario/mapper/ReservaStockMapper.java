@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.mapper;
+
+import edu.cibertec.appinventario.dto.ReservaStockDto;
+import edu.cibertec.appinventario.model.ReservaStock;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ReservaStockMapper {
+
+    // El ID se lee del proxy del producto sin cargarlo
+    @Mapping(target = "productoId", source = "producto.id")
+    ReservaStockDto toDto(ReservaStock entity);
+}
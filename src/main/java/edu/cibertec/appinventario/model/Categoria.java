@@ -5,6 +5,10 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import edu.cibertec.appinventario.config.HibernateCacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,6 +16,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "categorias")
+@Filter(name = Producto.FILTRO_ACTIVOS)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.REGION_CATEGORIAS)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,12 @@
+package edu.cibertec.appinventario.model;
+
+// Ciclo de vida de una reserva de stock: solo las ACTIVA no vencidas descuentan del stock disponible
+public enum EstadoReservaStock {
+    ACTIVA,
+    // Convertida en una salida del libro de movimientos
+    CONFIRMADA,
+    // Devuelta por el cliente antes de vencer (carrito abandonado)
+    LIBERADA,
+    // Vencida y marcada por el barrido periódico
+    EXPIRADA
+}
@@ -0,0 +1,59 @@
+package edu.cibertec.appinventario.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// Libro de movimientos de stock: cada entrada o salida es un INSERT y nunca se modifica su cantidad.
+// El stock vigente es productos.stock (la última compactación) más los movimientos aún no aplicados
+@Entity
+@Table(name = "movimientos_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "producto")
+public class MovimientoStock {
+
+    // Secuencia con asignación por bloques, como productos, para agrupar los INSERT de los lotes
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_stock_seq")
+    @SequenceGenerator(name = "movimientos_stock_seq", sequenceName = "movimientos_stock_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Al archivar un producto se borran también sus movimientos
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "producto_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Producto producto;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 20)
+    private TipoMovimientoStock tipo;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    // true cuando la compactación ya sumó la cantidad a productos.stock
+    @Column(name = "aplicado", nullable = false)
+    private Boolean aplicado = false;
+
+    public MovimientoStock(Producto producto, Integer cantidad, TipoMovimientoStock tipo) {
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.tipo = tipo;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        fecha = LocalDateTime.now();
+    }
+}
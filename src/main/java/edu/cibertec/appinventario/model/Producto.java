@@ -5,20 +5,26 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "productos")
+@Filter(name = Producto.FILTRO_ACTIVOS)
 @Getter
 @Setter
 @NoArgsConstructor
 @ToString
 public class Producto {
 
+    public static final String FILTRO_ACTIVOS = "soloActivos";
+
+    // Secuencia con asignación por bloques para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "codigo", nullable = false, unique = true, length = 50)
@@ -33,7 +39,10 @@ public class Producto {
     @Column(name = "precio", nullable = false, precision = 10, scale = 2)
     private BigDecimal precio;
 
-    @Column(name = "stock", nullable = false)
+    // Solo se fija al crear el producto: después lo modifica únicamente la compactación del libro de movimientos
+    // (UPDATE stock = stock + ?). Si fuera actualizable, guardar una entidad cargada antes de una compactación
+    // devolvería la columna al valor leído y perdería lo compactado
+    @Column(name = "stock", nullable = false, updatable = false)
     private Integer stock = 0;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -50,6 +59,10 @@ public class Producto {
     @Column(name = "fecha_creacion")
     private LocalDateTime fechaCreacion;
 
+    // Momento en que se desactivó; a partir de él cuenta la antigüedad para archivarlo
+    @Column(name = "fecha_desactivacion")
+    private LocalDateTime fechaDesactivacion;
+
     @PrePersist
     public void prePersist() {
         fechaCreacion = LocalDateTime.now();
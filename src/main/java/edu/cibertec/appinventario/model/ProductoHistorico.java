@@ -0,0 +1,54 @@
+package edu.cibertec.appinventario.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Productos desactivados hace tiempo, retirados de la tabla principal por el archivado periódico.
+// Conserva los IDs de categoría y marca sin clave foránea
+@Entity
+@Table(name = "productos_historico")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ProductoHistorico {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "codigo", nullable = false, length = 50)
+    private String codigo;
+
+    @Column(name = "nombre", nullable = false, length = 100)
+    private String nombre;
+
+    @Column(name = "descripcion", length = 255)
+    private String descripcion;
+
+    @Column(name = "precio", nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+
+    @Column(name = "stock", nullable = false)
+    private Integer stock;
+
+    @Column(name = "categoria_id")
+    private Integer categoriaId;
+
+    @Column(name = "marca_id")
+    private Integer marcaId;
+
+    @Column(name = "fecha_creacion")
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_desactivacion")
+    private LocalDateTime fechaDesactivacion;
+
+    @Column(name = "fecha_archivado", nullable = false)
+    private LocalDateTime fechaArchivado;
+}
@@ -0,0 +1,37 @@
+package edu.cibertec.appinventario.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// Última secuencia del registro de escritura anticipada de una instancia ya volcada a movimientos_stock.
+// Se guarda en la misma transacción que los movimientos volcados: al recuperar tras una caída solo se
+// vuelcan los registros posteriores
+@Entity
+@Table(name = "puntos_control_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class PuntoControlStock {
+
+    @Id
+    @Column(name = "instancia", length = 100)
+    private String instancia;
+
+    @Column(name = "secuencia", nullable = false)
+    private Long secuencia;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    public PuntoControlStock(String instancia, Long secuencia) {
+        this.instancia = instancia;
+        this.secuencia = secuencia;
+        this.fecha = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,62 @@
+package edu.cibertec.appinventario.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// Reserva temporal de unidades de un producto (checkout). Mientras está activa y no vence, sus unidades no
+// están disponibles para otras salidas, pero el stock no cambia: solo al confirmarla se registra la salida
+// en el libro de movimientos. Una reserva abandonada caduca sola, sin escribir un movimiento de devolución
+@Entity
+@Table(name = "reservas_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "producto")
+public class ReservaStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservas_stock_seq")
+    @SequenceGenerator(name = "reservas_stock_seq", sequenceName = "reservas_stock_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "producto_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Producto producto;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoReservaStock estado = EstadoReservaStock.ACTIVA;
+
+    @Column(name = "expiracion", nullable = false)
+    private LocalDateTime expiracion;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    public ReservaStock(Producto producto, Integer cantidad, LocalDateTime expiracion) {
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.expiracion = expiracion;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        fecha = LocalDateTime.now();
+    }
+
+    // Activa y sin vencer: la que descuenta del stock disponible
+    public boolean vigente(LocalDateTime ahora) {
+        return estado == EstadoReservaStock.ACTIVA && expiracion.isAfter(ahora);
+    }
+}
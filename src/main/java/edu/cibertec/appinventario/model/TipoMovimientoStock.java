@@ -0,0 +1,15 @@
+package edu.cibertec.appinventario.model;
+
+// Origen de un movimiento del libro de stock
+public enum TipoMovimientoStock {
+    // PATCH /api/productos/{id}/actualizar-stock
+    ACTUALIZACION,
+    // POST /api/productos/stock/lote
+    LOTE,
+    // Diferencia entre el stock indicado al editar el producto y el vigente
+    AJUSTE,
+    // Suma de los movimientos de un producto de alta contención desde el volcado anterior
+    VOLCADO,
+    // Confirmación de una reserva: POST /api/productos/{id}/reservas/{reservaId}/confirmar
+    RESERVA
+}
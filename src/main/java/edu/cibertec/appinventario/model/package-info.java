@@ -0,0 +1,5 @@
+// Filtro de las lecturas por defecto de productos, categorías y marcas: solo filas activas (ver FiltroActivos)
+@FilterDef(name = Producto.FILTRO_ACTIVOS, defaultCondition = "activo")
+package edu.cibertec.appinventario.model;
+
+import org.hibernate.annotations.FilterDef;
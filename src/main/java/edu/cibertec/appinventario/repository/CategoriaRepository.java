@@ -1,9 +1,15 @@
 package edu.cibertec.appinventario.repository;
 
 import edu.cibertec.appinventario.model.Categoria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,12 +19,53 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
     // Buscar por nombre (exact match)
     Optional<Categoria> findByNombre(String nombre);
 
-    // Buscar por nombre conteniendo cierta cadena (case insensitive)
-    List<Categoria> findByNombreContainingIgnoreCase(String nombre);
+    // Búsqueda por nombre servida por el índice GIN de trigramas (V3): coincidencias parciales
+    // y nombres similares (errores de tipeo), primero los que empiezan por el texto y luego por similitud.
+    // Consulta nativa: el filtro de activos de Hibernate no se aplica y se indica con incluirInactivos
+    @Query(value = """
+            SELECT c.* FROM categorias c
+            WHERE (:incluirInactivos OR c.activo)
+              AND (lower(c.nombre) LIKE :patron OR lower(c.nombre) % :texto)
+            ORDER BY starts_with(lower(c.nombre), :texto) DESC,
+                     similarity(lower(c.nombre), :texto) DESC, c.nombre, c.id
+            """,
+            countQuery = "SELECT COUNT(*) FROM categorias c WHERE (:incluirInactivos OR c.activo) "
+                    + "AND (lower(c.nombre) LIKE :patron OR lower(c.nombre) % :texto)",
+            nativeQuery = true)
+    Page<Categoria> buscarPorNombre(@Param("texto") String texto, @Param("patron") String patron,
+                                    @Param("incluirInactivos") boolean incluirInactivos, Pageable pageable);
 
     // Buscar categorías activas
     List<Categoria> findByActivoTrue();
 
+    // Página sin conteo total: lee una fila extra para saber si hay siguiente
+    @Query("SELECT c FROM Categoria c")
+    Slice<Categoria> findSlice(Pageable pageable);
+
+    // Número estimado de filas según las estadísticas de PostgreSQL (no recorre la tabla)
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('categorias' AS regclass)",
+            nativeQuery = true)
+    Long estimarTotal();
+
+    // Conteos exactos en SQL nativo, al que no se aplica el filtro de activos de la sesión
+    @Query(value = "SELECT COUNT(*) FROM categorias", nativeQuery = true)
+    long contarFilas();
+
+    @Query(value = "SELECT COUNT(*) FROM categorias WHERE activo IS NOT TRUE", nativeQuery = true)
+    long contarFilasInactivas();
+
+    // Primera página de la paginación por clave (nombre, id)
+    @Query("SELECT c FROM Categoria c ORDER BY c.nombre, c.id")
+    List<Categoria> findPrimeros(Pageable limite);
+
+    // Página siguiente a la clave (nombre, id) indicada, sin OFFSET
+    @Query("SELECT c FROM Categoria c WHERE (c.nombre, c.id) > (:nombre, :id) ORDER BY c.nombre, c.id")
+    List<Categoria> findSiguientes(@Param("nombre") String nombre, @Param("id") Integer id, Pageable limite);
+
+    // De los IDs indicados, devolver los que existen (validación por conjuntos)
+    @Query("SELECT c.id FROM Categoria c WHERE c.id IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
     // Verificar si existe por nombre
     boolean existsByNombre(String nombre);
 }
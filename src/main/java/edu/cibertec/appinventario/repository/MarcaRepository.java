@@ -1,9 +1,15 @@
 package edu.cibertec.appinventario.repository;
 
 import edu.cibertec.appinventario.model.Marca;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,8 +19,21 @@ public interface MarcaRepository extends JpaRepository<Marca, Integer> {
     // Buscar por nombre (exact match)
     Optional<Marca> findByNombre(String nombre);
 
-    // Buscar por nombre conteniendo cierta cadena (case insensitive)
-    List<Marca> findByNombreContainingIgnoreCase(String nombre);
+    // Búsqueda por nombre servida por el índice GIN de trigramas (V3): coincidencias parciales
+    // y nombres similares (errores de tipeo), primero los que empiezan por el texto y luego por similitud.
+    // Consulta nativa: el filtro de activos de Hibernate no se aplica y se indica con incluirInactivos
+    @Query(value = """
+            SELECT m.* FROM marcas m
+            WHERE (:incluirInactivos OR m.activo)
+              AND (lower(m.nombre) LIKE :patron OR lower(m.nombre) % :texto)
+            ORDER BY starts_with(lower(m.nombre), :texto) DESC,
+                     similarity(lower(m.nombre), :texto) DESC, m.nombre, m.id
+            """,
+            countQuery = "SELECT COUNT(*) FROM marcas m WHERE (:incluirInactivos OR m.activo) "
+                    + "AND (lower(m.nombre) LIKE :patron OR lower(m.nombre) % :texto)",
+            nativeQuery = true)
+    Page<Marca> buscarPorNombre(@Param("texto") String texto, @Param("patron") String patron,
+                                @Param("incluirInactivos") boolean incluirInactivos, Pageable pageable);
 
     // Buscar por país de origen
     List<Marca> findByPaisOrigenContainingIgnoreCase(String paisOrigen);
@@ -22,6 +41,34 @@ public interface MarcaRepository extends JpaRepository<Marca, Integer> {
     // Buscar marcas activas
     List<Marca> findByActivoTrue();
 
+    // Página sin conteo total: lee una fila extra para saber si hay siguiente
+    @Query("SELECT m FROM Marca m")
+    Slice<Marca> findSlice(Pageable pageable);
+
+    // Número estimado de filas según las estadísticas de PostgreSQL (no recorre la tabla)
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('marcas' AS regclass)",
+            nativeQuery = true)
+    Long estimarTotal();
+
+    // Conteos exactos en SQL nativo, al que no se aplica el filtro de activos de la sesión
+    @Query(value = "SELECT COUNT(*) FROM marcas", nativeQuery = true)
+    long contarFilas();
+
+    @Query(value = "SELECT COUNT(*) FROM marcas WHERE activo IS NOT TRUE", nativeQuery = true)
+    long contarFilasInactivas();
+
+    // Primera página de la paginación por clave (nombre, id)
+    @Query("SELECT m FROM Marca m ORDER BY m.nombre, m.id")
+    List<Marca> findPrimeros(Pageable limite);
+
+    // Página siguiente a la clave (nombre, id) indicada, sin OFFSET
+    @Query("SELECT m FROM Marca m WHERE (m.nombre, m.id) > (:nombre, :id) ORDER BY m.nombre, m.id")
+    List<Marca> findSiguientes(@Param("nombre") String nombre, @Param("id") Integer id, Pageable limite);
+
+    // De los IDs indicados, devolver los que existen (validación por conjuntos)
+    @Query("SELECT m.id FROM Marca m WHERE m.id IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
     // Verificar si existe por nombre
     boolean existsByNombre(String nombre);
 }
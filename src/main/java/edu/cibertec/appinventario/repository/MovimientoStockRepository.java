@@ -0,0 +1,68 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.MovimientoStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MovimientoStockRepository extends JpaRepository<MovimientoStock, Long> {
+
+    // Stock vigente de un producto
+    interface StockVigente {
+        Integer getId();
+        Long getStock();
+    }
+
+    // Stock vigente: la última compactación más los movimientos pendientes (índice parcial sobre los no aplicados).
+    // Devuelve null si el producto no existe
+    @Query("""
+            SELECT p.stock + COALESCE((SELECT SUM(m.cantidad) FROM MovimientoStock m
+                                       WHERE m.producto.id = p.id AND m.aplicado = false), 0)
+            FROM Producto p WHERE p.id = :id
+            """)
+    Long stockVigente(@Param("id") Integer id);
+
+    @Query("""
+            SELECT p.id AS id,
+                   p.stock + COALESCE((SELECT SUM(m.cantidad) FROM MovimientoStock m
+                                       WHERE m.producto.id = p.id AND m.aplicado = false), 0) AS stock
+            FROM Producto p WHERE p.id IN :ids
+            """)
+    List<StockVigente> stockVigente(@Param("ids") Collection<Integer> ids);
+
+    // Historial de un producto del más reciente al más antiguo, por clave (fecha, id)
+    @Query("""
+            SELECT m FROM MovimientoStock m WHERE m.producto.id = :productoId
+            ORDER BY m.fecha DESC, m.id DESC
+            """)
+    List<MovimientoStock> findRecientes(@Param("productoId") Integer productoId, Pageable limite);
+
+    @Query("""
+            SELECT m FROM MovimientoStock m WHERE m.producto.id = :productoId
+              AND (m.fecha < :fecha OR (m.fecha = :fecha AND m.id < :id))
+            ORDER BY m.fecha DESC, m.id DESC
+            """)
+    List<MovimientoStock> findAnteriores(@Param("productoId") Integer productoId,
+                                         @Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                         Pageable limite);
+
+    // Movimientos pendientes más antiguos, bloqueados hasta el fin de la compactación: otra instancia que
+    // compacte a la vez espera y, al continuar, descarta los que ya se marcaron como aplicados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MovimientoStock m WHERE m.aplicado = false ORDER BY m.id")
+    List<MovimientoStock> findPendientes(Pageable limite);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MovimientoStock m SET m.aplicado = true WHERE m.id IN :ids")
+    int marcarAplicados(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,26 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.ProductoHistorico;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ProductoHistoricoRepository extends JpaRepository<ProductoHistorico, Integer> {
+
+    // Copia los productos indicados al histórico con un único INSERT ... SELECT
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            INSERT INTO ProductoHistorico (id, codigo, nombre, descripcion, precio, stock, categoriaId, marcaId,
+                                           fechaCreacion, fechaDesactivacion, fechaArchivado)
+            SELECT p.id, p.codigo, p.nombre, p.descripcion, p.precio, p.stock, p.categoria.id, p.marca.id,
+                   p.fechaCreacion, p.fechaDesactivacion, :fechaArchivado
+            FROM Producto p WHERE p.id IN :ids
+            """)
+    int copiarDesdeProductos(@Param("ids") Collection<Integer> ids, @Param("fechaArchivado") LocalDateTime fechaArchivado);
+}
@@ -1,47 +1,249 @@
 package edu.cibertec.appinventario.repository;
 
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
 import edu.cibertec.appinventario.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+public interface ProductoRepository extends JpaRepository<Producto, Integer>, JpaSpecificationExecutor<Producto>,
+        ProductoRepositoryCustom {
 
-    // Buscar por código
+    // Filas leídas por viaje al servidor al recorrer productos con un cursor
+    int TAMANO_LOTE_LECTURA = 500;
+
+    // Proyección con la clave y el código del producto
+    interface IdCodigo {
+        Integer getId();
+        String getCodigo();
+    }
+
+    // Proyección con los campos de texto indexados por la búsqueda en memoria
+    interface TextoIndexable {
+        Integer getId();
+        String getCodigo();
+        String getNombre();
+        String getDescripcion();
+    }
+
+    // Las consultas de lectura cargan categoría y marca en el mismo SELECT (JOIN)
+    // para que el mapeo a ProductoResponseDto no dispare una consulta extra por relación
+
+    // Listar productos paginados con su categoría y marca
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @Query(value = "SELECT p FROM Producto p", countQuery = "SELECT COUNT(p) FROM Producto p")
+    Page<Producto> findAllConDetalle(Pageable pageable);
+
+    // Página sin conteo total: lee una fila extra para saber si hay siguiente
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @Query("SELECT p FROM Producto p")
+    Slice<Producto> findSliceConDetalle(Pageable pageable);
+
+    // Número estimado de filas según las estadísticas de PostgreSQL (no recorre la tabla)
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('productos' AS regclass)",
+            nativeQuery = true)
+    Long estimarTotal();
+
+    // Conteos exactos en SQL nativo, al que no se aplica el filtro de activos de la sesión
+    @Query(value = "SELECT COUNT(*) FROM productos", nativeQuery = true)
+    long contarFilas();
+
+    @Query(value = "SELECT COUNT(*) FROM productos WHERE activo IS NOT TRUE", nativeQuery = true)
+    long contarFilasInactivas();
+
+    // Primera página de la paginación por clave (nombre, id)
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @Query("SELECT p FROM Producto p ORDER BY p.nombre, p.id")
+    List<Producto> findPrimerosConDetalle(Pageable limite);
+
+    // Página siguiente a la clave (nombre, id) indicada, sin OFFSET
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @Query("SELECT p FROM Producto p WHERE (p.nombre, p.id) > (:nombre, :id) ORDER BY p.nombre, p.id")
+    List<Producto> findSiguientesConDetalle(@Param("nombre") String nombre, @Param("id") Integer id, Pageable limite);
+
+    // Listado resumido por clave (nombre, id): solo lee columnas del índice de cobertura
+    // idx_productos_listado (V4), por lo que PostgreSQL lo resuelve sin acceder a la tabla
+    @Query("SELECT new edu.cibertec.appinventario.dto.ProductoSimpleDto(p.id, p.codigo, p.nombre, p.precio, p.stock) "
+            + "FROM Producto p ORDER BY p.nombre, p.id")
+    List<ProductoSimpleDto> findPrimerosResumen(Pageable limite);
+
+    @Query("SELECT new edu.cibertec.appinventario.dto.ProductoSimpleDto(p.id, p.codigo, p.nombre, p.precio, p.stock) "
+            + "FROM Producto p WHERE (p.nombre, p.id) > (:nombre, :id) ORDER BY p.nombre, p.id")
+    List<ProductoSimpleDto> findSiguientesResumen(@Param("nombre") String nombre, @Param("id") Integer id, Pageable limite);
+
+    // Recorrer todos los productos con un cursor de base de datos (exportación)
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p ORDER BY p.id")
+    Stream<Producto> streamAllConDetalle();
+
+    // Recorrer todos los productos ordenados por (nombre, id): listado completo que supera el límite de resultados
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p ORDER BY p.nombre, p.id")
+    Stream<Producto> streamAllConDetalleOrdenados();
+
+    // Recorrer los productos activos para construir el índice de búsqueda, sin cargar relaciones
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.codigo AS codigo, p.nombre AS nombre, p.descripcion AS descripcion "
+            + "FROM Producto p WHERE p.activo = true ORDER BY p.id")
+    Stream<TextoIndexable> streamTextoIndexable();
+
+    // Buscar por ID con su categoría y marca
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    Optional<Producto> findConDetalleById(Integer id);
+
+    // Buscar por código con su categoría y marca (el servicio cachea el resultado en productosPorCodigo)
+    @EntityGraph(attributePaths = {"categoria", "marca"})
     Optional<Producto> findByCodigo(String codigo);
 
-    // Buscar por nombre conteniendo cierta cadena
-    List<Producto> findByNombreContainingIgnoreCase(String nombre);
+    // Búsqueda por nombre de productos activos servida por el índice GIN parcial de trigramas (V5):
+    // coincidencias parciales y nombres similares (errores de tipeo), primero los que empiezan por el texto
+    // y luego por similitud. Solo devuelve los IDs de la página; el detalle se carga con findConDetalleByIdIn
+    @Query(value = """
+            SELECT p.id FROM productos p
+            WHERE p.activo AND (lower(p.nombre) LIKE :patron OR lower(p.nombre) % :texto)
+            ORDER BY starts_with(lower(p.nombre), :texto) DESC,
+                     similarity(lower(p.nombre), :texto) DESC, p.nombre, p.id
+            """,
+            countQuery = "SELECT COUNT(*) FROM productos p "
+                    + "WHERE p.activo AND (lower(p.nombre) LIKE :patron OR lower(p.nombre) % :texto)",
+            nativeQuery = true)
+    Page<Integer> buscarIdsPorNombre(@Param("texto") String texto, @Param("patron") String patron, Pageable pageable);
+
+    // La misma búsqueda incluyendo los productos desactivados (índice GIN completo de V3)
+    @Query(value = """
+            SELECT p.id FROM productos p
+            WHERE lower(p.nombre) LIKE :patron OR lower(p.nombre) % :texto
+            ORDER BY starts_with(lower(p.nombre), :texto) DESC,
+                     similarity(lower(p.nombre), :texto) DESC, p.nombre, p.id
+            """,
+            countQuery = "SELECT COUNT(*) FROM productos p WHERE lower(p.nombre) LIKE :patron OR lower(p.nombre) % :texto",
+            nativeQuery = true)
+    Page<Integer> buscarIdsPorNombreIncluyendoInactivos(@Param("texto") String texto, @Param("patron") String patron,
+                                                        Pageable pageable);
+
+    // Productos con su categoría y marca a partir de una lista de IDs (sin orden garantizado)
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findConDetalleByIdIn(Collection<Integer> ids);
+
+    // Las búsquedas por criterio reciben siempre un Pageable: el listado completo de una categoría grande
+    // puede ser medio catálogo. Quien necesita todas las filas usa la variante stream* (cursor por lotes),
+    // ordenada igual, por (nombre, id)
 
     // Buscar por categoría
-    List<Producto> findByCategoriaId(Integer categoriaId);
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findByCategoriaId(Integer categoriaId, Pageable limite);
+
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p WHERE p.categoria.id = :categoriaId ORDER BY p.nombre, p.id")
+    Stream<Producto> streamByCategoriaId(@Param("categoriaId") Integer categoriaId);
 
     // Buscar por marca
-    List<Producto> findByMarcaId(Integer marcaId);
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findByMarcaId(Integer marcaId, Pageable limite);
+
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p WHERE p.marca.id = :marcaId ORDER BY p.nombre, p.id")
+    Stream<Producto> streamByMarcaId(@Param("marcaId") Integer marcaId);
 
     // Buscar productos con stock > 0
-    List<Producto> findByStockGreaterThan(Integer stockMinimo);
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findByStockGreaterThan(Integer stockMinimo, Pageable limite);
+
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p WHERE p.stock > :stockMinimo ORDER BY p.nombre, p.id")
+    Stream<Producto> streamByStockGreaterThan(@Param("stockMinimo") Integer stockMinimo);
 
     // Buscar productos por rango de precio
-    List<Producto> findByPrecioBetween(BigDecimal precioMin, BigDecimal precioMax);
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findByPrecioBetween(BigDecimal precioMin, BigDecimal precioMax, Pageable limite);
+
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_LOTE_LECTURA),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Producto p WHERE p.precio BETWEEN :precioMin AND :precioMax ORDER BY p.nombre, p.id")
+    Stream<Producto> streamByPrecioBetween(@Param("precioMin") BigDecimal precioMin,
+                                           @Param("precioMax") BigDecimal precioMax);
 
     // Buscar productos activos
-    List<Producto> findByActivoTrue();
+    @EntityGraph(attributePaths = {"categoria", "marca"})
+    List<Producto> findByActivoTrue(Pageable limite);
+
+    // Productos desactivados antes de la fecha indicada, candidatos a pasar al histórico
+    @Query("SELECT p.id AS id, p.codigo AS codigo FROM Producto p "
+            + "WHERE p.activo = false AND p.fechaDesactivacion < :limite ORDER BY p.id")
+    List<IdCodigo> findParaArchivar(@Param("limite") LocalDateTime limite, Pageable lote);
+
+    // Borrado físico de productos ya copiados al histórico
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Producto p WHERE p.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Integer> ids);
+
+    // Bloqueo de la fila del producto para validar una salida de stock contra el stock vigente: serializa
+    // las salidas del mismo producto sin escribir la fila. Vacío si el producto no existe
+    @Query(value = "SELECT id FROM productos WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Integer> bloquearParaStock(@Param("id") Integer id);
+
+    // Varios productos, siempre en orden de ID para que dos lotes no se bloqueen mutuamente
+    @Query(value = "SELECT id FROM productos WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Integer> bloquearParaStock(@Param("ids") Collection<Integer> ids);
+
+    // Resolver en una sola consulta qué IDs y códigos existen
+    List<IdCodigo> findByIdIn(Collection<Integer> ids);
+    List<IdCodigo> findByCodigoIn(Collection<String> codigos);
 
     // Verificar si existe por código
     boolean existsByCodigo(String codigo);
 
     // Consulta JPQL personalizada para buscar productos por nombre de categoría
+    @EntityGraph(attributePaths = {"categoria", "marca"})
     @Query("SELECT p FROM Producto p JOIN p.categoria c WHERE c.nombre = :categoriaNombre")
-    List<Producto> findByCategoriaNombre(@Param("categoriaNombre") String categoriaNombre);
+    List<Producto> findByCategoriaNombre(@Param("categoriaNombre") String categoriaNombre, Pageable limite);
 
     // Consulta JPQL personalizada para buscar productos por nombre de marca
+    @EntityGraph(attributePaths = {"categoria", "marca"})
     @Query("SELECT p FROM Producto p JOIN p.marca m WHERE m.nombre = :marcaNombre")
-    List<Producto> findByMarcaNombre(@Param("marcaNombre") String marcaNombre);
+    List<Producto> findByMarcaNombre(@Param("marcaNombre") String marcaNombre, Pageable limite);
 }
@@ -0,0 +1,21 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.Producto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductoRepositoryCustom {
+
+    // Número de productos por categoría o marca
+    record Faceta(Integer id, String nombre, long total) {}
+
+    // Suma a productos.stock los movimientos compactados de cada producto en un lote JDBC.
+    // Sin condición: los movimientos ya se validaron contra el stock vigente al registrarse
+    void sumarStockEnLote(Map<Integer, Long> cantidades);
+
+    // Conteo agrupado de los productos que cumplen el filtro, de mayor a menor
+    List<Faceta> contarPorCategoria(Specification<Producto> filtro);
+    List<Faceta> contarPorMarca(Specification<Producto> filtro);
+}
@@ -0,0 +1,65 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    private static final String SQL_SUMAR_STOCK = "UPDATE productos SET stock = stock + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void sumarStockEnLote(Map<Integer, Long> cantidades) {
+        List<Object[]> parametros = new ArrayList<>(cantidades.size());
+        cantidades.forEach((id, cantidad) -> parametros.add(new Object[]{cantidad, id}));
+        jdbcTemplate.batchUpdate(SQL_SUMAR_STOCK, parametros);
+    }
+
+    @Override
+    public List<Faceta> contarPorCategoria(Specification<Producto> filtro) {
+        return contarPor("categoria", filtro);
+    }
+
+    @Override
+    public List<Faceta> contarPorMarca(Specification<Producto> filtro) {
+        return contarPor("marca", filtro);
+    }
+
+    // SELECT r.id, r.nombre, COUNT(p) FROM Producto p JOIN p.<relacion> r WHERE <filtro> GROUP BY r.id, r.nombre
+    private List<Faceta> contarPor(String relacion, Specification<Producto> filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> producto = query.from(Producto.class);
+        Join<Producto, Object> join = producto.join(relacion);
+        Expression<Long> total = cb.count(producto);
+
+        query.multiselect(join.get("id"), join.get("nombre"), total);
+        Predicate predicado = filtro.toPredicate(producto, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.groupBy(join.get("id"), join.get("nombre"));
+        query.orderBy(cb.desc(total), cb.asc(join.get("nombre")));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(t -> new Faceta(t.get(0, Integer.class), t.get(1, String.class), t.get(2, Long.class)))
+                .toList();
+    }
+}
@@ -0,0 +1,51 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.Producto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+// Criterios reutilizables para construir consultas dinámicas de productos
+public final class ProductoSpecifications {
+
+    private ProductoSpecifications() {
+    }
+
+    public static Specification<Producto> deCategoria(Integer categoriaId) {
+        return (root, query, cb) -> cb.equal(root.get("categoria").get("id"), categoriaId);
+    }
+
+    public static Specification<Producto> deMarca(Integer marcaId) {
+        return (root, query, cb) -> cb.equal(root.get("marca").get("id"), marcaId);
+    }
+
+    public static Specification<Producto> precioDesde(BigDecimal precioMin) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precio"), precioMin);
+    }
+
+    public static Specification<Producto> precioHasta(BigDecimal precioMax) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("precio"), precioMax);
+    }
+
+    public static Specification<Producto> conStock() {
+        return (root, query, cb) -> cb.greaterThan(root.get("stock"), 0);
+    }
+
+    // Condición literal (no parámetro) para que PostgreSQL pueda usar el índice parcial WHERE activo
+    public static Specification<Producto> activo(boolean activo) {
+        return (root, query, cb) -> activo ? cb.isTrue(root.get("activo")) : cb.isFalse(root.get("activo"));
+    }
+
+    // lower(nombre) LIKE patrón: lo sirve el índice de trigramas de la migración V3.
+    // El patrón debe venir en minúsculas y con los comodines del usuario escapados con '\'
+    public static Specification<Producto> nombreComo(String patron) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("nombre")), patron, '\\');
+    }
+
+    // Paginación por clave: productos posteriores a (nombre, id) en el orden nombre, id
+    public static Specification<Producto> despuesDe(String nombre, Integer id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("nombre"), nombre),
+                cb.and(cb.equal(root.get("nombre"), nombre), cb.greaterThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,9 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.PuntoControlStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PuntoControlStockRepository extends JpaRepository<PuntoControlStock, String> {
+}
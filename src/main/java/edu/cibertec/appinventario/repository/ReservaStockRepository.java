@@ -0,0 +1,68 @@
+package edu.cibertec.appinventario.repository;
+
+import edu.cibertec.appinventario.model.ReservaStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, Long> {
+
+    // Unidades reservadas de un producto
+    interface Reservado {
+        Integer getProductoId();
+        Long getCantidad();
+    }
+
+    // Unidades retenidas por reservas activas sin vencer (índice parcial sobre las activas): una reserva
+    // vencida deja de contar en cuanto vence, aunque el barrido aún no la haya marcado
+    @Query("""
+            SELECT COALESCE(SUM(r.cantidad), 0) FROM ReservaStock r
+            WHERE r.producto.id = :productoId
+              AND r.estado = edu.cibertec.appinventario.model.EstadoReservaStock.ACTIVA
+              AND r.expiracion > :ahora
+            """)
+    long reservado(@Param("productoId") Integer productoId, @Param("ahora") LocalDateTime ahora);
+
+    @Query("""
+            SELECT r.producto.id AS productoId, SUM(r.cantidad) AS cantidad FROM ReservaStock r
+            WHERE r.producto.id IN :productoIds
+              AND r.estado = edu.cibertec.appinventario.model.EstadoReservaStock.ACTIVA
+              AND r.expiracion > :ahora
+            GROUP BY r.producto.id
+            """)
+    List<Reservado> reservado(@Param("productoIds") Collection<Integer> productoIds,
+                              @Param("ahora") LocalDateTime ahora);
+
+    // Reserva de un producto bloqueada hasta el fin de la transacción (confirmar y liberar no se cruzan)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReservaStock r WHERE r.id = :id AND r.producto.id = :productoId")
+    Optional<ReservaStock> bloquear(@Param("productoId") Integer productoId, @Param("id") Long id);
+
+    // Reservas activas ya vencidas, de la más antigua a la más reciente
+    @Query("""
+            SELECT r.id FROM ReservaStock r
+            WHERE r.estado = edu.cibertec.appinventario.model.EstadoReservaStock.ACTIVA
+              AND r.expiracion <= :ahora
+            ORDER BY r.expiracion
+            """)
+    List<Long> findVencidas(@Param("ahora") LocalDateTime ahora, Pageable limite);
+
+    // Solo las que siguen activas: una confirmada o liberada entre la consulta y el UPDATE no se toca
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE ReservaStock r SET r.estado = edu.cibertec.appinventario.model.EstadoReservaStock.EXPIRADA
+            WHERE r.id IN :ids AND r.estado = edu.cibertec.appinventario.model.EstadoReservaStock.ACTIVA
+            """)
+    int expirar(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ArchivoResultadoDto;
+
+public interface ArchivoProductoService {
+
+    // Mueve a productos_historico los productos desactivados antes de la antigüedad configurada
+    ArchivoResultadoDto archivar();
+}
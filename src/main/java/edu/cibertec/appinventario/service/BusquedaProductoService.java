@@ -0,0 +1,19 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.IndiceBusquedaEstadisticasDto;
+import edu.cibertec.appinventario.dto.SugerenciaProductoDto;
+import edu.cibertec.appinventario.model.Producto;
+
+import java.util.List;
+
+public interface BusquedaProductoService {
+
+    // Sugerencias de autocompletado desde el índice en memoria (sin consultar la base de datos)
+    List<SugerenciaProductoDto> sugerir(String consulta, int limite);
+
+    // Mantenimiento del índice: los cambios se aplican al confirmar la transacción en curso
+    void indexar(Producto producto);
+    void eliminar(Integer id);
+    IndiceBusquedaEstadisticasDto reconstruir();
+    IndiceBusquedaEstadisticasDto getEstadisticas();
+}
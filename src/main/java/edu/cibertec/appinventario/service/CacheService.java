@@ -0,0 +1,11 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CacheEstadisticasDto;
+
+import java.util.List;
+
+public interface CacheService {
+
+    // Aciertos, fallos y expulsiones de cada caché en memoria
+    List<CacheEstadisticasDto> getEstadisticas();
+}
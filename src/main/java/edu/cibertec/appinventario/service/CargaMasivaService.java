@@ -0,0 +1,13 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CargaResultadoDto;
+import edu.cibertec.appinventario.dto.EntidadCarga;
+import edu.cibertec.appinventario.dto.FormatoCarga;
+
+import java.io.InputStream;
+
+public interface CargaMasivaService {
+
+    // Carga inicial de catálogos mediante COPY de PostgreSQL a una tabla temporal
+    CargaResultadoDto cargar(EntidadCarga entidad, FormatoCarga formato, InputStream datos);
+}
@@ -3,6 +3,7 @@ package edu.cibertec.appinventario.service;
 import edu.cibertec.appinventario.dto.CategoriaRequestDto;
 import edu.cibertec.appinventario.dto.CategoriaResponseDto;
 import edu.cibertec.appinventario.dto.CategoriaSimpleDto;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 
 import java.util.List;
@@ -15,10 +16,12 @@ public interface CategoriaService {
     CategoriaResponseDto update(Integer id, CategoriaRequestDto requestDto);
     void delete(Integer id);
 
-    // Operaciones adicionales
-    List<CategoriaResponseDto> getAll();
-    PageResponseDto<CategoriaResponseDto> getPaginated(int page, int size);
+    // Operaciones adicionales (los listados excluyen las categorías desactivadas salvo incluirInactivos)
+    List<CategoriaResponseDto> getAll(boolean incluirInactivos);
+    PageResponseDto<CategoriaResponseDto> getPaginated(int page, int size, boolean withTotal, boolean incluirInactivos);
+    CursorPageResponseDto<CategoriaResponseDto> getByCursor(String cursor, int size, boolean withTotal, boolean incluirInactivos);
     List<CategoriaSimpleDto> getAllSimple();
-    List<CategoriaResponseDto> findByNombre(String nombre);
+    PageResponseDto<CategoriaResponseDto> findByNombre(String nombre, int page, int size, boolean incluirInactivos);
     boolean existsByNombre(String nombre);
+    boolean existsById(Integer id);
 }
@@ -0,0 +1,13 @@
+package edu.cibertec.appinventario.service;
+
+public interface ConteoEstimadoService {
+
+    // Totales aproximados, cacheados y refrescados periódicamente. Sin incluirInactivos se descuentan los
+    // registros desactivados, igual que en los listados que acompañan
+    long estimarProductos(boolean incluirInactivos);
+    long estimarCategorias(boolean incluirInactivos);
+    long estimarMarcas(boolean incluirInactivos);
+
+    // Refresco de los valores cacheados
+    void refrescar();
+}
@@ -1,6 +1,7 @@
 package edu.cibertec.appinventario.service;
 
 
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.MarcaRequestDto;
 import edu.cibertec.appinventario.dto.MarcaResponseDto;
 import edu.cibertec.appinventario.dto.MarcaSimpleDto;
@@ -16,11 +17,13 @@ public interface MarcaService {
     MarcaResponseDto update(Integer id, MarcaRequestDto requestDto);
     void delete(Integer id);
 
-    // Operaciones adicionales
-    List<MarcaResponseDto> getAll();
-    PageResponseDto<MarcaResponseDto> getPaginated(int page, int size);
+    // Operaciones adicionales (los listados excluyen las marcas desactivadas salvo incluirInactivos)
+    List<MarcaResponseDto> getAll(boolean incluirInactivos);
+    PageResponseDto<MarcaResponseDto> getPaginated(int page, int size, boolean withTotal, boolean incluirInactivos);
+    CursorPageResponseDto<MarcaResponseDto> getByCursor(String cursor, int size, boolean withTotal, boolean incluirInactivos);
     List<MarcaSimpleDto> getAllSimple();
-    List<MarcaResponseDto> findByNombre(String nombre);
+    PageResponseDto<MarcaResponseDto> findByNombre(String nombre, int page, int size, boolean incluirInactivos);
     List<MarcaResponseDto> findByPaisOrigen(String paisOrigen);
     boolean existsByNombre(String nombre);
+    boolean existsById(Integer id);
 }
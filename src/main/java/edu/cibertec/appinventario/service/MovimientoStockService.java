@@ -0,0 +1,29 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+
+import java.util.List;
+
+public interface MovimientoStockService {
+
+    // Registra un movimiento si el stock vigente no queda negativo y devuelve el stock resultante. Una salida
+    // tampoco puede tomar las unidades retenidas por reservas activas
+    int registrar(Integer productoId, int cantidad, TipoMovimientoStock tipo);
+
+    // Registra la diferencia entre el stock indicado y el vigente; devuelve el stock indicado
+    int fijar(Integer productoId, int stock, TipoMovimientoStock tipo);
+
+    // Registra las líneas en orden, con las mismas reglas que registrar; devuelve, por cada posición, si se aplicó
+    boolean[] registrarEnLote(List<Integer> productoIds, List<Integer> cantidades, TipoMovimientoStock tipo);
+
+    // productos.stock más los movimientos aún no compactados
+    int stockVigente(Integer productoId);
+
+    // Historial del producto, del movimiento más reciente al más antiguo
+    CursorPageResponseDto<MovimientoStockDto> getHistorial(Integer productoId, String cursor, int size);
+
+    // Suma los movimientos pendientes a productos.stock y los marca como aplicados; devuelve cuántos aplicó
+    int compactar();
+}
@@ -0,0 +1,14 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ImportacionResultadoDto;
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface ProductoImportacionService {
+
+    // Importación masiva de productos (las filas inválidas se rechazan y se informan)
+    ImportacionResultadoDto importar(List<ProductoRequestDto> productos);
+    ImportacionResultadoDto importarCsv(InputStream csv);
+}
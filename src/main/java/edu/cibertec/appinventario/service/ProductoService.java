@@ -1,11 +1,18 @@
 package edu.cibertec.appinventario.service;
 
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.dto.FiltroProductosResponseDto;
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.LoteStockResponseDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 import edu.cibertec.appinventario.dto.ProductoRequestDto;
 import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductoService {
 
@@ -15,17 +22,33 @@ public interface ProductoService {
     ProductoResponseDto update(Integer id, ProductoRequestDto requestDto);
     void delete(Integer id);
 
-    // Operaciones adicionales
-    List<ProductoResponseDto> getAll();
-    PageResponseDto<ProductoResponseDto> getPaginated(int page, int size);
+    // Operaciones adicionales (los listados excluyen los productos desactivados salvo incluirInactivos).
+    // Los listados sin paginación devuelven como mucho "limite" productos ordenados por nombre; su variante
+    // exportar* entrega el listado completo, en el mismo orden, sin materializarlo en memoria
+    List<ProductoResponseDto> getAll(boolean incluirInactivos, int limite);
+    PageResponseDto<ProductoResponseDto> getPaginated(int page, int size, boolean withTotal, boolean incluirInactivos);
+    CursorPageResponseDto<ProductoResponseDto> getByCursor(String cursor, int size, boolean withTotal, boolean incluirInactivos);
+    CursorPageResponseDto<ProductoSimpleDto> getResumenByCursor(String cursor, int size, boolean incluirInactivos);
+    FiltroProductosResponseDto filtrar(FiltroProductoDto filtro, String cursor, int size, boolean facetas);
     ProductoResponseDto findByCodigo(String codigo);
-    List<ProductoResponseDto> findByNombre(String nombre);
-    List<ProductoResponseDto> findByCategoria(Integer categoriaId);
-    List<ProductoResponseDto> findByMarca(Integer marcaId);
-    List<ProductoResponseDto> findByRangoPrecio(BigDecimal precioMin, BigDecimal precioMax);
-    List<ProductoResponseDto> findProductosConStock();
+    PageResponseDto<ProductoResponseDto> findByNombre(String nombre, int page, int size, boolean incluirInactivos);
+    List<ProductoResponseDto> findByCategoria(Integer categoriaId, boolean incluirInactivos, int limite);
+    List<ProductoResponseDto> findByMarca(Integer marcaId, boolean incluirInactivos, int limite);
+    List<ProductoResponseDto> findByRangoPrecio(BigDecimal precioMin, BigDecimal precioMax, boolean incluirInactivos,
+                                                int limite);
+    List<ProductoResponseDto> findProductosConStock(boolean incluirInactivos, int limite);
     boolean existsByCodigo(String codigo);
 
+    // Exportación en streaming (no materializa el catálogo en memoria)
+    void exportar(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor);
+    void exportarTodos(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor);
+    void exportarPorCategoria(Integer categoriaId, boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor);
+    void exportarPorMarca(Integer marcaId, boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor);
+    void exportarPorRangoPrecio(BigDecimal precioMin, BigDecimal precioMax, boolean incluirInactivos,
+                                Consumer<ProductoResponseDto> consumidor);
+    void exportarConStock(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor);
+
     // Actualización de stock
     ProductoResponseDto actualizarStock(Integer id, Integer cantidad);
+    LoteStockResponseDto actualizarStockEnLote(LoteStockRequestDto requestDto);
 }
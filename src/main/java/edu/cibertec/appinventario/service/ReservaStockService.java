@@ -0,0 +1,23 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ReservaStockDto;
+import edu.cibertec.appinventario.dto.ReservaStockRequestDto;
+import edu.cibertec.appinventario.dto.StockDisponibleDto;
+
+public interface ReservaStockService {
+
+    // Retiene unidades del stock disponible hasta que la reserva se confirma, se libera o vence
+    ReservaStockDto reservar(Integer productoId, ReservaStockRequestDto requestDto);
+
+    // Convierte una reserva vigente en una salida del libro de movimientos
+    ReservaStockDto confirmar(Integer productoId, Long reservaId);
+
+    // Devuelve las unidades de una reserva activa sin registrar ningún movimiento
+    void liberar(Integer productoId, Long reservaId);
+
+    // Stock vigente menos las reservas activas sin vencer
+    StockDisponibleDto getDisponible(Integer productoId);
+
+    // Marca como EXPIRADA las reservas vencidas; devuelve cuántas marcó
+    int expirarVencidas();
+}
@@ -0,0 +1,81 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.ArchivoResultadoDto;
+import edu.cibertec.appinventario.repository.ProductoHistoricoRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.ArchivoProductoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class ArchivoProductoServiceImpl implements ArchivoProductoService {
+
+    private final ProductoRepository productoRepository;
+    private final ProductoHistoricoRepository productoHistoricoRepository;
+    private final ProductoCache productoCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration antiguedad;
+    private final int tamanoLote;
+
+    public ArchivoProductoServiceImpl(ProductoRepository productoRepository,
+                                      ProductoHistoricoRepository productoHistoricoRepository,
+                                      ProductoCache productoCache,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.archivo.antiguedad:P365D}") Duration antiguedad,
+                                      @Value("${app.archivo.tamano-lote:1000}") int tamanoLote) {
+        this.productoRepository = productoRepository;
+        this.productoHistoricoRepository = productoHistoricoRepository;
+        this.productoCache = productoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.antiguedad = antiguedad;
+        this.tamanoLote = tamanoLote;
+    }
+
+    // Cada lote se copia y se borra en su propia transacción para no mantener bloqueadas
+    // muchas filas de productos durante todo el archivado
+    @Override
+    @Scheduled(cron = "${app.archivo.cron:0 0 3 * * *}")
+    public ArchivoResultadoDto archivar() {
+        long inicio = System.nanoTime();
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime limite = ahora.minus(antiguedad);
+        log.info("Archivando productos desactivados antes de {}", limite);
+
+        int archivados = 0;
+        int procesados;
+        do {
+            procesados = transactionTemplate.execute(status -> archivarLote(limite, ahora));
+            archivados += procesados;
+        } while (procesados == tamanoLote);
+
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Archivado completado: {} productos en {} ms", archivados, duracionMs);
+        return new ArchivoResultadoDto(archivados, limite, duracionMs);
+    }
+
+    private int archivarLote(LocalDateTime limite, LocalDateTime fechaArchivado) {
+        List<ProductoRepository.IdCodigo> lote =
+                productoRepository.findParaArchivar(limite, PageRequest.ofSize(tamanoLote));
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> ids = lote.stream().map(ProductoRepository.IdCodigo::getId).toList();
+        productoHistoricoRepository.copiarDesdeProductos(ids, fechaArchivado);
+        productoRepository.eliminarPorIds(ids);
+
+        // Los productos archivados ya no existen: se retiran de las cachés al confirmar
+        lote.forEach(p -> productoCache.evict(p.getId(), p.getCodigo()));
+        return lote.size();
+    }
+}
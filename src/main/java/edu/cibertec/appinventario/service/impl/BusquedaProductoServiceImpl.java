@@ -0,0 +1,209 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.IndiceBusquedaEstadisticasDto;
+import edu.cibertec.appinventario.dto.SugerenciaProductoDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.BusquedaProductoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class BusquedaProductoServiceImpl implements BusquedaProductoService {
+
+    private static final int LIMITE_MAXIMO = 50;
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double umbralSimilitud;
+
+    // Consultas en paralelo; las modificaciones y el reemplazo del índice en exclusiva
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reconstruccion = new ReentrantLock();
+    private IndiceTrigramas indice = new IndiceTrigramas();
+
+    // Cambios recibidos mientras se reconstruye el índice, para aplicarlos también al nuevo
+    private List<Consumer<IndiceTrigramas>> cambiosPendientes;
+    private long duracionReconstruccionMs;
+    private LocalDateTime ultimaReconstruccion;
+
+    public BusquedaProductoServiceImpl(ProductoRepository productoRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.busqueda.umbral-similitud:0.6}") double umbralSimilitud) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Transacción propia: la reconstrucción puede lanzarse al confirmar otra transacción
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.umbralSimilitud = umbralSimilitud;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlIniciar() {
+        reconstruir();
+    }
+
+    @Override
+    public List<SugerenciaProductoDto> sugerir(String consulta, int limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new BadRequestException("El texto de búsqueda no puede estar vacío");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        List<IndiceTrigramas.Resultado> resultados;
+        lock.readLock().lock();
+        try {
+            resultados = indice.buscar(consulta, limite, umbralSimilitud);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return resultados.stream()
+                .map(r -> new SugerenciaProductoDto(r.documento().id(), r.documento().codigo(),
+                        r.documento().nombre(), r.prefijo() ? 1 + r.similitud() : r.similitud()))
+                .toList();
+    }
+
+    @Override
+    public void indexar(Producto producto) {
+        int id = producto.getId();
+        String codigo = producto.getCodigo();
+        String nombre = producto.getNombre();
+        String descripcion = producto.getDescripcion();
+        boolean activo = !Boolean.FALSE.equals(producto.getActivo());
+
+        // Los productos desactivados no se sugieren
+        despuesDeConfirmar(activo
+                ? i -> i.indexar(id, codigo, nombre, descripcion)
+                : i -> i.eliminar(id));
+    }
+
+    @Override
+    public void eliminar(Integer id) {
+        despuesDeConfirmar(i -> i.eliminar(id));
+    }
+
+    @Override
+    public IndiceBusquedaEstadisticasDto reconstruir() {
+        reconstruccion.lock();
+        try {
+            return reconstruirIndice();
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    @Override
+    public IndiceBusquedaEstadisticasDto getEstadisticas() {
+        lock.readLock().lock();
+        try {
+            return new IndiceBusquedaEstadisticasDto(
+                    indice.documentos(),
+                    indice.trigramas(),
+                    indice.postings(),
+                    indice.bytesEstimados(),
+                    duracionReconstruccionMs,
+                    ultimaReconstruccion
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Métodos privados de utilidad
+
+    private IndiceBusquedaEstadisticasDto reconstruirIndice() {
+        log.info("Reconstruyendo índice de búsqueda de productos");
+        long inicio = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            cambiosPendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // El nuevo índice se construye aparte; el actual sigue atendiendo consultas
+        IndiceTrigramas nuevo = new IndiceTrigramas();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductoRepository.TextoIndexable> productos = productoRepository.streamTextoIndexable()) {
+                    productos.forEach(p -> nuevo.indexar(p.getId(), p.getCodigo(), p.getNombre(), p.getDescripcion()));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                cambiosPendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            cambiosPendientes.forEach(cambio -> cambio.accept(nuevo));
+            cambiosPendientes = null;
+            indice = nuevo;
+            duracionReconstruccionMs = (System.nanoTime() - inicio) / 1_000_000;
+            ultimaReconstruccion = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IndiceBusquedaEstadisticasDto estadisticas = getEstadisticas();
+        log.info("Índice de búsqueda reconstruido: {} productos, {} trigramas, ~{} KB en {} ms",
+                estadisticas.documentos(), estadisticas.trigramas(), estadisticas.bytesEstimados() / 1024,
+                estadisticas.duracionReconstruccionMs());
+        return estadisticas;
+    }
+
+    // Si hay una transacción activa el cambio espera a que se confirme; si se revierte, se descarta
+    private void despuesDeConfirmar(Consumer<IndiceTrigramas> cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(cambio);
+                }
+            });
+        } else {
+            aplicar(cambio);
+        }
+    }
+
+    private void aplicar(Consumer<IndiceTrigramas> cambio) {
+        lock.writeLock().lock();
+        try {
+            cambio.accept(indice);
+            if (cambiosPendientes != null) {
+                cambiosPendientes.add(cambio);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
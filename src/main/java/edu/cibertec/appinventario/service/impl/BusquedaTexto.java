@@ -0,0 +1,29 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+
+import java.util.Locale;
+
+// Normalización del texto de búsqueda por nombre para las consultas con índices de trigramas
+final class BusquedaTexto {
+
+    private BusquedaTexto() {
+    }
+
+    // Texto en minúsculas, igual que la expresión lower(nombre) de los índices
+    static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            throw new BadRequestException("El texto de búsqueda no puede estar vacío");
+        }
+        return texto.strip().toLowerCase(Locale.ROOT);
+    }
+
+    // Patrón LIKE '%texto%' con los comodines del usuario escapados
+    static String patron(String normalizado) {
+        String escapado = normalizado
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+}
@@ -0,0 +1,67 @@
+package edu.cibertec.appinventario.service.impl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import edu.cibertec.appinventario.dto.CacheEstadisticasDto;
+import edu.cibertec.appinventario.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImpl implements CacheService {
+
+    // Prefijo de las regiones de la caché de segundo nivel de Hibernate en el listado
+    private static final String PREFIJO_HIBERNATE = "hibernate.";
+
+    private final CacheManager cacheManager;
+    private final javax.cache.CacheManager hibernateCacheManager;
+
+    @Override
+    public List<CacheEstadisticasDto> getEstadisticas() {
+        Stream<CacheEstadisticasDto> aplicacion = cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .filter(Objects::nonNull);
+
+        Stream<CacheEstadisticasDto> hibernate = StreamSupport.stream(
+                        hibernateCacheManager.getCacheNames().spliterator(), false)
+                .sorted()
+                .map(nombre -> toDto(PREFIJO_HIBERNATE + nombre,
+                        hibernateCacheManager.getCache(nombre)
+                                .unwrap(com.github.benmanes.caffeine.cache.Cache.class)));
+
+        return Stream.concat(aplicacion, hibernate).toList();
+    }
+
+    private CacheEstadisticasDto toDto(Cache cache) {
+        Cache destino = cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+        if (!(destino instanceof CaffeineCache caffeineCache)) {
+            return null;
+        }
+
+        return toDto(cache.getName(), caffeineCache.getNativeCache());
+    }
+
+    private CacheEstadisticasDto toDto(String nombre, com.github.benmanes.caffeine.cache.Cache<?, ?> nativa) {
+        CacheStats stats = nativa.stats();
+        return new CacheEstadisticasDto(
+                nombre,
+                nativa.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
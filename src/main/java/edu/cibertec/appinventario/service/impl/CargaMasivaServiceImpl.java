@@ -0,0 +1,279 @@
+package edu.cibertec.appinventario.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cibertec.appinventario.config.CacheConfig;
+import edu.cibertec.appinventario.dto.CargaResultadoDto;
+import edu.cibertec.appinventario.dto.EntidadCarga;
+import edu.cibertec.appinventario.dto.FormatoCarga;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.service.BusquedaProductoService;
+import edu.cibertec.appinventario.service.CargaMasivaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CargaMasivaServiceImpl implements CargaMasivaService {
+
+    // Bytes acumulados antes de enviar un bloque de filas NDJSON al COPY
+    private static final int TAMANO_BLOQUE_COPY = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final BusquedaProductoService busquedaProductoService;
+    private final CacheManager cacheManager;
+
+    // Tabla temporal de carga de cada entidad: todas las columnas son texto para que
+    // una fila mal formada se rechace en la fusión en lugar de abortar el COPY completo
+    private record Definicion(String tabla, List<String> columnas, List<String> camposJson) {}
+
+    private static final Definicion CATEGORIAS = new Definicion("carga_categorias",
+            List.of("nombre", "descripcion"),
+            List.of("nombre", "descripcion"));
+
+    private static final Definicion MARCAS = new Definicion("carga_marcas",
+            List.of("nombre", "descripcion", "pais_origen"),
+            List.of("nombre", "descripcion", "paisOrigen"));
+
+    private static final Definicion PRODUCTOS = new Definicion("carga_productos",
+            List.of("codigo", "nombre", "descripcion", "precio", "stock", "categoria_id", "marca_id"),
+            List.of("codigo", "nombre", "descripcion", "precio", "stock", "categoriaId", "marcaId"));
+
+    @Override
+    public CargaResultadoDto cargar(EntidadCarga entidad, FormatoCarga formato, InputStream datos) {
+        log.info("Iniciando carga masiva de {} en formato {}", entidad, formato);
+        long inicio = System.nanoTime();
+
+        Definicion definicion = switch (entidad) {
+            case CATEGORIAS -> CATEGORIAS;
+            case MARCAS -> MARCAS;
+            case PRODUCTOS -> PRODUCTOS;
+        };
+
+        jdbcTemplate.execute("CREATE TEMP TABLE " + definicion.tabla() + " ("
+                + String.join(" text, ", definicion.columnas()) + " text) ON COMMIT DROP");
+
+        long leidos = copiar(definicion, formato, datos);
+
+        // Fusionar en la tabla real validando unicidad y claves foráneas
+        long insertados = switch (entidad) {
+            case CATEGORIAS -> fusionarCategorias();
+            case MARCAS -> fusionarMarcas();
+            case PRODUCTOS -> fusionarProductos();
+        };
+
+        // Las filas cargadas por COPY no pasan por el servicio de productos: reconstruir el índice de búsqueda
+        if (entidad == EntidadCarga.PRODUCTOS && insertados > 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    busquedaProductoService.reconstruir();
+                }
+            });
+        }
+
+        // Tampoco pasan por los servicios de catálogo: vaciar los listados cacheados de esa entidad
+        String cacheListas = switch (entidad) {
+            case CATEGORIAS -> CacheConfig.CATEGORIAS_LISTAS;
+            case MARCAS -> CacheConfig.MARCAS_LISTAS;
+            case PRODUCTOS -> null;
+        };
+        if (cacheListas != null && insertados > 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // invalidate() es inmediato: un clear() aquí se volvería a diferir y no llegaría a aplicarse
+                    Cache cache = cacheManager.getCache(cacheListas);
+                    if (cache != null) {
+                        cache.invalidate();
+                    }
+                }
+            });
+        }
+
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        double filasPorSegundo = duracionMs == 0 ? insertados : insertados * 1000.0 / duracionMs;
+
+        log.info("Carga masiva de {} finalizada: {} leídos, {} insertados, {} ms ({} filas/s)",
+                entidad, leidos, insertados, duracionMs, Math.round(filasPorSegundo));
+
+        return new CargaResultadoDto(entidad, leidos, insertados, leidos - insertados, duracionMs, filasPorSegundo);
+    }
+
+    // Métodos privados de utilidad
+
+    private long copiar(Definicion definicion, FormatoCarga formato, InputStream datos) {
+        String sql = "COPY " + definicion.tabla() + " (" + String.join(", ", definicion.columnas())
+                + ") FROM STDIN WITH (FORMAT csv" + (formato == FormatoCarga.CSV ? ", HEADER true)" : ")");
+
+        // Conexión de la transacción actual, para que la tabla temporal sea visible en la fusión
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            if (formato == FormatoCarga.CSV) {
+                return copyManager.copyIn(sql, datos);
+            }
+            return copiarNdjson(copyManager.copyIn(sql), definicion, datos);
+        } catch (SQLException e) {
+            throw new BadRequestException("No se pudieron cargar los datos: " + e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Convierte cada línea NDJSON en una fila CSV y la envía al COPY por bloques
+    private long copiarNdjson(CopyIn copyIn, Definicion definicion, InputStream datos)
+            throws SQLException, IOException {
+
+        ByteArrayOutputStream bloque = new ByteArrayOutputStream(TAMANO_BLOQUE_COPY * 2);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(datos, StandardCharsets.UTF_8))) {
+            String linea;
+            int numeroLinea = 0;
+            while ((linea = reader.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                bloque.writeBytes(aCsv(leerJson(linea, numeroLinea), definicion.camposJson()));
+                if (bloque.size() >= TAMANO_BLOQUE_COPY) {
+                    copyIn.writeToCopy(bloque.toByteArray(), 0, bloque.size());
+                    bloque.reset();
+                }
+            }
+            if (bloque.size() > 0) {
+                copyIn.writeToCopy(bloque.toByteArray(), 0, bloque.size());
+            }
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private JsonNode leerJson(String linea, int numeroLinea) {
+        try {
+            return objectMapper.readTree(linea);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("JSON no válido en la línea " + numeroLinea);
+        }
+    }
+
+    // Todos los valores van entre comillas: un campo ausente o null queda vacío y COPY lo carga como NULL
+    private byte[] aCsv(JsonNode fila, List<String> campos) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < campos.size(); i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            JsonNode valor = fila.get(campos.get(i));
+            if (valor != null && !valor.isNull()) {
+                csv.append('"').append(valor.asText().replace("\"", "\"\"")).append('"');
+            }
+        }
+        return csv.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long fusionarCategorias() {
+        return jdbcTemplate.update("""
+                INSERT INTO categorias (nombre, descripcion, activo, fecha_creacion)
+                SELECT DISTINCT ON (s.nombre) s.nombre, NULLIF(s.descripcion, ''), true, now()
+                FROM carga_categorias s
+                WHERE length(s.nombre) BETWEEN 2 AND 100
+                  AND coalesce(length(s.descripcion), 0) <= 255
+                  AND NOT EXISTS (SELECT 1 FROM categorias c WHERE c.nombre = s.nombre)
+                ORDER BY s.nombre
+                """);
+    }
+
+    private long fusionarMarcas() {
+        return jdbcTemplate.update("""
+                INSERT INTO marcas (nombre, descripcion, pais_origen, activo, fecha_creacion)
+                SELECT DISTINCT ON (s.nombre) s.nombre, NULLIF(s.descripcion, ''), NULLIF(s.pais_origen, ''),
+                       true, now()
+                FROM carga_marcas s
+                WHERE length(s.nombre) BETWEEN 2 AND 100
+                  AND coalesce(length(s.descripcion), 0) <= 255
+                  AND coalesce(length(s.pais_origen), 0) <= 100
+                  AND NOT EXISTS (SELECT 1 FROM marcas m WHERE m.nombre = s.nombre)
+                ORDER BY s.nombre
+                """);
+    }
+
+    private long fusionarProductos() {
+        // Filas válidas: tipos correctos, código nuevo y categoría/marca existentes
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE carga_productos_validos ON COMMIT DROP AS
+                SELECT row_number() OVER (ORDER BY t.codigo) - 1 AS fila, t.*
+                FROM (
+                    SELECT DISTINCT ON (s.codigo) s.codigo, s.nombre, NULLIF(s.descripcion, '') AS descripcion,
+                           CAST(CASE WHEN s.precio ~ '^[0-9]{1,8}(\\.[0-9]{1,2})?$' THEN s.precio END AS numeric(10, 2)) AS precio,
+                           CAST(CASE WHEN s.stock ~ '^[0-9]{1,9}$' THEN s.stock END AS integer) AS stock,
+                           CAST(CASE WHEN s.categoria_id ~ '^[0-9]{1,9}$' THEN s.categoria_id END AS integer) AS categoria_id,
+                           CAST(CASE WHEN s.marca_id ~ '^[0-9]{1,9}$' THEN s.marca_id END AS integer) AS marca_id
+                    FROM carga_productos s
+                    WHERE length(s.codigo) BETWEEN 3 AND 50
+                      AND length(s.nombre) BETWEEN 2 AND 100
+                      AND coalesce(length(s.descripcion), 0) <= 255
+                    ORDER BY s.codigo
+                ) t
+                WHERE t.precio > 0
+                  AND t.stock IS NOT NULL
+                  AND EXISTS (SELECT 1 FROM categorias c WHERE c.id = t.categoria_id)
+                  AND EXISTS (SELECT 1 FROM marcas m WHERE m.id = t.marca_id)
+                  AND NOT EXISTS (SELECT 1 FROM productos p WHERE p.codigo = t.codigo)
+                """);
+
+        Long validos = jdbcTemplate.queryForObject("SELECT count(*) FROM carga_productos_validos", Long.class);
+        if (validos == null || validos == 0) {
+            return 0;
+        }
+
+        // Los IDs se reservan en bloques de la secuencia, igual que el generador por bloques de Hibernate:
+        // cada nextval devuelve el tope de un bloque de 'incremento' IDs de uso exclusivo
+        Integer incremento = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = 'productos_id_seq'", Integer.class);
+
+        return jdbcTemplate.update("""
+                WITH bloques AS (
+                    SELECT row_number() OVER () - 1 AS bloque, nextval('productos_id_seq') AS tope
+                    FROM generate_series(1, CAST(ceil(CAST(? AS numeric) / ?) AS integer))
+                )
+                INSERT INTO productos (id, codigo, nombre, descripcion, precio, stock, categoria_id, marca_id,
+                                       activo, fecha_creacion)
+                SELECT b.tope - ? + 1 + v.fila % ?, v.codigo, v.nombre, v.descripcion, v.precio, v.stock,
+                       v.categoria_id, v.marca_id, true, now()
+                FROM carga_productos_validos v
+                JOIN bloques b ON b.bloque = v.fila / ?
+                ON CONFLICT (codigo) DO NOTHING
+                """, validos, incremento, incremento, incremento, incremento);
+    }
+}
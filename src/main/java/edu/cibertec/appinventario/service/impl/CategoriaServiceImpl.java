@@ -3,6 +3,9 @@ package edu.cibertec.appinventario.service.impl;
 import edu.cibertec.appinventario.dto.CategoriaRequestDto;
 import edu.cibertec.appinventario.dto.CategoriaResponseDto;
 import edu.cibertec.appinventario.dto.CategoriaSimpleDto;
+import edu.cibertec.appinventario.config.CacheConfig;
+import edu.cibertec.appinventario.config.LecturaEnPrimaria;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 import edu.cibertec.appinventario.exception.BadRequestException;
 import edu.cibertec.appinventario.exception.ResourceNotFoundException;
@@ -10,10 +13,17 @@ import edu.cibertec.appinventario.mapper.CategoriaMapper;
 import edu.cibertec.appinventario.model.Categoria;
 import edu.cibertec.appinventario.repository.CategoriaRepository;
 import edu.cibertec.appinventario.service.CategoriaService;
+import edu.cibertec.appinventario.service.ConteoEstimadoService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,12 +34,16 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "inventario.servicio", description = "Duración de los métodos de los servicios")
 public class CategoriaServiceImpl implements CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
     private final CategoriaMapper categoriaMapper;
+    private final ConteoEstimadoService conteoEstimadoService;
+    private final FiltroActivos filtroActivos;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_LISTAS, allEntries = true)
     public CategoriaResponseDto create(CategoriaRequestDto requestDto) {
         log.info("Creando nueva categoría con nombre: {}", requestDto.nombre());
 
@@ -48,6 +62,8 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS, key = "#id")
+    @LecturaEnPrimaria
     public CategoriaResponseDto getById(Integer id) {
         log.info("Buscando categoría con ID: {}", id);
 
@@ -57,7 +73,13 @@ public class CategoriaServiceImpl implements CategoriaService {
         return categoriaMapper.toDto(categoria);
     }
 
+    // Los productos cacheados incluyen el nombre de su categoria
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_LISTAS, allEntries = true),
+            @CacheEvict(cacheNames = {CacheConfig.PRODUCTOS, CacheConfig.PRODUCTOS_POR_CODIGO}, allEntries = true)
+    })
     public CategoriaResponseDto update(Integer id, CategoriaRequestDto requestDto) {
         log.info("Actualizando categoría con ID: {}", id);
 
@@ -80,6 +102,10 @@ public class CategoriaServiceImpl implements CategoriaService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIAS_LISTAS, allEntries = true)
+    })
     public void delete(Integer id) {
         log.info("Eliminando categoría con ID: {}", id);
 
@@ -96,8 +122,13 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CategoriaResponseDto> getAll() {
-        log.info("Obteniendo todas las categorías");
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS_LISTAS, key = CacheConfig.CLAVE_TODAS,
+            condition = "!#incluirInactivos")
+    @LecturaEnPrimaria
+    public List<CategoriaResponseDto> getAll(boolean incluirInactivos) {
+        log.info("Obteniendo todas las categorías, incluir inactivas {}", incluirInactivos);
+
+        filtroActivos.aplicar(incluirInactivos);
 
         List<Categoria> categorias = categoriaRepository.findAll(Sort.by("nombre"));
         return categoriaMapper.toDtoList(categorias);
@@ -105,25 +136,73 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponseDto<CategoriaResponseDto> getPaginated(int page, int size) {
-        log.info("Obteniendo categorías paginadas: página {}, tamaño {}", page, size);
+    public PageResponseDto<CategoriaResponseDto> getPaginated(int page, int size, boolean withTotal,
+                                                              boolean incluirInactivos) {
+        log.info("Obteniendo categorías paginadas: página {}, tamaño {}, con total {}", page, size, withTotal);
 
-        Page<Categoria> categoriasPage = categoriaRepository.findAll(
-                PageRequest.of(page, size, Sort.by("nombre")));
+        filtroActivos.aplicar(incluirInactivos);
 
-        List<CategoriaResponseDto> content = categoriaMapper.toDtoList(categoriasPage.getContent());
+        Pageable pageable = PageRequest.of(page, size, Sort.by("nombre"));
+
+        if (withTotal) {
+            Page<Categoria> categoriasPage = categoriaRepository.findAll(pageable);
+
+            List<CategoriaResponseDto> content = categoriaMapper.toDtoList(categoriasPage.getContent());
+
+            return new PageResponseDto<>(
+                    content,
+                    categoriasPage.getNumber(),
+                    categoriasPage.getSize(),
+                    categoriasPage.getTotalElements(),
+                    categoriasPage.getTotalPages(),
+                    categoriasPage.hasNext(),
+                    false
+            );
+        }
+
+        // Sin COUNT(*): se usa un Slice y el total estimado cacheado
+        Slice<Categoria> categoriasSlice = categoriaRepository.findSlice(pageable);
+        long totalEstimado = conteoEstimadoService.estimarCategorias(incluirInactivos);
+
+        List<CategoriaResponseDto> content = categoriaMapper.toDtoList(categoriasSlice.getContent());
 
         return new PageResponseDto<>(
                 content,
-                categoriasPage.getNumber(),
-                categoriasPage.getSize(),
-                categoriasPage.getTotalElements(),
-                categoriasPage.getTotalPages()
+                categoriasSlice.getNumber(),
+                categoriasSlice.getSize(),
+                totalEstimado,
+                (int) Math.ceil((double) totalEstimado / size),
+                categoriasSlice.hasNext(),
+                true
         );
     }
 
     @Override
     @Transactional(readOnly = true)
+    public CursorPageResponseDto<CategoriaResponseDto> getByCursor(String cursor, int size, boolean withTotal,
+                                                                   boolean incluirInactivos) {
+        log.info("Obteniendo categorías por cursor: tamaño {}, con total {}", size, withTotal);
+
+        filtroActivos.aplicar(incluirInactivos);
+
+        Pageable limite = PaginacionCursor.limite(size);
+        PaginacionCursor.Posicion posicion = PaginacionCursor.decodificar(cursor);
+
+        List<Categoria> categorias = posicion == null
+                ? categoriaRepository.findPrimeros(limite)
+                : categoriaRepository.findSiguientes(posicion.nombre(), posicion.id(), limite);
+
+        // El conteo total solo se ejecuta si se solicita explícitamente
+        Long totalElements = withTotal ? categoriaRepository.count() : null;
+
+        return PaginacionCursor.pagina(categorias, size, Categoria::getNombre, Categoria::getId,
+                categoriaMapper::toDtoList, totalElements);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS_LISTAS, key = CacheConfig.CLAVE_SIMPLES)
+    @LecturaEnPrimaria
     public List<CategoriaSimpleDto> getAllSimple() {
         log.info("Obteniendo lista simple de todas las categorías");
 
@@ -133,11 +212,26 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CategoriaResponseDto> findByNombre(String nombre) {
-        log.info("Buscando categorías por nombre: {}", nombre);
+    public PageResponseDto<CategoriaResponseDto> findByNombre(String nombre, int page, int size,
+                                                              boolean incluirInactivos) {
+        log.info("Buscando categorías por nombre: {}, página {}, tamaño {}", nombre, page, size);
 
-        List<Categoria> categorias = categoriaRepository.findByNombreContainingIgnoreCase(nombre);
-        return categoriaMapper.toDtoList(categorias);
+        // Resultados ordenados por relevancia (ver CategoriaRepository.buscarPorNombre)
+        String texto = BusquedaTexto.normalizar(nombre);
+        Page<Categoria> categoriasPage = categoriaRepository.buscarPorNombre(texto, BusquedaTexto.patron(texto),
+                incluirInactivos, PageRequest.of(page, size));
+
+        List<CategoriaResponseDto> content = categoriaMapper.toDtoList(categoriasPage.getContent());
+
+        return new PageResponseDto<>(
+                content,
+                categoriasPage.getNumber(),
+                categoriasPage.getSize(),
+                categoriasPage.getTotalElements(),
+                categoriasPage.getTotalPages(),
+                categoriasPage.hasNext(),
+                false
+        );
     }
 
     @Override
@@ -146,4 +240,13 @@ public class CategoriaServiceImpl implements CategoriaService {
         log.info("Verificando si existe categoría con nombre: {}", nombre);
         return categoriaRepository.existsByNombre(nombre);
     }
+
+    // Solo se cachean los resultados positivos: un ID inexistente puede crearse después
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS_EXISTENTES, key = "#id", unless = "!#result")
+    @LecturaEnPrimaria
+    public boolean existsById(Integer id) {
+        return categoriaRepository.existsById(id);
+    }
 }
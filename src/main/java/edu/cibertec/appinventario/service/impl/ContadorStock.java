@@ -0,0 +1,132 @@
+package edu.cibertec.appinventario.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+// Stock de un producto repartido en franjas que se actualizan con CAS, sin bloqueos. Cada franja guarda una
+// parte de las unidades y nunca baja de cero, así que la suma tampoco: una salida se descuenta de una sola
+// franja con unidades suficientes. Solo cuando ninguna las tiene por separado se consolidan todas bajo un
+// cerrojo (ReentrantLock, no synchronized, para no fijar hilos virtuales) antes de rechazarla. Las entradas
+// con tope y los ajustes a un valor absoluto también pasan por el cerrojo: son poco frecuentes y necesitan
+// ver el total sin que otra entrada o ajuste lo cambie a la vez.
+final class ContadorStock {
+
+    // Cada franja ocupa su propia línea de caché de 64 bytes para que los núcleos no se la disputen
+    private static final int RELLENO = 8;
+
+    private final AtomicLongArray franjas;
+    private final int mascara;
+    private final Lock consolidacion = new ReentrantLock();
+
+    // numeroFranjas debe ser potencia de 2
+    ContadorStock(long inicial, int numeroFranjas) {
+        if (inicial < 0 || Integer.bitCount(numeroFranjas) != 1) {
+            throw new IllegalArgumentException("Stock inicial o número de franjas no válido");
+        }
+        this.franjas = new AtomicLongArray(numeroFranjas * RELLENO);
+        this.mascara = numeroFranjas - 1;
+        franjas.set(0, inicial);
+    }
+
+    // Suma de las franjas: exacta en reposo, aproximada mientras otras operaciones están en curso
+    long valor() {
+        long total = 0;
+        for (int franja = 0; franja <= mascara; franja++) {
+            total += franjas.get(franja * RELLENO);
+        }
+        return total;
+    }
+
+    void sumar(long cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("Las salidas se descuentan con retirar");
+        }
+        franjas.getAndAdd(propia() * RELLENO, cantidad);
+    }
+
+    // Suma la cantidad si el total no supera el máximo. confirmar recibe la cantidad antes de que sea visible
+    // (para anotarla) y, si lanza una excepción, el contador no cambia
+    boolean sumar(long cantidad, long maximo, LongConsumer confirmar) {
+        consolidacion.lock();
+        try {
+            // Bajo el cerrojo solo las salidas cambian el total, y solo lo reducen
+            if (valor() + cantidad > maximo) {
+                return false;
+            }
+            confirmar.accept(cantidad);
+            sumar(cantidad);
+            return true;
+        } finally {
+            consolidacion.unlock();
+        }
+    }
+
+    // Fija el total. confirmar recibe la diferencia con el total anterior antes de que sea visible y, si lanza
+    // una excepción, el contador no cambia. Mientras tanto las franjas están vacías y las salidas esperan en
+    // retirarConsolidando, así que ninguna se cuela entre la lectura y el ajuste
+    void fijar(long stock, LongConsumer confirmar) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo");
+        }
+        consolidacion.lock();
+        try {
+            long total = vaciar();
+            try {
+                confirmar.accept(stock - total);
+            } catch (RuntimeException e) {
+                franjas.getAndAdd(propia() * RELLENO, total);
+                throw e;
+            }
+            franjas.getAndAdd(propia() * RELLENO, stock);
+        } finally {
+            consolidacion.unlock();
+        }
+    }
+
+    // Descuenta la cantidad si hay unidades suficientes; nunca deja el stock negativo
+    boolean retirar(long cantidad) {
+        int inicio = propia();
+        for (int i = 0; i <= mascara; i++) {
+            int indice = ((inicio + i) & mascara) * RELLENO;
+            long actual = franjas.get(indice);
+            while (actual >= cantidad) {
+                if (franjas.compareAndSet(indice, actual, actual - cantidad)) {
+                    return true;
+                }
+                actual = franjas.get(indice);
+            }
+        }
+        return retirarConsolidando(cantidad);
+    }
+
+    // Las unidades están repartidas (o se acaban): se vacían todas las franjas en una y se decide con el total.
+    // Mientras tanto, las salidas que vean las franjas vacías esperan aquí en lugar de rechazarse
+    private boolean retirarConsolidando(long cantidad) {
+        consolidacion.lock();
+        try {
+            long total = vaciar();
+            boolean suficiente = total >= cantidad;
+            franjas.getAndAdd(propia() * RELLENO, suficiente ? total - cantidad : total);
+            return suficiente;
+        } finally {
+            consolidacion.unlock();
+        }
+    }
+
+    // Solo bajo el cerrojo de consolidación
+    private long vaciar() {
+        long total = 0;
+        for (int franja = 0; franja <= mascara; franja++) {
+            total += franjas.getAndSet(franja * RELLENO, 0);
+        }
+        return total;
+    }
+
+    // Franja del hilo actual; con hilos virtuales cada petición tiene su propio ID y se reparten solas
+    private int propia() {
+        long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mascara;
+    }
+}
@@ -0,0 +1,118 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.ConteoEstimadoService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class ConteoEstimadoServiceImpl implements ConteoEstimadoService {
+
+    // Total de filas (estimado en PostgreSQL) y filas desactivadas (exacto) en el último refresco
+    private record Conteo(long total, long inactivos) {
+
+        long estimar(boolean incluirInactivos) {
+            return incluirInactivos ? total : Math.max(total - inactivos, 0);
+        }
+    }
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final MarcaRepository marcaRepository;
+    // La estimación lee pg_class. Se decide por dialecto y no capturando el error: en PostgreSQL un error
+    // aborta la transacción de quien llama, y en el resto la marca como rollback-only
+    private final boolean postgres;
+
+    private final AtomicReference<Conteo> conteoProductos = new AtomicReference<>();
+    private final AtomicReference<Conteo> conteoCategorias = new AtomicReference<>();
+    private final AtomicReference<Conteo> conteoMarcas = new AtomicReference<>();
+
+    public ConteoEstimadoServiceImpl(ProductoRepository productoRepository,
+                                     CategoriaRepository categoriaRepository,
+                                     MarcaRepository marcaRepository,
+                                     EntityManagerFactory entityManagerFactory) {
+        this.productoRepository = productoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.marcaRepository = marcaRepository;
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        if (!postgres) {
+            log.info("Base de datos distinta de PostgreSQL: los totales estimados se calcularán con conteos exactos");
+        }
+    }
+
+    @Override
+    public long estimarProductos(boolean incluirInactivos) {
+        return obtener(conteoProductos, this::contarProductos).estimar(incluirInactivos);
+    }
+
+    @Override
+    public long estimarCategorias(boolean incluirInactivos) {
+        return obtener(conteoCategorias, this::contarCategorias).estimar(incluirInactivos);
+    }
+
+    @Override
+    public long estimarMarcas(boolean incluirInactivos) {
+        return obtener(conteoMarcas, this::contarMarcas).estimar(incluirInactivos);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.conteo-estimado.intervalo:PT5M}")
+    public void refrescar() {
+        log.debug("Refrescando conteos estimados");
+
+        conteoProductos.set(contarProductos());
+        conteoCategorias.set(contarCategorias());
+        conteoMarcas.set(contarMarcas());
+    }
+
+    // Métodos privados de utilidad
+
+    private Conteo contarProductos() {
+        return new Conteo(estimar(productoRepository::estimarTotal, productoRepository::contarFilas),
+                productoRepository.contarFilasInactivas());
+    }
+
+    private Conteo contarCategorias() {
+        return new Conteo(estimar(categoriaRepository::estimarTotal, categoriaRepository::contarFilas),
+                categoriaRepository.contarFilasInactivas());
+    }
+
+    private Conteo contarMarcas() {
+        return new Conteo(estimar(marcaRepository::estimarTotal, marcaRepository::contarFilas),
+                marcaRepository.contarFilasInactivas());
+    }
+
+    private static Conteo obtener(AtomicReference<Conteo> cache, Supplier<Conteo> conteo) {
+        Conteo valor = cache.get();
+        if (valor == null) {
+            valor = conteo.get();
+            cache.compareAndSet(null, valor);
+        }
+        return valor;
+    }
+
+    // Las filas desactivadas se cuentan siempre con exactitud: suelen ser pocas y el total estimado de
+    // pg_class las incluye, mientras que los listados las excluyen por defecto
+    private long estimar(Supplier<Long> estimacion, LongSupplier exacto) {
+        if (postgres) {
+            Long estimado = estimacion.get();
+            // reltuples vale -1 si la tabla aún no ha sido analizada
+            if (estimado != null && estimado >= 0) {
+                return estimado;
+            }
+        }
+        return exacto.getAsLong();
+    }
+}
@@ -0,0 +1,26 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.model.Producto;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+// Las filas desactivadas (eliminación lógica) se excluyen de los listados y búsquedas por defecto.
+// Activa el filtro de Hibernate en la sesión de la transacción actual: afecta a las consultas JPQL,
+// Criteria y derivadas de productos, categorías y marcas, pero no a las cargas por ID ni a las nativas
+@Component
+@RequiredArgsConstructor
+class FiltroActivos {
+
+    private final EntityManager entityManager;
+
+    void aplicar(boolean incluirInactivos) {
+        Session session = entityManager.unwrap(Session.class);
+        if (incluirInactivos) {
+            session.disableFilter(Producto.FILTRO_ACTIVOS);
+        } else {
+            session.enableFilter(Producto.FILTRO_ACTIVOS);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package edu.cibertec.appinventario.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+// Índice invertido de trigramas sobre nombre, código y descripción de los productos.
+// Cada documento recibe un ordinal denso y cada trigrama apunta a una lista ordenada de ordinales (int[]),
+// de modo que una consulta solo recorre las listas de sus propios trigramas y cuenta coincidencias en un int[].
+// Las consultas pueden ejecutarse en paralelo; las modificaciones deben hacerse en exclusiva (lo sincroniza quien lo usa)
+final class IndiceTrigramas {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Con un solo carácter coincidiría una fracción grande del catálogo; se empieza a sugerir desde dos
+    static final int LONGITUD_MINIMA_CONSULTA = 2;
+
+    // Estimación de memoria por objeto en una JVM de 64 bits con punteros comprimidos
+    private static final int BYTES_ENTRADA_MAPA = 48;
+    private static final int BYTES_CABECERA_OBJETO = 16;
+
+    private final Map<Integer, ListaPostings> postings = new HashMap<>();
+    private final Map<Integer, Integer> ordinalPorId = new HashMap<>();
+    private Documento[] documentos = new Documento[1024];
+    private int[] ordinalesLibres = new int[16];
+    private int totalLibres;
+    private int siguienteOrdinal;
+    private long totalPostings;
+
+    // Contadores reutilizados entre consultas, para no reservar un int[] por cada una
+    private final ConcurrentLinkedQueue<Contadores> contadoresLibres = new ConcurrentLinkedQueue<>();
+
+    record Documento(int id, String codigo, String nombre, String nombreNormalizado,
+                     String codigoNormalizado, int[] trigramas) {}
+
+    record Resultado(Documento documento, double similitud, boolean prefijo) {}
+
+    // Agrega o reemplaza un producto
+    void indexar(int id, String codigo, String nombre, String descripcion) {
+        eliminar(id);
+
+        String nombreNormalizado = normalizar(nombre);
+        String codigoNormalizado = normalizar(codigo);
+        int[] trigramas = trigramasDocumento(nombreNormalizado + " " + codigoNormalizado + " " + normalizar(descripcion));
+
+        int ordinal = reservarOrdinal();
+        for (int trigrama : trigramas) {
+            postings.computeIfAbsent(trigrama, t -> new ListaPostings()).agregar(ordinal);
+        }
+        totalPostings += trigramas.length;
+        documentos[ordinal] = new Documento(id, codigo, nombre, nombreNormalizado, codigoNormalizado, trigramas);
+        ordinalPorId.put(id, ordinal);
+    }
+
+    void eliminar(int id) {
+        Integer ordinal = ordinalPorId.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        Documento documento = documentos[ordinal];
+        for (int trigrama : documento.trigramas()) {
+            ListaPostings lista = postings.get(trigrama);
+            if (lista != null && lista.eliminar(ordinal) && lista.tamano == 0) {
+                postings.remove(trigrama);
+            }
+        }
+        totalPostings -= documento.trigramas().length;
+        documentos[ordinal] = null;
+        liberarOrdinal(ordinal);
+    }
+
+    // Productos que comparten al menos 'umbral' de los trigramas de la consulta.
+    // La última palabra se trata como prefijo, así "torn" encuentra "tornillo"
+    List<Resultado> buscar(String consulta, int limite, double umbral) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.length() < LONGITUD_MINIMA_CONSULTA) {
+            return List.of();
+        }
+
+        int[] trigramas = trigramasConsulta(normalizada);
+        int minimo = Math.max(1, (int) Math.ceil(trigramas.length * umbral));
+
+        // Las listas se recorren de la más corta a la más larga. Un trigrama presente en más de la mitad
+        // de los productos (p. ej. el prefijo común de los códigos) apenas discrimina: en lugar de recorrer
+        // su lista se da por coincidente en todos los candidatos, salvo que sea el único disponible
+        List<ListaPostings> listas = new ArrayList<>(trigramas.length);
+        for (int trigrama : trigramas) {
+            ListaPostings lista = postings.get(trigrama);
+            if (lista != null) {
+                listas.add(lista);
+            }
+        }
+        listas.sort((a, b) -> Integer.compare(a.tamano, b.tamano));
+
+        Contadores contadores = tomarContadores();
+        MejoresResultados mejores = new MejoresResultados(limite);
+        int comunes = 0;
+        for (int i = 0; i < listas.size(); i++) {
+            ListaPostings lista = listas.get(i);
+            if (i > 0 && 2L * lista.tamano > ordinalPorId.size()) {
+                comunes++;
+            } else {
+                contadores.contar(lista.ordinales, lista.tamano);
+            }
+        }
+
+        for (int i = 0; i < contadores.totalTocados; i++) {
+            int ordinal = contadores.tocados[i];
+            int coincidencias = contadores.totales[ordinal] + comunes;
+            contadores.totales[ordinal] = 0;
+            // Solo un documento que contiene todos los trigramas puede empezar por el texto buscado
+            boolean completo = coincidencias == trigramas.length;
+            if (coincidencias < minimo || !mejores.admite(clave(completo, completo, coincidencias, "", 0))) {
+                continue;
+            }
+            Documento documento = documentos[ordinal];
+            boolean exacto = completo
+                    && (documento.nombreNormalizado().equals(normalizada)
+                    || documento.codigoNormalizado().equals(normalizada));
+            boolean prefijo = completo
+                    && (documento.nombreNormalizado().startsWith(normalizada)
+                    || documento.codigoNormalizado().startsWith(normalizada));
+            mejores.ofrecer(ordinal, clave(exacto, prefijo, coincidencias, documento.nombre(), documento.id()));
+        }
+
+        // Los contadores vuelven al grupo ya puestos a cero
+        contadores.totalTocados = 0;
+        contadoresLibres.offer(contadores);
+
+        List<Resultado> resultados = new ArrayList<>(mejores.tamano);
+        for (int posicion : mejores.posicionesOrdenadas()) {
+            long clave = mejores.claves[posicion];
+            int coincidencias = (int) (clave >>> 47) & 0x3FFF;
+            boolean prefijo = (clave >>> 61) != 0;
+            resultados.add(new Resultado(documentos[mejores.ordinales[posicion]],
+                    (double) coincidencias / trigramas.length, prefijo));
+        }
+        return resultados;
+    }
+
+    int documentos() {
+        return ordinalPorId.size();
+    }
+
+    int trigramas() {
+        return postings.size();
+    }
+
+    long postings() {
+        return totalPostings;
+    }
+
+    // Estimación de la memoria ocupada por listas de postings, mapas y documentos
+    long bytesEstimados() {
+        long bytes = 4L * documentos.length + 4L * ordinalesLibres.length;
+        for (ListaPostings lista : postings.values()) {
+            bytes += BYTES_ENTRADA_MAPA + 2L * BYTES_CABECERA_OBJETO + 4L * lista.ordinales.length;
+        }
+        for (int ordinal : ordinalPorId.values()) {
+            Documento documento = documentos[ordinal];
+            bytes += BYTES_ENTRADA_MAPA + 2L * BYTES_CABECERA_OBJETO + 4L * documento.trigramas().length
+                    + bytesTexto(documento.codigo()) + bytesTexto(documento.nombre())
+                    + bytesTexto(documento.nombreNormalizado()) + bytesTexto(documento.codigoNormalizado());
+        }
+        return bytes;
+    }
+
+    // Minúsculas, sin tildes y con cualquier carácter que no sea letra o dígito como separador
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    // Métodos privados de utilidad
+
+    // Orden de relevancia empaquetado en un long: coincidencia exacta con el nombre o el código,
+    // coincidencia por prefijo, número de trigramas coincidentes, nombre más corto e ID menor.
+    // Con nombre vacío e ID 0 se obtiene la cota superior de un candidato, que permite descartarlo sin leer el documento
+    private static long clave(boolean exacto, boolean prefijo, int coincidencias, String nombre, int id) {
+        return (exacto ? 1L << 62 : 0)
+                | (prefijo ? 1L << 61 : 0)
+                | (long) Math.min(coincidencias, 0x3FFF) << 47
+                | (long) (0xFFFF - Math.min(nombre.length(), 0xFFFF)) << 31
+                | (Integer.MAX_VALUE - id);
+    }
+
+    private int reservarOrdinal() {
+        if (totalLibres > 0) {
+            return ordinalesLibres[--totalLibres];
+        }
+        if (siguienteOrdinal == documentos.length) {
+            documentos = Arrays.copyOf(documentos, documentos.length * 2);
+        }
+        return siguienteOrdinal++;
+    }
+
+    private void liberarOrdinal(int ordinal) {
+        if (totalLibres == ordinalesLibres.length) {
+            ordinalesLibres = Arrays.copyOf(ordinalesLibres, ordinalesLibres.length * 2);
+        }
+        ordinalesLibres[totalLibres++] = ordinal;
+    }
+
+    private Contadores tomarContadores() {
+        Contadores contadores = contadoresLibres.poll();
+        if (contadores == null || contadores.totales.length < siguienteOrdinal) {
+            return new Contadores(documentos.length);
+        }
+        return contadores;
+    }
+
+    // Cada palabra se rellena como en pg_trgm: dos espacios delante y uno detrás
+    private static int[] trigramasDocumento(String texto) {
+        IntConjunto conjunto = new IntConjunto();
+        for (String palabra : texto.split(" ")) {
+            if (!palabra.isEmpty()) {
+                agregarTrigramas("  " + palabra + " ", conjunto);
+            }
+        }
+        return conjunto.ordenados();
+    }
+
+    // Las palabras completas llevan el espacio final; la última no, porque puede estar a medio escribir.
+    // El trigrama inicial ("  t") se omite si la palabra tiene más letras: lo implica el siguiente (" to")
+    // y su lista, la de todas las palabras que empiezan por esa letra, es la más larga del índice
+    private static int[] trigramasConsulta(String texto) {
+        IntConjunto conjunto = new IntConjunto();
+        String[] palabras = texto.split(" ");
+        for (int i = 0; i < palabras.length; i++) {
+            String palabra = "  " + palabras[i] + (i < palabras.length - 1 ? " " : "");
+            agregarTrigramas(palabras[i].length() > 1 ? palabra.substring(1) : palabra, conjunto);
+        }
+        return conjunto.ordenados();
+    }
+
+    // Tras normalizar solo quedan caracteres ASCII, así que un trigrama cabe en un int (8 bits por carácter)
+    private static void agregarTrigramas(String palabra, IntConjunto conjunto) {
+        for (int i = 0; i + 3 <= palabra.length(); i++) {
+            conjunto.agregar(palabra.charAt(i) << 16 | palabra.charAt(i + 1) << 8 | palabra.charAt(i + 2));
+        }
+    }
+
+    private static long bytesTexto(String texto) {
+        return texto == null ? 0 : 2L * BYTES_CABECERA_OBJETO + texto.length();
+    }
+
+    // Lista de ordinales ordenada y sin duplicados
+    private static final class ListaPostings {
+
+        private int[] ordinales = new int[4];
+        private int tamano;
+
+        void agregar(int ordinal) {
+            // Camino rápido de la construcción inicial, que asigna ordinales crecientes
+            if (tamano == 0 || ordinales[tamano - 1] < ordinal) {
+                asegurarCapacidad();
+                ordinales[tamano++] = ordinal;
+                return;
+            }
+            int posicion = Arrays.binarySearch(ordinales, 0, tamano, ordinal);
+            if (posicion >= 0) {
+                return;
+            }
+            int insercion = -posicion - 1;
+            asegurarCapacidad();
+            System.arraycopy(ordinales, insercion, ordinales, insercion + 1, tamano - insercion);
+            ordinales[insercion] = ordinal;
+            tamano++;
+        }
+
+        boolean eliminar(int ordinal) {
+            int posicion = Arrays.binarySearch(ordinales, 0, tamano, ordinal);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(ordinales, posicion + 1, ordinales, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+
+        private void asegurarCapacidad() {
+            if (tamano == ordinales.length) {
+                ordinales = Arrays.copyOf(ordinales, ordinales.length * 2);
+            }
+        }
+    }
+
+    // Coincidencias por ordinal de una consulta y lista de ordinales tocados, para poner a cero solo esos
+    private static final class Contadores {
+
+        private final int[] totales;
+        private int[] tocados = new int[1024];
+        private int totalTocados;
+
+        Contadores(int capacidad) {
+            this.totales = new int[capacidad];
+        }
+
+        void contar(int[] ordinales, int tamano) {
+            for (int i = 0; i < tamano; i++) {
+                int ordinal = ordinales[i];
+                if (totales[ordinal]++ == 0) {
+                    if (totalTocados == tocados.length) {
+                        tocados = Arrays.copyOf(tocados, tocados.length * 2);
+                    }
+                    tocados[totalTocados++] = ordinal;
+                }
+            }
+        }
+    }
+
+    // Los 'limite' ordinales con mayor clave; el límite es pequeño, así que basta con arreglos
+    private static final class MejoresResultados {
+
+        private final int[] ordinales;
+        private final long[] claves;
+        private int tamano;
+        private int posicionMinima;
+
+        MejoresResultados(int limite) {
+            this.ordinales = new int[limite];
+            this.claves = new long[limite];
+        }
+
+        boolean admite(long clave) {
+            return tamano < claves.length || clave > claves[posicionMinima];
+        }
+
+        void ofrecer(int ordinal, long clave) {
+            if (tamano < claves.length) {
+                ordinales[tamano] = ordinal;
+                claves[tamano++] = clave;
+                if (tamano == claves.length) {
+                    buscarMinimo();
+                }
+                return;
+            }
+            if (clave > claves[posicionMinima]) {
+                ordinales[posicionMinima] = ordinal;
+                claves[posicionMinima] = clave;
+                buscarMinimo();
+            }
+        }
+
+        // Posiciones de mayor a menor clave
+        Integer[] posicionesOrdenadas() {
+            Integer[] posiciones = new Integer[tamano];
+            for (int i = 0; i < tamano; i++) {
+                posiciones[i] = i;
+            }
+            Arrays.sort(posiciones, (a, b) -> Long.compare(claves[b], claves[a]));
+            return posiciones;
+        }
+
+        private void buscarMinimo() {
+            posicionMinima = 0;
+            for (int i = 1; i < tamano; i++) {
+                if (claves[i] < claves[posicionMinima]) {
+                    posicionMinima = i;
+                }
+            }
+        }
+    }
+
+    // Conjunto de int con direccionamiento abierto, para no crear un Integer por trigrama.
+    // El 0 marca las posiciones libres: ningún trigrama vale 0 porque empieza al menos por un espacio
+    private static final class IntConjunto {
+
+        private int[] valores = new int[64];
+        private int tamano;
+
+        void agregar(int valor) {
+            if (2 * (tamano + 1) > valores.length) {
+                int[] anteriores = valores;
+                valores = new int[anteriores.length * 2];
+                tamano = 0;
+                for (int anterior : anteriores) {
+                    if (anterior != 0) {
+                        insertar(anterior);
+                    }
+                }
+            }
+            insertar(valor);
+        }
+
+        int[] ordenados() {
+            int[] resultado = new int[tamano];
+            int i = 0;
+            for (int valor : valores) {
+                if (valor != 0) {
+                    resultado[i++] = valor;
+                }
+            }
+            Arrays.sort(resultado);
+            return resultado;
+        }
+
+        private void insertar(int valor) {
+            int mascara = valores.length - 1;
+            for (int i = mezclar(valor) & mascara; ; i = (i + 1) & mascara) {
+                if (valores[i] == valor) {
+                    return;
+                }
+                if (valores[i] == 0) {
+                    valores[i] = valor;
+                    tamano++;
+                    return;
+                }
+            }
+        }
+
+        private static int mezclar(int valor) {
+            int h = valor * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
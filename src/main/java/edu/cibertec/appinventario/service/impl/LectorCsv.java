@@ -0,0 +1,40 @@
+package edu.cibertec.appinventario.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Separa una línea CSV en campos (separador coma, comillas dobles opcionales y "" como comilla escapada)
+final class LectorCsv {
+
+    private LectorCsv() {
+    }
+
+    static List<String> campos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+}
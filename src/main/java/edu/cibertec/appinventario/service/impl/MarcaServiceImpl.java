@@ -1,5 +1,8 @@
 package edu.cibertec.appinventario.service.impl;
 
+import edu.cibertec.appinventario.config.CacheConfig;
+import edu.cibertec.appinventario.config.LecturaEnPrimaria;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
 import edu.cibertec.appinventario.dto.MarcaRequestDto;
 import edu.cibertec.appinventario.dto.MarcaResponseDto;
 import edu.cibertec.appinventario.dto.MarcaSimpleDto;
@@ -9,11 +12,18 @@ import edu.cibertec.appinventario.exception.ResourceNotFoundException;
 import edu.cibertec.appinventario.mapper.MarcaMapper;
 import edu.cibertec.appinventario.model.Marca;
 import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.service.ConteoEstimadoService;
 import edu.cibertec.appinventario.service.MarcaService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,12 +34,16 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "inventario.servicio", description = "Duración de los métodos de los servicios")
 public class MarcaServiceImpl implements MarcaService {
 
     private final MarcaRepository marcaRepository;
     private final MarcaMapper marcaMapper;
+    private final ConteoEstimadoService conteoEstimadoService;
+    private final FiltroActivos filtroActivos;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MARCAS_LISTAS, allEntries = true)
     public MarcaResponseDto create(MarcaRequestDto requestDto) {
         log.info("Creando nueva marca con nombre: {}", requestDto.nombre());
 
@@ -48,6 +62,8 @@ public class MarcaServiceImpl implements MarcaService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MARCAS, key = "#id")
+    @LecturaEnPrimaria
     public MarcaResponseDto getById(Integer id) {
         log.info("Buscando marca con ID: {}", id);
 
@@ -57,7 +73,13 @@ public class MarcaServiceImpl implements MarcaService {
         return marcaMapper.toDto(marca);
     }
 
+    // Los productos cacheados incluyen el nombre de su marca
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MARCAS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MARCAS_LISTAS, allEntries = true),
+            @CacheEvict(cacheNames = {CacheConfig.PRODUCTOS, CacheConfig.PRODUCTOS_POR_CODIGO}, allEntries = true)
+    })
     public MarcaResponseDto update(Integer id, MarcaRequestDto requestDto) {
         log.info("Actualizando marca con ID: {}", id);
 
@@ -80,6 +102,10 @@ public class MarcaServiceImpl implements MarcaService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MARCAS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MARCAS_LISTAS, allEntries = true)
+    })
     public void delete(Integer id) {
         log.info("Eliminando marca con ID: {}", id);
 
@@ -96,8 +122,13 @@ public class MarcaServiceImpl implements MarcaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<MarcaResponseDto> getAll() {
-        log.info("Obteniendo todas las marcas");
+    @Cacheable(cacheNames = CacheConfig.MARCAS_LISTAS, key = CacheConfig.CLAVE_TODAS,
+            condition = "!#incluirInactivos")
+    @LecturaEnPrimaria
+    public List<MarcaResponseDto> getAll(boolean incluirInactivos) {
+        log.info("Obteniendo todas las marcas, incluir inactivas {}", incluirInactivos);
+
+        filtroActivos.aplicar(incluirInactivos);
 
         List<Marca> marcas = marcaRepository.findAll(Sort.by("nombre"));
         return marcaMapper.toDtoList(marcas);
@@ -105,25 +136,73 @@ public class MarcaServiceImpl implements MarcaService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponseDto<MarcaResponseDto> getPaginated(int page, int size) {
-        log.info("Obteniendo marcas paginadas: página {}, tamaño {}", page, size);
+    public PageResponseDto<MarcaResponseDto> getPaginated(int page, int size, boolean withTotal,
+                                                          boolean incluirInactivos) {
+        log.info("Obteniendo marcas paginadas: página {}, tamaño {}, con total {}", page, size, withTotal);
 
-        Page<Marca> marcasPage = marcaRepository.findAll(
-                PageRequest.of(page, size, Sort.by("nombre")));
+        filtroActivos.aplicar(incluirInactivos);
 
-        List<MarcaResponseDto> content = marcaMapper.toDtoList(marcasPage.getContent());
+        Pageable pageable = PageRequest.of(page, size, Sort.by("nombre"));
+
+        if (withTotal) {
+            Page<Marca> marcasPage = marcaRepository.findAll(pageable);
+
+            List<MarcaResponseDto> content = marcaMapper.toDtoList(marcasPage.getContent());
+
+            return new PageResponseDto<>(
+                    content,
+                    marcasPage.getNumber(),
+                    marcasPage.getSize(),
+                    marcasPage.getTotalElements(),
+                    marcasPage.getTotalPages(),
+                    marcasPage.hasNext(),
+                    false
+            );
+        }
+
+        // Sin COUNT(*): se usa un Slice y el total estimado cacheado
+        Slice<Marca> marcasSlice = marcaRepository.findSlice(pageable);
+        long totalEstimado = conteoEstimadoService.estimarMarcas(incluirInactivos);
+
+        List<MarcaResponseDto> content = marcaMapper.toDtoList(marcasSlice.getContent());
 
         return new PageResponseDto<>(
                 content,
-                marcasPage.getNumber(),
-                marcasPage.getSize(),
-                marcasPage.getTotalElements(),
-                marcasPage.getTotalPages()
+                marcasSlice.getNumber(),
+                marcasSlice.getSize(),
+                totalEstimado,
+                (int) Math.ceil((double) totalEstimado / size),
+                marcasSlice.hasNext(),
+                true
         );
     }
 
     @Override
     @Transactional(readOnly = true)
+    public CursorPageResponseDto<MarcaResponseDto> getByCursor(String cursor, int size, boolean withTotal,
+                                                               boolean incluirInactivos) {
+        log.info("Obteniendo marcas por cursor: tamaño {}, con total {}", size, withTotal);
+
+        filtroActivos.aplicar(incluirInactivos);
+
+        Pageable limite = PaginacionCursor.limite(size);
+        PaginacionCursor.Posicion posicion = PaginacionCursor.decodificar(cursor);
+
+        List<Marca> marcas = posicion == null
+                ? marcaRepository.findPrimeros(limite)
+                : marcaRepository.findSiguientes(posicion.nombre(), posicion.id(), limite);
+
+        // El conteo total solo se ejecuta si se solicita explícitamente
+        Long totalElements = withTotal ? marcaRepository.count() : null;
+
+        return PaginacionCursor.pagina(marcas, size, Marca::getNombre, Marca::getId,
+                marcaMapper::toDtoList, totalElements);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MARCAS_LISTAS, key = CacheConfig.CLAVE_SIMPLES)
+    @LecturaEnPrimaria
     public List<MarcaSimpleDto> getAllSimple() {
         log.info("Obteniendo lista simple de todas las marcas");
 
@@ -133,11 +212,26 @@ public class MarcaServiceImpl implements MarcaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<MarcaResponseDto> findByNombre(String nombre) {
-        log.info("Buscando marcas por nombre: {}", nombre);
+    public PageResponseDto<MarcaResponseDto> findByNombre(String nombre, int page, int size,
+                                                          boolean incluirInactivos) {
+        log.info("Buscando marcas por nombre: {}, página {}, tamaño {}", nombre, page, size);
 
-        List<Marca> marcas = marcaRepository.findByNombreContainingIgnoreCase(nombre);
-        return marcaMapper.toDtoList(marcas);
+        // Resultados ordenados por relevancia (ver MarcaRepository.buscarPorNombre)
+        String texto = BusquedaTexto.normalizar(nombre);
+        Page<Marca> marcasPage = marcaRepository.buscarPorNombre(texto, BusquedaTexto.patron(texto),
+                incluirInactivos, PageRequest.of(page, size));
+
+        List<MarcaResponseDto> content = marcaMapper.toDtoList(marcasPage.getContent());
+
+        return new PageResponseDto<>(
+                content,
+                marcasPage.getNumber(),
+                marcasPage.getSize(),
+                marcasPage.getTotalElements(),
+                marcasPage.getTotalPages(),
+                marcasPage.hasNext(),
+                false
+        );
     }
 
     @Override
@@ -155,4 +249,13 @@ public class MarcaServiceImpl implements MarcaService {
         log.info("Verificando si existe marca con nombre: {}", nombre);
         return marcaRepository.existsByNombre(nombre);
     }
+
+    // Solo se cachean los resultados positivos: un ID inexistente puede crearse después
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MARCAS_EXISTENTES, key = "#id", unless = "!#result")
+    @LecturaEnPrimaria
+    public boolean existsById(Integer id) {
+        return marcaRepository.existsById(id);
+    }
 }
@@ -0,0 +1,266 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.exception.ResourceNotFoundException;
+import edu.cibertec.appinventario.mapper.MovimientoStockMapper;
+import edu.cibertec.appinventario.model.MovimientoStock;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.MovimientoStockRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.ReservaStockRepository;
+import edu.cibertec.appinventario.service.MovimientoStockService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Service
+@Slf4j
+@Timed(value = "inventario.servicio", description = "Duración de los métodos de los servicios")
+public class MovimientoStockServiceImpl implements MovimientoStockService {
+
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final ProductoRepository productoRepository;
+    private final ReservaStockRepository reservaStockRepository;
+    private final MovimientoStockMapper movimientoStockMapper;
+    private final StockAltaContencion altaContencion;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public MovimientoStockServiceImpl(MovimientoStockRepository movimientoStockRepository,
+                                      ProductoRepository productoRepository,
+                                      ReservaStockRepository reservaStockRepository,
+                                      MovimientoStockMapper movimientoStockMapper,
+                                      StockAltaContencion altaContencion,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.stock.compactacion.tamano-lote:5000}") int tamanoLote) {
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.productoRepository = productoRepository;
+        this.reservaStockRepository = reservaStockRepository;
+        this.movimientoStockMapper = movimientoStockMapper;
+        this.altaContencion = altaContencion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    @Transactional
+    public int registrar(Integer productoId, int cantidad, TipoMovimientoStock tipo) {
+        if (altaContencion.gestiona(productoId)) {
+            return altaContencion.registrar(productoId, cantidad);
+        }
+
+        // Las salidas se validan contra el stock vigente con la fila del producto bloqueada, para que dos
+        // salidas concurrentes no vendan la misma unidad; las entradas no pueden dejarlo negativo y solo insertan
+        if (cantidad < 0 && productoRepository.bloquearParaStock(productoId).isEmpty()) {
+            throw new ResourceNotFoundException("Producto", "id", productoId);
+        }
+
+        long stock = stockVigenteExistente(productoId);
+        if (cantidad < 0) {
+            // Las unidades retenidas por reservas activas no están disponibles para otras salidas
+            resultante(stock - reservaStockRepository.reservado(productoId, LocalDateTime.now()), cantidad);
+        }
+        int resultante = resultante(stock, cantidad);
+        if (cantidad != 0) {
+            movimientoStockRepository.save(
+                    new MovimientoStock(productoRepository.getReferenceById(productoId), cantidad, tipo));
+        }
+        return resultante;
+    }
+
+    @Override
+    @Transactional
+    public int fijar(Integer productoId, int stock, TipoMovimientoStock tipo) {
+        if (altaContencion.gestiona(productoId)) {
+            return altaContencion.fijar(productoId, stock);
+        }
+
+        if (productoRepository.bloquearParaStock(productoId).isEmpty()) {
+            throw new ResourceNotFoundException("Producto", "id", productoId);
+        }
+
+        long diferencia = stock - stockVigenteExistente(productoId);
+        if (diferencia != 0) {
+            movimientoStockRepository.save(new MovimientoStock(productoRepository.getReferenceById(productoId),
+                    Math.toIntExact(diferencia), tipo));
+        }
+        return stock;
+    }
+
+    @Override
+    @Transactional
+    public boolean[] registrarEnLote(List<Integer> productoIds, List<Integer> cantidades, TipoMovimientoStock tipo) {
+        boolean[] aplicados = new boolean[productoIds.size()];
+
+        // Las líneas de productos de alta contención van a su contador; el resto, al libro de movimientos. En el
+        // contador las entradas se aplican al confirmarse la transacción, así que una salida de esos productos no
+        // puede apoyarse en una entrada anterior del mismo lote
+        List<Integer> lineas = new ArrayList<>();
+        for (int i = 0; i < productoIds.size(); i++) {
+            if (altaContencion.gestiona(productoIds.get(i))) {
+                aplicados[i] = registrarAltaContencion(productoIds.get(i), cantidades.get(i));
+            } else {
+                lineas.add(i);
+            }
+        }
+
+        // Bloquear de una vez, en orden de ID, los productos con alguna salida en el lote
+        Set<Integer> conSalidas = new TreeSet<>();
+        Set<Integer> ids = new HashSet<>();
+        for (int linea : lineas) {
+            ids.add(productoIds.get(linea));
+            if (cantidades.get(linea) < 0) {
+                conSalidas.add(productoIds.get(linea));
+            }
+        }
+        if (!conSalidas.isEmpty()) {
+            productoRepository.bloquearParaStock(conSalidas);
+        }
+
+        Map<Integer, Long> disponible = new HashMap<>();
+        if (!ids.isEmpty()) {
+            movimientoStockRepository.stockVigente(ids).forEach(s -> disponible.put(s.getId(), s.getStock()));
+        }
+        // Lo retenido por reservas activas no está disponible para las salidas
+        Map<Integer, Long> reservado = new HashMap<>();
+        if (!conSalidas.isEmpty()) {
+            reservaStockRepository.reservado(conSalidas, LocalDateTime.now())
+                    .forEach(r -> reservado.put(r.getProductoId(), r.getCantidad()));
+        }
+
+        // Las líneas se validan en orden: una salida puede apoyarse en una entrada anterior del mismo lote
+        List<MovimientoStock> movimientos = new ArrayList<>();
+        for (int linea : lineas) {
+            Integer productoId = productoIds.get(linea);
+            int cantidad = cantidades.get(linea);
+            Long stock = disponible.get(productoId);
+            long resultante = stock == null ? -1 : stock + cantidad;
+            boolean cubierta = cantidad >= 0 || resultante - reservado.getOrDefault(productoId, 0L) >= 0;
+            if (cubierta && resultante >= 0 && resultante <= Integer.MAX_VALUE) {
+                disponible.put(productoId, resultante);
+                aplicados[linea] = true;
+                if (cantidad != 0) {
+                    movimientos.add(new MovimientoStock(productoRepository.getReferenceById(productoId),
+                            cantidad, tipo));
+                }
+            }
+        }
+        movimientoStockRepository.saveAll(movimientos);
+        return aplicados;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int stockVigente(Integer productoId) {
+        if (altaContencion.gestiona(productoId)) {
+            return altaContencion.stockVigente(productoId);
+        }
+        return Math.toIntExact(stockVigenteExistente(productoId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<MovimientoStockDto> getHistorial(Integer productoId, String cursor, int size) {
+        log.info("Obteniendo movimientos de stock del producto ID: {}, tamaño {}", productoId, size);
+
+        if (!productoRepository.existsById(productoId)) {
+            throw new ResourceNotFoundException("Producto", "id", productoId);
+        }
+
+        PaginacionCursor.Instante posicion = PaginacionCursor.decodificarInstante(cursor);
+        Pageable limite = PaginacionCursor.limite(size);
+        List<MovimientoStock> movimientos = posicion == null
+                ? movimientoStockRepository.findRecientes(productoId, limite)
+                : movimientoStockRepository.findAnteriores(productoId, posicion.fecha(), posicion.id(), limite);
+
+        return PaginacionCursor.paginaPorFecha(movimientos, size, MovimientoStock::getFecha, MovimientoStock::getId,
+                movimientoStockMapper::toDtoList);
+    }
+
+    // Cada lote se aplica en su propia transacción: los movimientos se marcan y su suma pasa a productos.stock
+    // juntos, así que el stock vigente no cambia en ningún momento para quien lo consulte
+    @Override
+    @Scheduled(fixedDelayString = "${app.stock.compactacion.intervalo:PT2S}")
+    public int compactar() {
+        long inicio = System.nanoTime();
+        int aplicados = 0;
+        int procesados;
+        do {
+            procesados = transactionTemplate.execute(status -> compactarLote());
+            aplicados += procesados;
+        } while (procesados == tamanoLote);
+
+        if (aplicados > 0) {
+            log.info("Compactación de stock: {} movimientos aplicados en {} ms",
+                    aplicados, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return aplicados;
+    }
+
+    private int compactarLote() {
+        List<MovimientoStock> pendientes = movimientoStockRepository.findPendientes(PageRequest.ofSize(tamanoLote));
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        // Suma por producto; los UPDATE van en orden de ID, como los bloqueos de las salidas en lote
+        Map<Integer, Long> cantidades = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(pendientes.size());
+        for (MovimientoStock movimiento : pendientes) {
+            cantidades.merge(movimiento.getProducto().getId(), movimiento.getCantidad().longValue(), Long::sum);
+            ids.add(movimiento.getId());
+        }
+        cantidades.values().removeIf(cantidad -> cantidad == 0);
+
+        movimientoStockRepository.marcarAplicados(ids);
+        productoRepository.sumarStockEnLote(cantidades);
+        return pendientes.size();
+    }
+
+    private boolean registrarAltaContencion(Integer productoId, int cantidad) {
+        try {
+            altaContencion.registrar(productoId, cantidad);
+            return true;
+        } catch (BadRequestException e) {
+            return false;
+        }
+    }
+
+    private long stockVigenteExistente(Integer productoId) {
+        Long stock = movimientoStockRepository.stockVigente(productoId);
+        if (stock == null) {
+            throw new ResourceNotFoundException("Producto", "id", productoId);
+        }
+        return stock;
+    }
+
+    private static int resultante(long stock, int cantidad) {
+        long resultante = stock + cantidad;
+        if (resultante < 0) {
+            throw new BadRequestException("No hay suficiente stock disponible");
+        }
+        if (resultante > Integer.MAX_VALUE) {
+            throw new BadRequestException("El stock resultante excede el máximo permitido");
+        }
+        return (int) resultante;
+    }
+}
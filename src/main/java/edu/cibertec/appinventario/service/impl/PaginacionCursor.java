@@ -0,0 +1,111 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Utilidades de paginación por clave (nombre, id) o (fecha, id) compartidas por los servicios.
+// El cursor es opaco para el cliente: codifica en Base64 la última clave devuelta.
+final class PaginacionCursor {
+
+    // Última posición leída a partir de la cual continúa la siguiente página
+    record Posicion(String nombre, Integer id) {}
+
+    // Posición en los listados ordenados del más reciente al más antiguo
+    record Instante(LocalDateTime fecha, Long id) {}
+
+    // Tope del tamaño de página: evita páginas desmedidas y el desbordamiento de size + 1
+    static final int TAMANO_MAXIMO = 1000;
+
+    private PaginacionCursor() {
+    }
+
+    static Posicion decodificar(String cursor) {
+        String[] clave = clave(cursor);
+        if (clave == null) {
+            return null;
+        }
+        try {
+            return new Posicion(clave[1], Integer.valueOf(clave[0]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("El cursor de paginación no es válido");
+        }
+    }
+
+    static Instante decodificarInstante(String cursor) {
+        String[] clave = clave(cursor);
+        if (clave == null) {
+            return null;
+        }
+        try {
+            return new Instante(LocalDateTime.parse(clave[1]), Long.valueOf(clave[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("El cursor de paginación no es válido");
+        }
+    }
+
+    // Separa el cursor en {id, resto de la clave}
+    private static String[] clave(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(':');
+            return new String[]{valor.substring(0, separador), valor.substring(separador + 1)};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("El cursor de paginación no es válido");
+        }
+    }
+
+    static String codificar(String nombre, Number id) {
+        String valor = id + ":" + nombre;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Se pide una fila más que el tamaño de página para saber si hay siguiente sin hacer COUNT
+    static Pageable limite(int size) {
+        if (size < 1) {
+            throw new BadRequestException("El tamaño de página debe ser mayor que cero");
+        }
+        if (size > TAMANO_MAXIMO) {
+            throw new BadRequestException("El tamaño de página no puede ser mayor que " + TAMANO_MAXIMO);
+        }
+        return PageRequest.ofSize(size + 1);
+    }
+
+    static <E, D> CursorPageResponseDto<D> pagina(
+            List<E> filas, int size,
+            Function<E, String> nombre, Function<E, Integer> id,
+            Function<List<E>, List<D>> mapper, Long totalElements) {
+
+        return pagina(filas, size, e -> codificar(nombre.apply(e), id.apply(e)), mapper, totalElements);
+    }
+
+    static <E, D> CursorPageResponseDto<D> paginaPorFecha(
+            List<E> filas, int size,
+            Function<E, LocalDateTime> fecha, Function<E, Long> id,
+            Function<List<E>, List<D>> mapper) {
+
+        return pagina(filas, size, e -> codificar(fecha.apply(e).toString(), id.apply(e)), mapper, null);
+    }
+
+    private static <E, D> CursorPageResponseDto<D> pagina(
+            List<E> filas, int size, Function<E, String> cursor,
+            Function<List<E>, List<D>> mapper, Long totalElements) {
+
+        boolean hasNext = filas.size() > size;
+        List<E> content = hasNext ? filas.subList(0, size) : filas;
+
+        String nextCursor = hasNext ? cursor.apply(content.get(content.size() - 1)) : null;
+        return new CursorPageResponseDto<>(mapper.apply(content), size, nextCursor, hasNext, totalElements);
+    }
+}
@@ -0,0 +1,28 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.config.CacheConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+// Invalidación de las cachés de productos: cada producto está cacheado por ID y por código,
+// y ambas entradas deben eliminarse juntas. Las eliminaciones se aplican al confirmar la transacción
+@Component
+@Slf4j
+class ProductoCache {
+
+    private final Cache porId;
+    private final Cache porCodigo;
+
+    ProductoCache(CacheManager cacheManager) {
+        this.porId = cacheManager.getCache(CacheConfig.PRODUCTOS);
+        this.porCodigo = cacheManager.getCache(CacheConfig.PRODUCTOS_POR_CODIGO);
+    }
+
+    void evict(Integer id, String codigo) {
+        log.debug("Invalidando caché del producto ID: {}, código: {}", id, codigo);
+        porId.evict(id);
+        porCodigo.evict(codigo);
+    }
+}
@@ -0,0 +1,244 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.ErrorImportacionDto;
+import edu.cibertec.appinventario.dto.ImportacionResultadoDto;
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.mapper.ProductoMapper;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.BusquedaProductoService;
+import edu.cibertec.appinventario.service.ProductoImportacionService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ProductoImportacionServiceImpl implements ProductoImportacionService {
+
+    // Filas persistidas entre cada flush/clear (múltiplo de hibernate.jdbc.batch_size)
+    private static final int TAMANO_LOTE = 1000;
+
+    // Códigos por consulta IN al validar contra la base de datos
+    private static final int TAMANO_CONSULTA = 1000;
+
+    // Máximo de errores detallados en la respuesta
+    private static final int MAX_ERRORES = 1000;
+
+    private static final List<String> COLUMNAS =
+            List.of("codigo", "nombre", "descripcion", "precio", "stock", "categoriaid", "marcaid");
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final MarcaRepository marcaRepository;
+    private final ProductoMapper productoMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final BusquedaProductoService busquedaProductoService;
+
+    // Producto a importar junto con su número de línea: su posición entre los productos recibidos, desde 1
+    // (en el CSV no cuentan la cabecera ni las líneas en blanco)
+    private record Fila(int linea, ProductoRequestDto producto) {}
+
+    @Override
+    public ImportacionResultadoDto importar(List<ProductoRequestDto> productos) {
+        log.info("Importando lote de {} productos", productos.size());
+
+        List<Fila> filas = new ArrayList<>(productos.size());
+        for (int i = 0; i < productos.size(); i++) {
+            filas.add(new Fila(i + 1, productos.get(i)));
+        }
+        return procesar(filas, new ArrayList<>(), productos.size(), System.nanoTime());
+    }
+
+    @Override
+    public ImportacionResultadoDto importarCsv(InputStream csv) {
+        log.info("Importando productos desde CSV");
+        long inicio = System.nanoTime();
+
+        List<Fila> filas = new ArrayList<>();
+        List<ErrorImportacionDto> errores = new ArrayList<>();
+        int recibidos = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columnas = leerCabecera(reader.readLine());
+
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                recibidos++;
+
+                List<String> campos = LectorCsv.campos(linea);
+                try {
+                    filas.add(new Fila(recibidos, aProducto(campos, columnas)));
+                } catch (NumberFormatException e) {
+                    rechazar(errores, recibidos, valor(campos, columnas, "codigo"),
+                            "Valor numérico no válido en precio, stock, categoriaId o marcaId");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return procesar(filas, errores, recibidos, inicio);
+    }
+
+    // Métodos privados de utilidad
+
+    private ImportacionResultadoDto procesar(List<Fila> filas, List<ErrorImportacionDto> errores,
+                                             int recibidos, long inicio) {
+
+        // Validar los campos de cada fila y los códigos repetidos dentro de la importación
+        List<Fila> validas = new ArrayList<>(filas.size());
+        Set<String> codigos = new HashSet<>();
+        Set<Integer> categoriaIds = new HashSet<>();
+        Set<Integer> marcaIds = new HashSet<>();
+
+        for (Fila fila : filas) {
+            ProductoRequestDto producto = fila.producto();
+            Set<ConstraintViolation<ProductoRequestDto>> violaciones = validator.validate(producto);
+            if (!violaciones.isEmpty()) {
+                rechazar(errores, fila.linea(), producto.codigo(), violaciones.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            } else if (!codigos.add(producto.codigo())) {
+                rechazar(errores, fila.linea(), producto.codigo(), "Código repetido en la importación");
+            } else {
+                validas.add(fila);
+                categoriaIds.add(producto.categoriaId());
+                marcaIds.add(producto.marcaId());
+            }
+        }
+
+        // Validar códigos y claves foráneas contra la base de datos con pocas consultas
+        Set<String> codigosExistentes = buscarCodigosExistentes(codigos);
+        Set<Integer> categoriasExistentes = categoriaIds.isEmpty()
+                ? Set.of() : new HashSet<>(categoriaRepository.findIdsExistentes(categoriaIds));
+        Set<Integer> marcasExistentes = marcaIds.isEmpty()
+                ? Set.of() : new HashSet<>(marcaRepository.findIdsExistentes(marcaIds));
+
+        // Insertar por lotes: los IDs salen de la secuencia por bloques y Hibernate agrupa los INSERT
+        int insertados = 0;
+        for (Fila fila : validas) {
+            ProductoRequestDto producto = fila.producto();
+            if (codigosExistentes.contains(producto.codigo())) {
+                rechazar(errores, fila.linea(), producto.codigo(),
+                        "Ya existe un producto con el código: " + producto.codigo());
+            } else if (!categoriasExistentes.contains(producto.categoriaId())) {
+                rechazar(errores, fila.linea(), producto.codigo(),
+                        "Categoria no encontrada con id: '" + producto.categoriaId() + "'");
+            } else if (!marcasExistentes.contains(producto.marcaId())) {
+                rechazar(errores, fila.linea(), producto.codigo(),
+                        "Marca no encontrada con id: '" + producto.marcaId() + "'");
+            } else {
+                Producto entidad = productoMapper.toEntity(producto);
+                entityManager.persist(entidad);
+                busquedaProductoService.indexar(entidad);
+                if (++insertados % TAMANO_LOTE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        double filasPorSegundo = duracionMs == 0 ? insertados : insertados * 1000.0 / duracionMs;
+
+        log.info("Importación finalizada: {} insertados, {} rechazados, {} ms ({} filas/s)",
+                insertados, recibidos - insertados, duracionMs, Math.round(filasPorSegundo));
+
+        return new ImportacionResultadoDto(recibidos, insertados, recibidos - insertados,
+                errores, duracionMs, filasPorSegundo);
+    }
+
+    private Set<String> buscarCodigosExistentes(Set<String> codigos) {
+        Set<String> existentes = new HashSet<>();
+        List<String> pendientes = new ArrayList<>(codigos);
+        for (int i = 0; i < pendientes.size(); i += TAMANO_CONSULTA) {
+            List<String> bloque = pendientes.subList(i, Math.min(i + TAMANO_CONSULTA, pendientes.size()));
+            productoRepository.findByCodigoIn(bloque).forEach(p -> existentes.add(p.getCodigo()));
+        }
+        return existentes;
+    }
+
+    private Map<String, Integer> leerCabecera(String cabecera) {
+        if (cabecera == null) {
+            throw new BadRequestException("El archivo CSV está vacío");
+        }
+
+        Map<String, Integer> columnas = new HashMap<>();
+        // Se descarta la marca BOM que añaden algunas hojas de cálculo al exportar en UTF-8
+        List<String> nombres = LectorCsv.campos(cabecera.replace("\uFEFF", ""));
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).toLowerCase(), i);
+        }
+
+        List<String> faltantes = COLUMNAS.stream()
+                .filter(c -> !c.equals("descripcion") && !columnas.containsKey(c))
+                .toList();
+        if (!faltantes.isEmpty()) {
+            throw new BadRequestException("Faltan columnas en la cabecera del CSV: " + faltantes);
+        }
+        return columnas;
+    }
+
+    private ProductoRequestDto aProducto(List<String> campos, Map<String, Integer> columnas) {
+        String precio = valor(campos, columnas, "precio");
+        String stock = valor(campos, columnas, "stock");
+        String categoriaId = valor(campos, columnas, "categoriaid");
+        String marcaId = valor(campos, columnas, "marcaid");
+
+        return new ProductoRequestDto(
+                valor(campos, columnas, "codigo"),
+                valor(campos, columnas, "nombre"),
+                valor(campos, columnas, "descripcion"),
+                precio == null ? null : new BigDecimal(precio),
+                stock == null ? null : Integer.valueOf(stock),
+                categoriaId == null ? null : Integer.valueOf(categoriaId),
+                marcaId == null ? null : Integer.valueOf(marcaId)
+        );
+    }
+
+    private String valor(List<String> campos, Map<String, Integer> columnas, String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= campos.size() || campos.get(indice).isEmpty()) {
+            return null;
+        }
+        return campos.get(indice);
+    }
+
+    private void rechazar(List<ErrorImportacionDto> errores, int linea, String codigo, String mensaje) {
+        if (errores.size() < MAX_ERRORES) {
+            errores.add(new ErrorImportacionDto(linea, codigo, mensaje));
+        }
+    }
+}
@@ -1,37 +1,81 @@
 package edu.cibertec.appinventario.service.impl;
 
+import edu.cibertec.appinventario.config.CacheConfig;
+import edu.cibertec.appinventario.config.LecturaEnPrimaria;
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.FacetaDto;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.dto.FiltroProductosResponseDto;
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.LoteStockResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockRequestDto;
+import edu.cibertec.appinventario.dto.MovimientoStockResultadoDto;
 import edu.cibertec.appinventario.dto.PageResponseDto;
 import edu.cibertec.appinventario.dto.ProductoRequestDto;
 import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
 import edu.cibertec.appinventario.exception.BadRequestException;
 import edu.cibertec.appinventario.exception.ResourceNotFoundException;
 import edu.cibertec.appinventario.mapper.ProductoMapper;
 import edu.cibertec.appinventario.model.Producto;
-import edu.cibertec.appinventario.repository.CategoriaRepository;
-import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
 import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.ProductoRepositoryCustom;
+import edu.cibertec.appinventario.repository.ProductoSpecifications;
+import edu.cibertec.appinventario.service.BusquedaProductoService;
+import edu.cibertec.appinventario.service.CategoriaService;
+import edu.cibertec.appinventario.service.ConteoEstimadoService;
+import edu.cibertec.appinventario.service.MarcaService;
+import edu.cibertec.appinventario.service.MovimientoStockService;
 import edu.cibertec.appinventario.service.ProductoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "inventario.servicio", description = "Duración de los métodos de los servicios")
 public class ProductoServiceImpl implements ProductoService {
 
+    // Orden de los listados acotados y de sus variantes en streaming
+    private static final Sort ORDEN_LISTADO = Sort.by("nombre", "id");
+
     private final ProductoRepository productoRepository;
-    private final CategoriaRepository categoriaRepository;
-    private final MarcaRepository marcaRepository;
+    private final CategoriaService categoriaService;
+    private final MarcaService marcaService;
     private final ProductoMapper productoMapper;
+    private final ConteoEstimadoService conteoEstimadoService;
+    private final ProductoCache productoCache;
+    private final BusquedaProductoService busquedaProductoService;
+    private final EntityManager entityManager;
+    private final FiltroActivos filtroActivos;
+    private final MovimientoStockService movimientoStockService;
 
     @Override
     public ProductoResponseDto create(ProductoRequestDto requestDto) {
@@ -49,6 +93,7 @@ public class ProductoServiceImpl implements ProductoService {
         // Convertir DTO a entidad, guardar y convertir resultado a DTO de respuesta
         Producto producto = productoMapper.toEntity(requestDto);
         Producto savedProducto = productoRepository.save(producto);
+        busquedaProductoService.indexar(savedProducto);
 
         log.info("Producto creado exitosamente con ID: {}", savedProducto.getId());
         return productoMapper.toDto(savedProducto);
@@ -56,13 +101,15 @@ public class ProductoServiceImpl implements ProductoService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS, key = "#id")
+    @LecturaEnPrimaria
     public ProductoResponseDto getById(Integer id) {
         log.info("Buscando producto con ID: {}", id);
 
-        Producto producto = productoRepository.findById(id)
+        Producto producto = productoRepository.findConDetalleById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", "id", id));
 
-        return productoMapper.toDto(producto);
+        return productoMapper.toDto(producto, movimientoStockService.stockVigente(id));
     }
 
     @Override
@@ -83,12 +130,19 @@ public class ProductoServiceImpl implements ProductoService {
         verificarCategoriaExiste(requestDto.categoriaId());
         verificarMarcaExiste(requestDto.marcaId());
 
+        // Invalidar con el código anterior, ya que la actualización puede cambiarlo
+        productoCache.evict(id, producto.getCodigo());
+
         // Actualizar la entidad y guardar
         productoMapper.updateEntityFromDto(requestDto, producto);
         Producto updatedProducto = productoRepository.save(producto);
+        busquedaProductoService.indexar(updatedProducto);
+
+        // El stock no se sobrescribe: la diferencia con el vigente queda en el libro de movimientos
+        int stock = movimientoStockService.fijar(id, requestDto.stock(), TipoMovimientoStock.AJUSTE);
 
         log.info("Producto actualizado exitosamente: {}", updatedProducto.getId());
-        return productoMapper.toDto(updatedProducto);
+        return productoMapper.toDto(updatedProducto, stock);
     }
 
     @Override
@@ -101,105 +155,295 @@ public class ProductoServiceImpl implements ProductoService {
 
         // Desactivar el producto en lugar de eliminarlo físicamente
         producto.setActivo(false);
+        producto.setFechaDesactivacion(LocalDateTime.now());
         productoRepository.save(producto);
+        productoCache.evict(id, producto.getCodigo());
+        busquedaProductoService.eliminar(id);
 
         log.info("Producto desactivado exitosamente: {}", id);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> getAll() {
-        log.info("Obteniendo todos los productos");
+    public List<ProductoResponseDto> getAll(boolean incluirInactivos, int limite) {
+        log.info("Obteniendo todos los productos, incluir inactivos {}, límite {}", incluirInactivos, limite);
 
-        List<Producto> productos = productoRepository.findAll(Sort.by("nombre"));
+        filtroActivos.aplicar(incluirInactivos);
+
+        List<Producto> productos = productoRepository.findPrimerosConDetalle(PageRequest.ofSize(limite));
         return productoMapper.toDtoList(productos);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponseDto<ProductoResponseDto> getPaginated(int page, int size) {
-        log.info("Obteniendo productos paginados: página {}, tamaño {}", page, size);
+    public void exportarTodos(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor) {
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("todos", productoRepository.streamAllConDetalleOrdenados(), consumidor);
+    }
 
-        Page<Producto> productosPage = productoRepository.findAll(
-                PageRequest.of(page, size, Sort.by("nombre")));
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponseDto<ProductoResponseDto> getPaginated(int page, int size, boolean withTotal,
+                                                             boolean incluirInactivos) {
+        log.info("Obteniendo productos paginados: página {}, tamaño {}, con total {}", page, size, withTotal);
+
+        filtroActivos.aplicar(incluirInactivos);
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("nombre"));
 
-        List<ProductoResponseDto> content = productoMapper.toDtoList(productosPage.getContent());
+        if (withTotal) {
+            Page<Producto> productosPage = productoRepository.findAllConDetalle(pageable);
+
+            List<ProductoResponseDto> content = productoMapper.toDtoList(productosPage.getContent());
+
+            return new PageResponseDto<>(
+                    content,
+                    productosPage.getNumber(),
+                    productosPage.getSize(),
+                    productosPage.getTotalElements(),
+                    productosPage.getTotalPages(),
+                    productosPage.hasNext(),
+                    false
+            );
+        }
+
+        // Sin COUNT(*): se usa un Slice y el total estimado cacheado
+        Slice<Producto> productosSlice = productoRepository.findSliceConDetalle(pageable);
+        long totalEstimado = conteoEstimadoService.estimarProductos(incluirInactivos);
+
+        List<ProductoResponseDto> content = productoMapper.toDtoList(productosSlice.getContent());
 
         return new PageResponseDto<>(
                 content,
-                productosPage.getNumber(),
-                productosPage.getSize(),
-                productosPage.getTotalElements(),
-                productosPage.getTotalPages()
+                productosSlice.getNumber(),
+                productosSlice.getSize(),
+                totalEstimado,
+                (int) Math.ceil((double) totalEstimado / size),
+                productosSlice.hasNext(),
+                true
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<ProductoResponseDto> getByCursor(String cursor, int size, boolean withTotal,
+                                                                  boolean incluirInactivos) {
+        log.info("Obteniendo productos por cursor: tamaño {}, con total {}", size, withTotal);
+
+        filtroActivos.aplicar(incluirInactivos);
+
+        Pageable limite = PaginacionCursor.limite(size);
+        PaginacionCursor.Posicion posicion = PaginacionCursor.decodificar(cursor);
+
+        List<Producto> productos = posicion == null
+                ? productoRepository.findPrimerosConDetalle(limite)
+                : productoRepository.findSiguientesConDetalle(posicion.nombre(), posicion.id(), limite);
+
+        // El conteo total solo se ejecuta si se solicita explícitamente
+        Long totalElements = withTotal ? productoRepository.count() : null;
+
+        return PaginacionCursor.pagina(productos, size, Producto::getNombre, Producto::getId,
+                productoMapper::toDtoList, totalElements);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<ProductoSimpleDto> getResumenByCursor(String cursor, int size,
+                                                                       boolean incluirInactivos) {
+        log.info("Obteniendo resumen de productos por cursor: tamaño {}", size);
+
+        filtroActivos.aplicar(incluirInactivos);
+
+        Pageable limite = PaginacionCursor.limite(size);
+        PaginacionCursor.Posicion posicion = PaginacionCursor.decodificar(cursor);
+
+        List<ProductoSimpleDto> productos = posicion == null
+                ? productoRepository.findPrimerosResumen(limite)
+                : productoRepository.findSiguientesResumen(posicion.nombre(), posicion.id(), limite);
+
+        return PaginacionCursor.pagina(productos, size, ProductoSimpleDto::nombre, ProductoSimpleDto::id,
+                Function.identity(), null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FiltroProductosResponseDto filtrar(FiltroProductoDto filtro, String cursor, int size, boolean facetas) {
+        log.info("Filtrando productos: {}, tamaño {}, con facetas {}", filtro, size, facetas);
+
+        if (filtro.precioMin() != null && filtro.precioMax() != null
+                && filtro.precioMin().compareTo(filtro.precioMax()) > 0) {
+            throw new BadRequestException("El rango de precios no es válido");
+        }
+        int limite = PaginacionCursor.limite(size).getPageSize();
+        PaginacionCursor.Posicion posicion = PaginacionCursor.decodificar(cursor);
+
+        // Sin criterio de estado explícito se devuelven solo los productos activos
+        filtroActivos.aplicar(filtro.activo() != null);
+
+        // Criterios comunes; categoría y marca se añaden aparte porque cada faceta
+        // se cuenta sin su propio criterio para mostrar las alternativas disponibles
+        Specification<Producto> comunes = criteriosComunes(filtro);
+        Specification<Producto> porCategoria = filtro.categoriaId() == null
+                ? null : ProductoSpecifications.deCategoria(filtro.categoriaId());
+        Specification<Producto> porMarca = filtro.marcaId() == null
+                ? null : ProductoSpecifications.deMarca(filtro.marcaId());
+        Specification<Producto> completo = Specification.allOf(comunes, porCategoria, porMarca);
+
+        Specification<Producto> pagina = posicion == null
+                ? completo
+                : completo.and(ProductoSpecifications.despuesDe(posicion.nombre(), posicion.id()));
+        List<Producto> productos = productoRepository.findBy(pagina, consulta -> consulta
+                .project("categoria", "marca")
+                .sortBy(ORDEN_LISTADO)
+                .limit(limite)
+                .all());
+
+        List<FacetaDto> categorias = List.of();
+        List<FacetaDto> marcas = List.of();
+        if (facetas) {
+            categorias = toFacetas(productoRepository.contarPorCategoria(Specification.allOf(comunes, porMarca)));
+            marcas = toFacetas(productoRepository.contarPorMarca(Specification.allOf(comunes, porCategoria)));
+        }
+
+        return new FiltroProductosResponseDto(
+                PaginacionCursor.pagina(productos, size, Producto::getNombre, Producto::getId,
+                        productoMapper::toDtoList, null),
+                categorias,
+                marcas
         );
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS_POR_CODIGO, key = "#codigo")
+    @LecturaEnPrimaria
     public ProductoResponseDto findByCodigo(String codigo) {
         log.info("Buscando producto con código: {}", codigo);
 
         Producto producto = productoRepository.findByCodigo(codigo)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", "código", codigo));
 
-        return productoMapper.toDto(producto);
+        return productoMapper.toDto(producto, movimientoStockService.stockVigente(producto.getId()));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> findByNombre(String nombre) {
-        log.info("Buscando productos por nombre: {}", nombre);
+    public PageResponseDto<ProductoResponseDto> findByNombre(String nombre, int page, int size,
+                                                             boolean incluirInactivos) {
+        log.info("Buscando productos por nombre: {}, página {}, tamaño {}", nombre, page, size);
+
+        // Consulta nativa: el filtro de Hibernate no se aplica, cada variante fija su condición de estado
+        String texto = BusquedaTexto.normalizar(nombre);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Integer> idsPage = incluirInactivos
+                ? productoRepository.buscarIdsPorNombreIncluyendoInactivos(texto, BusquedaTexto.patron(texto), pageable)
+                : productoRepository.buscarIdsPorNombre(texto, BusquedaTexto.patron(texto), pageable);
+
+        // Cargar el detalle de la página y conservar el orden de relevancia de la búsqueda
+        Map<Integer, Producto> productosPorId = new HashMap<>();
+        productoRepository.findConDetalleByIdIn(idsPage.getContent())
+                .forEach(p -> productosPorId.put(p.getId(), p));
+        List<Producto> productos = idsPage.getContent().stream()
+                .map(productosPorId::get)
+                .filter(Objects::nonNull)
+                .toList();
 
-        List<Producto> productos = productoRepository.findByNombreContainingIgnoreCase(nombre);
-        return productoMapper.toDtoList(productos);
+        return new PageResponseDto<>(
+                productoMapper.toDtoList(productos),
+                idsPage.getNumber(),
+                idsPage.getSize(),
+                idsPage.getTotalElements(),
+                idsPage.getTotalPages(),
+                idsPage.hasNext(),
+                false
+        );
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> findByCategoria(Integer categoriaId) {
+    public List<ProductoResponseDto> findByCategoria(Integer categoriaId, boolean incluirInactivos, int limite) {
         log.info("Buscando productos por categoría ID: {}", categoriaId);
 
-        // Verificar si existe la categoría
+        // Verificar si existe la categoría (aunque esté desactivada)
         verificarCategoriaExiste(categoriaId);
 
-        List<Producto> productos = productoRepository.findByCategoriaId(categoriaId);
+        filtroActivos.aplicar(incluirInactivos);
+
+        List<Producto> productos = productoRepository.findByCategoriaId(categoriaId, primeros(limite));
         return productoMapper.toDtoList(productos);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> findByMarca(Integer marcaId) {
+    public void exportarPorCategoria(Integer categoriaId, boolean incluirInactivos,
+                                     Consumer<ProductoResponseDto> consumidor) {
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("por categoría " + categoriaId, productoRepository.streamByCategoriaId(categoriaId), consumidor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoResponseDto> findByMarca(Integer marcaId, boolean incluirInactivos, int limite) {
         log.info("Buscando productos por marca ID: {}", marcaId);
 
-        // Verificar si existe la marca
+        // Verificar si existe la marca (aunque esté desactivada)
         verificarMarcaExiste(marcaId);
 
-        List<Producto> productos = productoRepository.findByMarcaId(marcaId);
+        filtroActivos.aplicar(incluirInactivos);
+
+        List<Producto> productos = productoRepository.findByMarcaId(marcaId, primeros(limite));
         return productoMapper.toDtoList(productos);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> findByRangoPrecio(BigDecimal precioMin, BigDecimal precioMax) {
+    public void exportarPorMarca(Integer marcaId, boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor) {
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("por marca " + marcaId, productoRepository.streamByMarcaId(marcaId), consumidor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoResponseDto> findByRangoPrecio(BigDecimal precioMin, BigDecimal precioMax,
+                                                       boolean incluirInactivos, int limite) {
         log.info("Buscando productos por rango de precio: {} - {}", precioMin, precioMax);
 
         if (precioMin == null || precioMax == null || precioMin.compareTo(precioMax) > 0) {
             throw new BadRequestException("El rango de precios no es válido");
         }
 
-        List<Producto> productos = productoRepository.findByPrecioBetween(precioMin, precioMax);
+        filtroActivos.aplicar(incluirInactivos);
+
+        List<Producto> productos = productoRepository.findByPrecioBetween(precioMin, precioMax, primeros(limite));
         return productoMapper.toDtoList(productos);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductoResponseDto> findProductosConStock() {
+    public void exportarPorRangoPrecio(BigDecimal precioMin, BigDecimal precioMax, boolean incluirInactivos,
+                                       Consumer<ProductoResponseDto> consumidor) {
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("por rango de precio", productoRepository.streamByPrecioBetween(precioMin, precioMax), consumidor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoResponseDto> findProductosConStock(boolean incluirInactivos, int limite) {
         log.info("Buscando productos con stock disponible");
 
-        List<Producto> productos = productoRepository.findByStockGreaterThan(0);
+        filtroActivos.aplicar(incluirInactivos);
+
+        List<Producto> productos = productoRepository.findByStockGreaterThan(0, primeros(limite));
         return productoMapper.toDtoList(productos);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarConStock(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor) {
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("con stock", productoRepository.streamByStockGreaterThan(0), consumidor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByCodigo(String codigo) {
@@ -207,41 +451,172 @@ public class ProductoServiceImpl implements ProductoService {
         return productoRepository.existsByCodigo(codigo);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(boolean incluirInactivos, Consumer<ProductoResponseDto> consumidor) {
+        log.info("Exportando productos en streaming, incluir inactivos {}", incluirInactivos);
+        filtroActivos.aplicar(incluirInactivos);
+        transmitir("exportación", productoRepository.streamAllConDetalle(), consumidor);
+    }
+
     @Override
     public ProductoResponseDto actualizarStock(Integer id, Integer cantidad) {
         log.info("Actualizando stock del producto ID: {} en: {}", id, cantidad);
 
-        // Verificar si existe el producto
-        Producto producto = productoRepository.findById(id)
+        // Cada actualización es un INSERT en el libro de movimientos, validado contra el stock vigente;
+        // la compactación periódica lo suma a productos.stock
+        int stock = movimientoStockService.registrar(id, cantidad, TipoMovimientoStock.ACTUALIZACION);
+
+        Producto updatedProducto = productoRepository.findConDetalleById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", "id", id));
+        productoCache.evict(id, updatedProducto.getCodigo());
+
+        log.info("Stock actualizado exitosamente para producto ID: {}, nuevo stock: {}", id, stock);
+
+        return productoMapper.toDto(updatedProducto, stock);
+    }
 
-        // Validar que el stock no quede negativo
-        int nuevoStock = producto.getStock() + cantidad;
-        if (nuevoStock < 0) {
-            throw new BadRequestException("No hay suficiente stock disponible");
+    @Override
+    public LoteStockResponseDto actualizarStockEnLote(LoteStockRequestDto requestDto) {
+        List<MovimientoStockRequestDto> movimientos = requestDto.movimientos();
+        log.info("Actualizando stock en lote: {} movimientos", movimientos.size());
+
+        // Resolver los IDs y códigos de todo el lote con una consulta por tipo de referencia
+        Set<Integer> ids = new HashSet<>();
+        Set<String> codigos = new HashSet<>();
+        for (MovimientoStockRequestDto movimiento : movimientos) {
+            if (movimiento.id() != null) {
+                ids.add(movimiento.id());
+            } else if (movimiento.codigo() != null) {
+                codigos.add(movimiento.codigo());
+            }
         }
 
-        // Actualizar el stock
-        producto.setStock(nuevoStock);
-        Producto updatedProducto = productoRepository.save(producto);
+        Map<Integer, String> codigoPorId = new HashMap<>();
+        Map<String, Integer> idPorCodigo = new HashMap<>();
+        if (!ids.isEmpty()) {
+            productoRepository.findByIdIn(ids)
+                    .forEach(p -> codigoPorId.put(p.getId(), p.getCodigo()));
+        }
+        if (!codigos.isEmpty()) {
+            productoRepository.findByCodigoIn(codigos)
+                    .forEach(p -> idPorCodigo.put(p.getCodigo(), p.getId()));
+        }
+
+        // Separar las líneas que referencian productos existentes de las rechazadas
+        MovimientoStockResultadoDto[] resultados = new MovimientoStockResultadoDto[movimientos.size()];
+        List<Integer> lineasAplicables = new ArrayList<>();
+        List<Integer> idsAplicables = new ArrayList<>();
+        List<Integer> cantidades = new ArrayList<>();
+
+        for (int linea = 0; linea < movimientos.size(); linea++) {
+            MovimientoStockRequestDto movimiento = movimientos.get(linea);
+            Integer id = movimiento.id() != null ? movimiento.id() : idPorCodigo.get(movimiento.codigo());
+            String codigo = movimiento.id() != null ? codigoPorId.get(movimiento.id()) : movimiento.codigo();
+
+            if (movimiento.id() == null && movimiento.codigo() == null) {
+                resultados[linea] = new MovimientoStockResultadoDto(linea, null, null,
+                        movimiento.cantidad(), false, "Debe indicar el id o el código del producto");
+            } else if (id == null || codigo == null) {
+                resultados[linea] = new MovimientoStockResultadoDto(linea, movimiento.id(), movimiento.codigo(),
+                        movimiento.cantidad(), false, "Producto no encontrado");
+            } else {
+                resultados[linea] = new MovimientoStockResultadoDto(linea, id, codigo,
+                        movimiento.cantidad(), true, "Stock actualizado");
+                lineasAplicables.add(linea);
+                idsAplicables.add(id);
+                cantidades.add(movimiento.cantidad());
+            }
+        }
 
-        log.info("Stock actualizado exitosamente para producto ID: {}, nuevo stock: {}",
-                id, updatedProducto.getStock());
+        // Registrar todas las líneas válidas como movimientos, insertados en un único lote
+        boolean[] registrados = movimientoStockService.registrarEnLote(idsAplicables, cantidades,
+                TipoMovimientoStock.LOTE);
+        for (int i = 0; i < registrados.length; i++) {
+            if (!registrados[i]) {
+                MovimientoStockResultadoDto resultado = resultados[lineasAplicables.get(i)];
+                resultados[lineasAplicables.get(i)] = new MovimientoStockResultadoDto(resultado.linea(),
+                        resultado.id(), resultado.codigo(), resultado.cantidad(), false,
+                        "No hay suficiente stock disponible");
+            }
+        }
+
+        int aplicados = 0;
+        for (MovimientoStockResultadoDto resultado : resultados) {
+            if (resultado.aplicado()) {
+                productoCache.evict(resultado.id(), resultado.codigo());
+                aplicados++;
+            }
+        }
 
-        return productoMapper.toDto(updatedProducto);
+        log.info("Lote de stock procesado: {} aplicados, {} rechazados", aplicados, resultados.length - aplicados);
+        return new LoteStockResponseDto(resultados.length, aplicados, resultados.length - aplicados,
+                List.of(resultados));
     }
 
     // Métodos privados de utilidad
 
+    private static Pageable primeros(int limite) {
+        return PageRequest.of(0, limite, ORDEN_LISTADO);
+    }
+
+    // Entrega cada producto del cursor al consumidor sin acumularlos en memoria
+    private void transmitir(String listado, Stream<Producto> stream, Consumer<ProductoResponseDto> consumidor) {
+        long transmitidos = 0;
+        try (Stream<Producto> productos = stream) {
+            Iterator<Producto> iterator = productos.iterator();
+            while (iterator.hasNext()) {
+                consumidor.accept(productoMapper.toDto(iterator.next()));
+
+                // Vaciar el contexto de persistencia para que la memoria no crezca con el catálogo
+                if (++transmitidos % ProductoRepository.TAMANO_LOTE_LECTURA == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+
+        log.info("Listado {} transmitido: {} productos", listado, transmitidos);
+    }
+
+    // La existencia se consulta a través del servicio para aprovechar su caché
     private void verificarCategoriaExiste(Integer categoriaId) {
-        if (!categoriaRepository.existsById(categoriaId)) {
+        if (!categoriaService.existsById(categoriaId)) {
             throw new ResourceNotFoundException("Categoria", "id", categoriaId);
         }
     }
 
     private void verificarMarcaExiste(Integer marcaId) {
-        if (!marcaRepository.existsById(marcaId)) {
+        if (!marcaService.existsById(marcaId)) {
             throw new ResourceNotFoundException("Marca", "id", marcaId);
         }
     }
+
+    private Specification<Producto> criteriosComunes(FiltroProductoDto filtro) {
+        List<Specification<Producto>> criterios = new ArrayList<>();
+        if (filtro.precioMin() != null) {
+            criterios.add(ProductoSpecifications.precioDesde(filtro.precioMin()));
+        }
+        if (filtro.precioMax() != null) {
+            criterios.add(ProductoSpecifications.precioHasta(filtro.precioMax()));
+        }
+        if (Boolean.TRUE.equals(filtro.conStock())) {
+            criterios.add(ProductoSpecifications.conStock());
+        }
+        if (filtro.activo() != null) {
+            criterios.add(ProductoSpecifications.activo(filtro.activo()));
+        }
+        // Cada término del nombre debe aparecer, en cualquier orden
+        if (filtro.nombre() != null && !filtro.nombre().isBlank()) {
+            for (String termino : BusquedaTexto.normalizar(filtro.nombre()).split("\\s+")) {
+                criterios.add(ProductoSpecifications.nombreComo(BusquedaTexto.patron(termino)));
+            }
+        }
+        return Specification.allOf(criterios);
+    }
+
+    private static List<FacetaDto> toFacetas(List<ProductoRepositoryCustom.Faceta> facetas) {
+        return facetas.stream()
+                .map(f -> new FacetaDto(f.id(), f.nombre(), f.total()))
+                .toList();
+    }
 }
@@ -0,0 +1,281 @@
+package edu.cibertec.appinventario.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Registro de escritura anticipada de los movimientos de stock de alta contención. Un único hilo escribe
+// los movimientos en el orden en que llegan y confirma cada grupo con un solo fsync (group commit): quien
+// anota un movimiento espera a ese fsync, no a la base de datos. Los registros confirmados se acumulan por
+// producto hasta el siguiente volcado. Los archivos (segmentos) rotan por tamaño y se borran cuando un volcado
+// cubre su última secuencia.
+@Slf4j
+final class RegistroAnticipadoStock implements AutoCloseable {
+
+    // Registro de longitud fija: secuencia, producto, cantidad y CRC32 de los 16 bytes anteriores
+    static final int TAMANO_REGISTRO = 20;
+
+    private static final int DATOS_REGISTRO = 16;
+    private static final int MAXIMO_POR_ESCRITURA = 4096;
+    private static final String PREFIJO = "stock-";
+    private static final String EXTENSION = ".wal";
+
+    record Registro(long secuencia, int productoId, int cantidad) {}
+
+    // Cantidades confirmadas por producto hasta una secuencia (inclusive)
+    record Pendientes(Map<Integer, Long> cantidades, long hastaSecuencia) {}
+
+    private record Entrada(int productoId, int cantidad, CompletableFuture<Void> confirmacion) {}
+
+    private record Segmento(Path archivo, long ultimaSecuencia) {}
+
+    private static final Entrada CIERRE = new Entrada(0, 0, null);
+
+    private final Path directorio;
+    private final long tamanoSegmento;
+    private final BlockingQueue<Entrada> cola = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+    private volatile boolean abierto = true;
+
+    // Protegidos por acumulado
+    private final Lock acumulado = new ReentrantLock();
+    private final Map<Integer, Long> pendientes = new HashMap<>();
+    private final Deque<Segmento> cerrados = new ArrayDeque<>();
+    private long hastaSecuencia;
+
+    // Solo los usa el hilo escritor
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANO_REGISTRO * MAXIMO_POR_ESCRITURA);
+    private final CRC32 crc = new CRC32();
+    private FileChannel canal;
+    private Path archivo;
+    private long siguienteSecuencia;
+    private IOException fallo;
+
+    // Empieza un registro vacío en siguienteSecuencia. Los segmentos existentes se borran: deben haberse
+    // leído y volcado antes (ver leer)
+    RegistroAnticipadoStock(Path directorio, long siguienteSecuencia, long tamanoSegmento) throws IOException {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.siguienteSecuencia = siguienteSecuencia;
+        this.hastaSecuencia = siguienteSecuencia - 1;
+
+        Files.createDirectories(directorio);
+        for (Path anterior : segmentos(directorio)) {
+            Files.delete(anterior);
+        }
+        abrirSegmento();
+        this.escritor = Thread.ofPlatform().daemon().name("stock-wal").start(this::escribir);
+    }
+
+    // Registros válidos de los segmentos del directorio, en orden de secuencia. Un registro incompleto o con
+    // CRC erróneo solo puede ser el último de un segmento (escritura interrumpida, nunca confirmada)
+    static List<Registro> leer(Path directorio) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        byte[] bytes = new byte[TAMANO_REGISTRO];
+        CRC32 crc = new CRC32();
+        for (Path segmento : segmentos(directorio)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(segmento))) {
+                int leidos;
+                while ((leidos = in.readNBytes(bytes, 0, TAMANO_REGISTRO)) > 0) {
+                    ByteBuffer registro = ByteBuffer.wrap(bytes);
+                    crc.reset();
+                    crc.update(bytes, 0, DATOS_REGISTRO);
+                    if (leidos < TAMANO_REGISTRO || registro.getInt(DATOS_REGISTRO) != (int) crc.getValue()) {
+                        log.warn("Registro incompleto al final de {}; se descarta", segmento.getFileName());
+                        break;
+                    }
+                    registros.add(new Registro(registro.getLong(0), registro.getInt(8), registro.getInt(12)));
+                }
+            }
+        }
+        return registros;
+    }
+
+    // Anota el movimiento; el futuro se completa cuando el registro está en disco
+    CompletableFuture<Void> anotar(int productoId, int cantidad) {
+        Entrada entrada = new Entrada(productoId, cantidad, new CompletableFuture<>());
+        cola.add(entrada);
+        // Si el registro se cerró a la vez, o el escritor ya no la verá y se retira aquí, o close la rechaza
+        if (!abierto && cola.remove(entrada)) {
+            throw new IllegalStateException("El registro de stock está cerrado");
+        }
+        return entrada.confirmacion();
+    }
+
+    // Entrega lo acumulado desde la llamada anterior
+    Pendientes tomarPendientes() {
+        acumulado.lock();
+        try {
+            Pendientes tomados = new Pendientes(new HashMap<>(pendientes), hastaSecuencia);
+            pendientes.clear();
+            return tomados;
+        } finally {
+            acumulado.unlock();
+        }
+    }
+
+    // Vuelve a acumular un volcado que no llegó a confirmarse
+    void devolver(Pendientes tomados) {
+        acumulado.lock();
+        try {
+            tomados.cantidades().forEach((productoId, cantidad) -> pendientes.merge(productoId, cantidad, Long::sum));
+        } finally {
+            acumulado.unlock();
+        }
+    }
+
+    // Borra los segmentos cerrados cuyos registros ya están volcados hasta la secuencia indicada
+    void liberarHasta(long secuencia) throws IOException {
+        acumulado.lock();
+        try {
+            while (!cerrados.isEmpty() && cerrados.peekFirst().ultimaSecuencia() <= secuencia) {
+                Files.deleteIfExists(cerrados.pollFirst().archivo());
+            }
+        } finally {
+            acumulado.unlock();
+        }
+    }
+
+    // Escribe lo que ya estaba en cola y rechaza lo que llegue después
+    @Override
+    public void close() throws IOException {
+        abierto = false;
+        cola.add(CIERRE);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+
+        Entrada rezagada;
+        while ((rezagada = cola.poll()) != null) {
+            if (rezagada != CIERRE) {
+                rezagada.confirmacion().completeExceptionally(
+                        new IllegalStateException("El registro de stock está cerrado"));
+            }
+        }
+    }
+
+    private void escribir() {
+        List<Entrada> lote = new ArrayList<>(MAXIMO_POR_ESCRITURA);
+        boolean cerrar = false;
+        while (!cerrar) {
+            try {
+                lote.add(cola.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            cola.drainTo(lote, MAXIMO_POR_ESCRITURA - 1);
+
+            int cierre = lote.indexOf(CIERRE);
+            if (cierre >= 0) {
+                // Lo posterior al cierre lo rechaza close
+                lote.subList(cierre, lote.size()).stream().filter(e -> e != CIERRE).forEach(cola::add);
+                lote.subList(cierre, lote.size()).clear();
+                cerrar = true;
+            }
+            if (!lote.isEmpty()) {
+                escribirLote(lote);
+            }
+            lote.clear();
+        }
+    }
+
+    private void escribirLote(List<Entrada> lote) {
+        if (fallo == null) {
+            try {
+                if (canal.position() >= tamanoSegmento) {
+                    rotar();
+                }
+                buffer.clear();
+                for (Entrada entrada : lote) {
+                    buffer.putLong(siguienteSecuencia++).putInt(entrada.productoId()).putInt(entrada.cantidad());
+                    crc.reset();
+                    crc.update(buffer.array(), buffer.position() - DATOS_REGISTRO, DATOS_REGISTRO);
+                    buffer.putInt((int) crc.getValue());
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(false);
+            } catch (IOException e) {
+                // Sin registro no se puede garantizar ningún movimiento más: se rechazan todos desde aquí
+                log.error("Error al escribir el registro de stock {}; se rechazan los movimientos de alta "
+                        + "contención", archivo, e);
+                fallo = e;
+            }
+        }
+        if (fallo != null) {
+            lote.forEach(entrada -> entrada.confirmacion().completeExceptionally(
+                    new IllegalStateException("No se pudo escribir el registro de stock", fallo)));
+            return;
+        }
+
+        acumulado.lock();
+        try {
+            lote.forEach(entrada -> pendientes.merge(entrada.productoId(), (long) entrada.cantidad(), Long::sum));
+            hastaSecuencia = siguienteSecuencia - 1;
+        } finally {
+            acumulado.unlock();
+        }
+        lote.forEach(entrada -> entrada.confirmacion().complete(null));
+    }
+
+    private void rotar() throws IOException {
+        canal.close();
+        acumulado.lock();
+        try {
+            cerrados.addLast(new Segmento(archivo, siguienteSecuencia - 1));
+        } finally {
+            acumulado.unlock();
+        }
+        abrirSegmento();
+    }
+
+    // El nombre lleva la primera secuencia con ceros a la izquierda: el orden alfabético es el de escritura
+    private void abrirSegmento() throws IOException {
+        archivo = directorio.resolve(PREFIJO + String.format("%020d", siguienteSecuencia) + EXTENSION);
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // La entrada del directorio también debe llegar a disco (no es posible en todos los sistemas)
+        try (FileChannel carpeta = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            carpeta.force(true);
+        } catch (IOException e) {
+            log.debug("No se pudo sincronizar el directorio {}", directorio, e);
+        }
+    }
+
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(a -> a.getFileName().toString().startsWith(PREFIJO)
+                            && a.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.ReservaStockDto;
+import edu.cibertec.appinventario.dto.ReservaStockRequestDto;
+import edu.cibertec.appinventario.dto.StockDisponibleDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.exception.ResourceNotFoundException;
+import edu.cibertec.appinventario.mapper.ReservaStockMapper;
+import edu.cibertec.appinventario.model.EstadoReservaStock;
+import edu.cibertec.appinventario.model.ReservaStock;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.ReservaStockRepository;
+import edu.cibertec.appinventario.service.MovimientoStockService;
+import edu.cibertec.appinventario.service.ReservaStockService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+@Timed(value = "inventario.servicio", description = "Duración de los métodos de los servicios")
+public class ReservaStockServiceImpl implements ReservaStockService {
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final ProductoRepository productoRepository;
+    private final MovimientoStockService movimientoStockService;
+    private final ReservaStockMapper reservaStockMapper;
+    private final ProductoCache productoCache;
+    private final StockAltaContencion altaContencion;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration duracion;
+    private final Duration duracionMaxima;
+    private final int tamanoLote;
+
+    public ReservaStockServiceImpl(ReservaStockRepository reservaStockRepository,
+                                   ProductoRepository productoRepository,
+                                   MovimientoStockService movimientoStockService,
+                                   ReservaStockMapper reservaStockMapper,
+                                   ProductoCache productoCache,
+                                   StockAltaContencion altaContencion,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.stock.reservas.duracion:PT15M}") Duration duracion,
+                                   @Value("${app.stock.reservas.duracion-maxima:PT2H}") Duration duracionMaxima,
+                                   @Value("${app.stock.reservas.barrido.tamano-lote:1000}") int tamanoLote) {
+        this.reservaStockRepository = reservaStockRepository;
+        this.productoRepository = productoRepository;
+        this.movimientoStockService = movimientoStockService;
+        this.reservaStockMapper = reservaStockMapper;
+        this.productoCache = productoCache;
+        this.altaContencion = altaContencion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duracion = duracion;
+        this.duracionMaxima = duracionMaxima;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    @Transactional
+    public ReservaStockDto reservar(Integer productoId, ReservaStockRequestDto requestDto) {
+        log.info("Reservando {} unidades del producto ID: {}", requestDto.cantidad(), productoId);
+
+        // El contador en memoria no conoce las reservas, que se validan en la base de datos
+        if (altaContencion.gestiona(productoId)) {
+            throw new BadRequestException("El producto está en modo de alta contención y no admite reservas");
+        }
+        Duration vigencia = requestDto.duracionSegundos() == null
+                ? duracion
+                : Duration.ofSeconds(requestDto.duracionSegundos());
+        if (vigencia.compareTo(duracionMaxima) > 0) {
+            throw new BadRequestException("La duración de la reserva no debe exceder los "
+                    + duracionMaxima.toSeconds() + " segundos");
+        }
+
+        // Con la fila del producto bloqueada, como las salidas: dos reservas (o una reserva y una salida)
+        // concurrentes no retienen la misma unidad
+        if (productoRepository.bloquearParaStock(productoId).isEmpty()) {
+            throw new ResourceNotFoundException("Producto", "id", productoId);
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        long disponible = movimientoStockService.stockVigente(productoId)
+                - reservaStockRepository.reservado(productoId, ahora);
+        if (disponible < requestDto.cantidad()) {
+            throw new BadRequestException("No hay suficiente stock disponible");
+        }
+
+        ReservaStock reserva = reservaStockRepository.save(new ReservaStock(
+                productoRepository.getReferenceById(productoId), requestDto.cantidad(), ahora.plus(vigencia)));
+
+        log.info("Reserva creada con ID: {}, vence: {}", reserva.getId(), reserva.getExpiracion());
+        return reservaStockMapper.toDto(reserva);
+    }
+
+    @Override
+    @Transactional
+    public ReservaStockDto confirmar(Integer productoId, Long reservaId) {
+        log.info("Confirmando la reserva ID: {} del producto ID: {}", reservaId, productoId);
+
+        ReservaStock reserva = bloquearActiva(productoId, reservaId);
+        if (!reserva.vigente(LocalDateTime.now())) {
+            throw new BadRequestException("La reserva ha expirado");
+        }
+
+        // Al dejar de estar activa sus unidades vuelven al disponible y la salida las toma en el mismo paso;
+        // solo falla si un ajuste dejó el stock por debajo de lo reservado
+        reserva.setEstado(EstadoReservaStock.CONFIRMADA);
+        int stock = movimientoStockService.registrar(productoId, -reserva.getCantidad(), TipoMovimientoStock.RESERVA);
+        productoCache.evict(productoId, reserva.getProducto().getCodigo());
+
+        log.info("Reserva ID: {} confirmada, nuevo stock: {}", reservaId, stock);
+        return reservaStockMapper.toDto(reserva);
+    }
+
+    @Override
+    @Transactional
+    public void liberar(Integer productoId, Long reservaId) {
+        log.info("Liberando la reserva ID: {} del producto ID: {}", reservaId, productoId);
+
+        // Una vencida que el barrido aún no marcó también se puede liberar: el resultado es el mismo
+        bloquearActiva(productoId, reservaId).setEstado(EstadoReservaStock.LIBERADA);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StockDisponibleDto getDisponible(Integer productoId) {
+        int stock = movimientoStockService.stockVigente(productoId);
+        long reservado = reservaStockRepository.reservado(productoId, LocalDateTime.now());
+        // Un ajuste puede dejar el stock por debajo de lo reservado; el disponible no baja de cero
+        return new StockDisponibleDto(productoId, stock, (int) reservado, (int) Math.max(0, stock - reservado));
+    }
+
+    // Las reservas vencidas ya no cuentan en el disponible; el barrido solo las saca de los índices parciales
+    // de activas para que la suma de lo reservado siga siendo barata. Cada lote va en su propia transacción
+    @Override
+    @Scheduled(fixedDelayString = "${app.stock.reservas.barrido.intervalo:PT30S}")
+    public int expirarVencidas() {
+        int expiradas = 0;
+        int marcadas;
+        do {
+            marcadas = transactionTemplate.execute(status -> {
+                List<Long> vencidas = reservaStockRepository.findVencidas(LocalDateTime.now(),
+                        PageRequest.ofSize(tamanoLote));
+                return vencidas.isEmpty() ? 0 : reservaStockRepository.expirar(vencidas);
+            });
+            expiradas += marcadas;
+        } while (marcadas == tamanoLote);
+
+        if (expiradas > 0) {
+            log.info("Barrido de reservas: {} reservas vencidas marcadas como expiradas", expiradas);
+        }
+        return expiradas;
+    }
+
+    private ReservaStock bloquearActiva(Integer productoId, Long reservaId) {
+        ReservaStock reserva = reservaStockRepository.bloquear(productoId, reservaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva", "id", reservaId));
+        if (reserva.getEstado() != EstadoReservaStock.ACTIVA) {
+            throw new BadRequestException("La reserva no está activa (estado " + reserva.getEstado() + ")");
+        }
+        return reserva;
+    }
+}
@@ -0,0 +1,327 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.exception.ResourceNotFoundException;
+import edu.cibertec.appinventario.model.MovimientoStock;
+import edu.cibertec.appinventario.model.PuntoControlStock;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.MovimientoStockRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.PuntoControlStockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Modo de alta contención: el stock de los productos designados se lleva en memoria (ContadorStock) en lugar
+// de registrar un movimiento por operación. Cada operación se valida contra el contador, se anota en el
+// registro de escritura anticipada local y responde en cuanto el registro está en disco; la suma de cada
+// producto se vuelca a movimientos_stock cada intervalo-volcado. Al arrancar se vuelcan los registros que
+// quedaron sin volcar. El contador es la referencia del stock de esos productos, así que solo una instancia
+// debe atender sus escrituras.
+@Component
+@Slf4j
+class StockAltaContencion implements SmartLifecycle {
+
+    // Se recupera antes de que el servidor web acepte peticiones y se vuelca lo último después de que deje de hacerlo
+    private static final int FASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long TAMANO_SEGMENTO = 64L * 1024 * 1024;
+
+    private final MovimientoStockRepository movimientoStockRepository;
+    private final ProductoRepository productoRepository;
+    private final PuntoControlStockRepository puntoControlStockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Integer> productos;
+    private final int franjas;
+    private final Path directorio;
+    private final String instancia;
+
+    private final Map<Integer, ContadorStock> contadores = new ConcurrentHashMap<>();
+    private final Lock volcado = new ReentrantLock();
+    private final Lock carga = new ReentrantLock();
+    private volatile RegistroAnticipadoStock registro;
+    private long puntoControl;
+
+    StockAltaContencion(MovimientoStockRepository movimientoStockRepository,
+                        ProductoRepository productoRepository,
+                        PuntoControlStockRepository puntoControlStockRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.stock.alta-contencion.productos:}") Set<Integer> productos,
+                        @Value("${app.stock.alta-contencion.franjas:0}") int franjas,
+                        @Value("${app.stock.alta-contencion.directorio:datos/stock}") Path directorio,
+                        @Value("${app.stock.alta-contencion.instancia:${spring.application.name}}") String instancia) {
+        this.movimientoStockRepository = movimientoStockRepository;
+        this.productoRepository = productoRepository;
+        this.puntoControlStockRepository = puntoControlStockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productos = Set.copyOf(productos);
+        // Por defecto, una franja por núcleo redondeado a potencia de 2
+        int numero = franjas > 0 ? franjas : Runtime.getRuntime().availableProcessors();
+        this.franjas = Integer.highestOneBit(numero) == numero ? numero : Integer.highestOneBit(numero) << 1;
+        this.directorio = directorio;
+        this.instancia = instancia;
+    }
+
+    boolean gestiona(Integer productoId) {
+        return registro != null && productos.contains(productoId);
+    }
+
+    // Mismo contrato que MovimientoStockService.registrar. Dentro de una transacción, el movimiento sigue su
+    // resultado: una salida se aplica en el acto (para validarla) y se devuelve si la transacción se deshace;
+    // una entrada se aplica al confirmarse, porque una entrada ya vendida no se podría retirar
+    int registrar(Integer productoId, int cantidad) {
+        ContadorStock contador = contador(productoId);
+        if (cantidad < 0) {
+            // La salida se reserva en el contador y se devuelve si no llega a anotarse
+            if (!contador.retirar(-(long) cantidad)) {
+                throw new BadRequestException("No hay suficiente stock disponible");
+            }
+            try {
+                anotar(productoId, cantidad);
+            } catch (RuntimeException e) {
+                contador.sumar(-(long) cantidad);
+                throw e;
+            }
+            alDeshacer(() -> devolver(productoId, contador, -cantidad));
+            return stockVigente(productoId);
+        }
+        if (cantidad > 0) {
+            // Comprobación anticipada para responder con el error; la definitiva es atómica al sumar
+            long resultante = contador.valor() + cantidad;
+            if (resultante > Integer.MAX_VALUE) {
+                throw new BadRequestException("El stock resultante excede el máximo permitido");
+            }
+            alConfirmar(() -> {
+                if (!contador.sumar(cantidad, Integer.MAX_VALUE, c -> anotar(productoId, cantidad))) {
+                    throw new BadRequestException("El stock resultante excede el máximo permitido");
+                }
+            }, productoId, cantidad);
+            return (int) resultante;
+        }
+        return stockVigente(productoId);
+    }
+
+    // Mismo contrato que MovimientoStockService.fijar. La lectura del stock, la anotación de la diferencia y el
+    // ajuste del contador son un solo paso (ContadorStock.fijar), que dentro de una transacción se da al confirmarse
+    int fijar(Integer productoId, int stock) {
+        ContadorStock contador = contador(productoId);
+        alConfirmar(() -> contador.fijar(stock, diferencia -> {
+            if (diferencia != 0) {
+                anotar(productoId, Math.toIntExact(diferencia));
+            }
+        }), productoId, stock);
+        return stock;
+    }
+
+    int stockVigente(Integer productoId) {
+        return (int) contador(productoId).valor();
+    }
+
+    // Vuelca a movimientos_stock lo anotado desde el volcado anterior, un movimiento por producto
+    @Scheduled(fixedDelayString = "${app.stock.alta-contencion.intervalo-volcado:PT0.2S}")
+    public void volcar() {
+        RegistroAnticipadoStock actual = registro;
+        if (actual == null) {
+            return;
+        }
+        volcado.lock();
+        try {
+            RegistroAnticipadoStock.Pendientes pendientes = actual.tomarPendientes();
+            if (pendientes.hastaSecuencia() <= puntoControl) {
+                return;
+            }
+            try {
+                volcar(pendientes);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo volcar el stock de alta contención; se reintentará", e);
+                actual.devolver(pendientes);
+                return;
+            }
+            actual.liberarHasta(pendientes.hastaSecuencia());
+        } catch (IOException e) {
+            log.warn("No se pudieron borrar los segmentos ya volcados del registro de stock", e);
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (productos.isEmpty()) {
+            return;
+        }
+        try {
+            recuperar();
+            registro = new RegistroAnticipadoStock(directorio, puntoControl + 1, TAMANO_SEGMENTO);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el registro de stock en " + directorio, e);
+        }
+        log.info("Modo de alta contención activo para los productos {} ({} franjas, registro en {})",
+                productos, franjas, directorio.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        RegistroAnticipadoStock actual = registro;
+        if (actual == null) {
+            return;
+        }
+        try {
+            actual.close();
+        } catch (IOException e) {
+            log.warn("Error al cerrar el registro de stock", e);
+        }
+        volcar();
+        registro = null;
+        contadores.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return registro != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    // Vuelca los registros posteriores al último punto de control; los anteriores ya están en la base de datos
+    private void recuperar() throws IOException {
+        puntoControl = puntoControlStockRepository.findById(instancia)
+                .map(PuntoControlStock::getSecuencia)
+                .orElse(0L);
+
+        Map<Integer, Long> cantidades = new TreeMap<>();
+        long ultima = puntoControl;
+        int recuperados = 0;
+        for (RegistroAnticipadoStock.Registro r : RegistroAnticipadoStock.leer(directorio)) {
+            if (r.secuencia() > puntoControl) {
+                cantidades.merge(r.productoId(), (long) r.cantidad(), Long::sum);
+                ultima = Math.max(ultima, r.secuencia());
+                recuperados++;
+            }
+        }
+        if (recuperados > 0) {
+            log.warn("Recuperando {} movimientos de stock sin volcar del registro ({} productos)",
+                    recuperados, cantidades.size());
+            volcar(new RegistroAnticipadoStock.Pendientes(cantidades, ultima));
+        }
+    }
+
+    // Movimientos y punto de control en la misma transacción: o se aplican ambos o ninguno
+    private void volcar(RegistroAnticipadoStock.Pendientes pendientes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Integer> existentes = new HashSet<>();
+            productoRepository.findByIdIn(pendientes.cantidades().keySet())
+                    .forEach(p -> existentes.add(p.getId()));
+
+            List<MovimientoStock> movimientos = new ArrayList<>();
+            pendientes.cantidades().forEach((productoId, cantidad) -> {
+                if (cantidad != 0 && existentes.contains(productoId)) {
+                    movimientos.add(new MovimientoStock(productoRepository.getReferenceById(productoId),
+                            Math.toIntExact(cantidad), TipoMovimientoStock.VOLCADO));
+                }
+            });
+            movimientoStockRepository.saveAll(movimientos);
+            puntoControlStockRepository.save(new PuntoControlStock(instancia, pendientes.hastaSecuencia()));
+        });
+        puntoControl = pendientes.hastaSecuencia();
+    }
+
+    // El contador se carga del stock vigente la primera vez que se usa: hasta entonces, todo lo anotado
+    // para el producto ya está volcado. La consulta va fuera de computeIfAbsent, que fijaría el hilo virtual
+    private ContadorStock contador(Integer productoId) {
+        ContadorStock contador = contadores.get(productoId);
+        if (contador != null) {
+            return contador;
+        }
+        carga.lock();
+        try {
+            contador = contadores.get(productoId);
+            if (contador == null) {
+                Long stock = movimientoStockRepository.stockVigente(productoId);
+                if (stock == null) {
+                    throw new ResourceNotFoundException("Producto", "id", productoId);
+                }
+                contador = new ContadorStock(stock, franjas);
+                contadores.put(productoId, contador);
+            }
+            return contador;
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    // Sin transacción activa se aplica en el acto y los errores llegan a quien llama; tras confirmarse ya no
+    // hay a quién devolvérselos y solo se registran
+    private void alConfirmar(Runnable aplicar, Integer productoId, int cantidad) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    aplicar.run();
+                } catch (RuntimeException e) {
+                    log.error("No se pudo aplicar el movimiento de stock ({}) del producto ID: {} tras confirmarse "
+                            + "la transacción", cantidad, productoId, e);
+                }
+            }
+        });
+    }
+
+    private void alDeshacer(Runnable deshacer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deshacer.run();
+                }
+            }
+        });
+    }
+
+    // Anota la entrada inversa de una salida cuya transacción se deshizo y repone las unidades
+    private void devolver(Integer productoId, ContadorStock contador, int cantidad) {
+        try {
+            anotar(productoId, cantidad);
+            contador.sumar(cantidad);
+        } catch (RuntimeException e) {
+            log.error("No se pudo devolver la salida de stock ({}) del producto ID: {} tras deshacerse la transacción",
+                    cantidad, productoId, e);
+        }
+    }
+
+    private void anotar(Integer productoId, int cantidad) {
+        try {
+            registro.anotar(productoId, cantidad).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+}
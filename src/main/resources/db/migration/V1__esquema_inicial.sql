@@ -0,0 +1,33 @@
+-- Esquema inicial del inventario, equivalente al que generaba Hibernate a partir de las entidades.
+-- Las bases de datos existentes sin historial de Flyway se marcan en esta versión (baseline) y no lo ejecutan.
+CREATE TABLE IF NOT EXISTS categorias (
+    id             INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre         VARCHAR(100) NOT NULL,
+    descripcion    VARCHAR(255),
+    activo         BOOLEAN DEFAULT TRUE,
+    fecha_creacion TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS marcas (
+    id             INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre         VARCHAR(100) NOT NULL,
+    descripcion    VARCHAR(255),
+    pais_origen    VARCHAR(100),
+    activo         BOOLEAN DEFAULT TRUE,
+    fecha_creacion TIMESTAMP(6)
+);
+
+-- El incremento de productos_id_seq se ajusta en V2 a la asignación por bloques de Hibernate
+CREATE TABLE IF NOT EXISTS productos (
+    id             SERIAL PRIMARY KEY,
+    codigo         VARCHAR(50)    NOT NULL,
+    nombre         VARCHAR(100)   NOT NULL,
+    descripcion    VARCHAR(255),
+    precio         NUMERIC(10, 2) NOT NULL,
+    stock          INTEGER        NOT NULL DEFAULT 0,
+    categoria_id   INTEGER REFERENCES categorias (id),
+    marca_id       INTEGER REFERENCES marcas (id),
+    activo         BOOLEAN DEFAULT TRUE,
+    fecha_creacion TIMESTAMP(6),
+    CONSTRAINT uk_productos_codigo UNIQUE (codigo)
+);
@@ -0,0 +1,3 @@
+-- Hibernate reserva los IDs de productos en bloques de 50 (allocationSize = 50),
+-- lo que le permite agrupar los INSERT en lotes JDBC. El incremento de la secuencia debe coincidir.
+ALTER SEQUENCE productos_id_seq INCREMENT BY 50;
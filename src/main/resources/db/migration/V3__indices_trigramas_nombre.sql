@@ -0,0 +1,8 @@
+-- Búsqueda por nombre: los índices GIN de trigramas sirven tanto LIKE '%texto%' como
+-- el operador de similitud (%), que ninguna B-tree puede resolver sin recorrer la tabla.
+-- Se indexa lower(nombre) porque las búsquedas no distinguen mayúsculas.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_productos_nombre_trgm ON productos USING gin (lower(nombre) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_categorias_nombre_trgm ON categorias USING gin (lower(nombre) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_marcas_nombre_trgm ON marcas USING gin (lower(nombre) gin_trgm_ops);
@@ -0,0 +1,20 @@
+-- Índices B-tree para los filtros de ProductoRepository y de /api/productos/filtrar.
+-- PostgreSQL no indexa las claves foráneas por sí solo: sin estos índices, filtrar por
+-- categoría o marca (y borrar una categoría o marca) recorre toda la tabla de productos.
+-- Las columnas (nombre, id) al final sirven además el orden de la paginación por clave.
+CREATE INDEX IF NOT EXISTS idx_productos_categoria ON productos (categoria_id, nombre, id);
+CREATE INDEX IF NOT EXISTS idx_productos_marca ON productos (marca_id, nombre, id);
+CREATE INDEX IF NOT EXISTS idx_productos_precio ON productos (precio);
+CREATE INDEX IF NOT EXISTS idx_productos_stock ON productos (stock);
+
+-- Índice parcial con solo los productos activos: más pequeño que uno completo y usable por las
+-- consultas con la condición literal "activo" (listados de activos, índice de búsqueda, filtrar)
+CREATE INDEX IF NOT EXISTS idx_productos_activos ON productos (nombre, id) WHERE activo;
+
+-- Índice de cobertura para el listado resumido por clave (nombre, id): contiene todas las columnas
+-- de ProductoSimpleDto, así que la consulta se resuelve con un index-only scan sin leer la tabla
+CREATE INDEX IF NOT EXISTS idx_productos_listado ON productos (nombre, id) INCLUDE (codigo, precio, stock);
+
+-- Búsqueda exacta por nombre y paginación por clave de categorías y marcas
+CREATE INDEX IF NOT EXISTS idx_categorias_nombre ON categorias (nombre, id);
+CREATE INDEX IF NOT EXISTS idx_marcas_nombre ON marcas (nombre, id);
@@ -0,0 +1,40 @@
+-- Eliminación lógica: las lecturas por defecto solo consultan filas activas (filtro soloActivos).
+-- Los índices parciales WHERE activo no contienen las filas desactivadas, así que su tamaño
+-- y el coste de recorrerlos no crecen con los productos descontinuados.
+
+-- Fecha de desactivación; las filas ya inactivas empiezan a contar desde esta migración
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS fecha_desactivacion TIMESTAMP(6);
+UPDATE productos SET fecha_desactivacion = now() WHERE activo = false AND fecha_desactivacion IS NULL;
+
+-- El listado de activos sustituye al índice parcial de V4 e incluye las columnas del resumen
+DROP INDEX IF EXISTS idx_productos_activos;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_listado ON productos (nombre, id)
+    INCLUDE (codigo, precio, stock) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_categoria ON productos (categoria_id, nombre, id) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_marca ON productos (marca_id, nombre, id) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_precio ON productos (precio) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_stock ON productos (stock) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_productos_activos_nombre_trgm ON productos
+    USING gin (lower(nombre) gin_trgm_ops) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_categorias_activas_nombre ON categorias (nombre, id) WHERE activo;
+CREATE INDEX IF NOT EXISTS idx_marcas_activas_nombre ON marcas (nombre, id) WHERE activo;
+
+-- Candidatos al archivado: solo las filas inactivas, por antigüedad de desactivación
+CREATE INDEX IF NOT EXISTS idx_productos_inactivos_desactivacion ON productos (fecha_desactivacion)
+    WHERE NOT activo;
+
+-- Histórico de productos archivados (sin claves foráneas: categorías y marcas pueden archivarse después)
+CREATE TABLE IF NOT EXISTS productos_historico (
+    id                  INTEGER PRIMARY KEY,
+    codigo              VARCHAR(50)    NOT NULL,
+    nombre              VARCHAR(100)   NOT NULL,
+    descripcion         VARCHAR(255),
+    precio              NUMERIC(10, 2) NOT NULL,
+    stock               INTEGER        NOT NULL,
+    categoria_id        INTEGER,
+    marca_id            INTEGER,
+    fecha_creacion      TIMESTAMP(6),
+    fecha_desactivacion TIMESTAMP(6),
+    fecha_archivado     TIMESTAMP(6)   NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_productos_historico_codigo ON productos_historico (codigo);
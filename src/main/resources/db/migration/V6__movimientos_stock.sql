@@ -0,0 +1,25 @@
+-- Libro de movimientos de stock: cada actualización es un INSERT en lugar de un UPDATE sobre la fila del
+-- producto. El stock vigente es productos.stock más los movimientos con aplicado = false; la compactación
+-- periódica los suma a productos.stock y los marca como aplicados en la misma transacción.
+
+-- Hibernate reserva los IDs en bloques de 50 (allocationSize = 50), como en productos
+CREATE SEQUENCE IF NOT EXISTS movimientos_stock_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS movimientos_stock (
+    id          BIGINT       PRIMARY KEY DEFAULT nextval('movimientos_stock_id_seq'),
+    producto_id INTEGER      NOT NULL REFERENCES productos (id) ON DELETE CASCADE,
+    cantidad    INTEGER      NOT NULL,
+    tipo        VARCHAR(20)  NOT NULL,
+    fecha       TIMESTAMP(6) NOT NULL,
+    aplicado    BOOLEAN      NOT NULL DEFAULT FALSE
+);
+ALTER SEQUENCE movimientos_stock_id_seq OWNED BY movimientos_stock.id;
+
+-- Historial por producto, del más reciente al más antiguo (paginación por clave fecha, id)
+CREATE INDEX IF NOT EXISTS idx_movimientos_stock_producto_fecha ON movimientos_stock (producto_id, fecha DESC, id DESC);
+
+-- Los índices parciales solo contienen los movimientos pendientes, así que se mantienen pequeños aunque
+-- el libro crezca: suma por producto del stock vigente y recorrido de la compactación por antigüedad
+CREATE INDEX IF NOT EXISTS idx_movimientos_stock_pendientes ON movimientos_stock (producto_id)
+    INCLUDE (cantidad) WHERE NOT aplicado;
+CREATE INDEX IF NOT EXISTS idx_movimientos_stock_pendientes_id ON movimientos_stock (id) WHERE NOT aplicado;
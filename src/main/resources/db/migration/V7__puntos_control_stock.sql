@@ -0,0 +1,9 @@
+-- Modo de alta contención: cada instancia anota los movimientos de los productos designados en un registro
+-- de escritura anticipada local y los vuelca periódicamente a movimientos_stock. Junto con cada volcado se
+-- guarda aquí la última secuencia del registro incluida, en la misma transacción, de modo que tras una caída
+-- solo se recuperan los registros posteriores y ninguno se aplica dos veces.
+CREATE TABLE IF NOT EXISTS puntos_control_stock (
+    instancia VARCHAR(100) PRIMARY KEY,
+    secuencia BIGINT       NOT NULL,
+    fecha     TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Reservas temporales de stock (checkout): retienen unidades sin modificar el stock hasta que se confirman.
+-- El stock disponible es el stock vigente menos las reservas activas sin vencer; las vencidas dejan de
+-- contar al vencer y el barrido periódico las marca como EXPIRADA por lotes.
+
+-- Hibernate reserva los IDs en bloques de 50 (allocationSize = 50), como en movimientos_stock
+CREATE SEQUENCE IF NOT EXISTS reservas_stock_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservas_stock (
+    id          BIGINT       PRIMARY KEY DEFAULT nextval('reservas_stock_id_seq'),
+    producto_id INTEGER      NOT NULL REFERENCES productos (id) ON DELETE CASCADE,
+    cantidad    INTEGER      NOT NULL CHECK (cantidad > 0),
+    estado      VARCHAR(20)  NOT NULL,
+    expiracion  TIMESTAMP(6) NOT NULL,
+    fecha       TIMESTAMP(6) NOT NULL
+);
+ALTER SEQUENCE reservas_stock_id_seq OWNED BY reservas_stock.id;
+
+-- Los índices parciales solo contienen las reservas activas, así que se mantienen pequeños aunque la tabla
+-- crezca: suma por producto de lo reservado (solo índice) y recorrido del barrido por vencimiento
+CREATE INDEX IF NOT EXISTS idx_reservas_stock_activas ON reservas_stock (producto_id)
+    INCLUDE (cantidad, expiracion) WHERE estado = 'ACTIVA';
+CREATE INDEX IF NOT EXISTS idx_reservas_stock_vencimiento ON reservas_stock (expiracion) WHERE estado = 'ACTIVA';
@@ -0,0 +1,202 @@
+package edu.cibertec.appinventario;
+
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Prueba de carga que compara el modo de hilos de plataforma (pool de Tomcat) con el de hilos virtuales
+// más el limitador de concurrencia. Arranca la aplicación dos veces en un puerto aleatorio, lanza la misma
+// mezcla de consultas con muchos clientes concurrentes y registra el rendimiento y el p99 de cada modo.
+// Con H2 en memoria las consultas apenas bloquean; para una comparación representativa se ejecuta contra
+// PostgreSQL (PG_TEST_URL, ver PlanesConsultaPostgresTest). Se activa con CARGA_TEST=true
+@EnabledIfEnvironmentVariable(named = "CARGA_TEST", matches = "true")
+class ModosEjecucionCargaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ModosEjecucionCargaTest.class);
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 400);
+    private static final int PETICIONES_POR_CLIENTE = Integer.getInteger("carga.peticiones", 50);
+    private static final int PRODUCTOS = 2_000;
+
+    record Resultado(String modo, int correctas, int rechazadas, int errores, double porSegundo,
+                     double p50Ms, double p99Ms) {
+
+        Resultado conModo(String modo) {
+            return new Resultado(modo, correctas, rechazadas, errores, porSegundo, p50Ms, p99Ms);
+        }
+    }
+
+    @Test
+    void comparaHilosDePlataformaYVirtuales() throws Exception {
+        Resultado plataforma = medir(false);
+        Resultado virtuales = medir(true);
+
+        log.info("""
+
+                Modo        correctas  503   errores  peticiones/s  p50 (ms)  p99 (ms)
+                {}
+                {}""", fila(plataforma), fila(virtuales));
+
+        assertThat(List.of(plataforma, virtuales)).allSatisfy(r -> {
+            assertThat(r.errores()).as("Errores en modo %s", r.modo()).isZero();
+            assertThat(r.correctas()).isPositive();
+        });
+    }
+
+    private Resultado medir(boolean hilosVirtuales) throws Exception {
+        String modo = hilosVirtuales ? "virtuales" : "plataforma";
+        try (ConfigurableApplicationContext contexto = arrancar(hilosVirtuales, modo)) {
+            poblar(contexto);
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            List<URI> uris = List.of(
+                    URI.create("http://localhost:" + puerto + "/api/productos/resumen?size=20"),
+                    URI.create("http://localhost:" + puerto + "/api/productos/filtrar?nombre=producto%201&size=20"),
+                    URI.create("http://localhost:" + puerto + "/api/productos/filtrar?precioMin=10&precioMax=50&conStock=true"),
+                    URI.create("http://localhost:" + puerto + "/api/productos/cursor?size=20"));
+
+            // Calentamiento: JIT, cachés y pool de conexiones
+            ejecutar(uris, CLIENTES / 4, PETICIONES_POR_CLIENTE / 5);
+            return ejecutar(uris, CLIENTES, PETICIONES_POR_CLIENTE).conModo(modo);
+        }
+    }
+
+    private ConfigurableApplicationContext arrancar(boolean hilosVirtuales, String modo) {
+        List<String> propiedades = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + hilosVirtuales,
+                "spring.main.keep-alive=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.edu.cibertec.appinventario.controller=WARN",
+                "logging.level.edu.cibertec.appinventario.service=WARN"));
+        String postgres = System.getenv("PG_TEST_URL");
+        if (postgres != null && !postgres.isBlank()) {
+            String esquema = "carga_" + modo;
+            propiedades.addAll(List.of(
+                    "spring.datasource.url=" + postgres + (postgres.contains("?") ? "&" : "?")
+                            + "currentSchema=" + esquema + ",public",
+                    "spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "spring.datasource.username=" + System.getenv().getOrDefault("PG_TEST_USER", "postgres"),
+                    "spring.datasource.password=" + System.getenv().getOrDefault("PG_TEST_PASSWORD", ""),
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                    "spring.flyway.enabled=true",
+                    "spring.flyway.schemas=" + esquema,
+                    "spring.jpa.hibernate.ddl-auto=validate"));
+        } else {
+            propiedades.add("spring.datasource.url=jdbc:h2:mem:carga_" + modo
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        }
+        return new SpringApplicationBuilder(AppinventarioApplication.class)
+                .profiles("test")
+                .properties(propiedades.toArray(String[]::new))
+                .run();
+    }
+
+    private void poblar(ConfigurableApplicationContext contexto) {
+        ProductoRepository productoRepository = contexto.getBean(ProductoRepository.class);
+        if (productoRepository.count() >= PRODUCTOS) {
+            return;
+        }
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Carga");
+        contexto.getBean(CategoriaRepository.class).save(categoria);
+        Marca marca = new Marca();
+        marca.setNombre("Carga");
+        contexto.getBean(MarcaRepository.class).save(marca);
+
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            Producto producto = new Producto();
+            producto.setCodigo("CARGA-" + i);
+            producto.setNombre("Producto " + i);
+            producto.setPrecio(BigDecimal.valueOf(i % 100));
+            producto.setStock(i % 7);
+            producto.setCategoria(categoria);
+            producto.setMarca(marca);
+            productos.add(producto);
+        }
+        productoRepository.saveAll(productos);
+    }
+
+    private Resultado ejecutar(List<URI> uris, int clientes, int peticionesPorCliente) throws Exception {
+        AtomicInteger correctas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        long[] latencias = new long[clientes * peticionesPorCliente];
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient cliente = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(ejecutor)
+                     .build()) {
+            long inicio = System.nanoTime();
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int c = 0; c < clientes; c++) {
+                int base = c * peticionesPorCliente;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < peticionesPorCliente; i++) {
+                        URI uri = uris.get((base + i) % uris.size());
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = cliente.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 200) {
+                                correctas.incrementAndGet();
+                            } else if (status == 503) {
+                                rechazadas.incrementAndGet();
+                            } else {
+                                errores.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        latencias[base + i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            Arrays.sort(latencias);
+            return new Resultado(null, correctas.get(), rechazadas.get(), errores.get(),
+                    correctas.get() / segundos, percentil(latencias, 0.50), percentil(latencias, 0.99));
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    private static String fila(Resultado r) {
+        return String.format("%-10s  %9d  %4d  %7d  %12.0f  %8.1f  %8.1f",
+                r.modo(), r.correctas(), r.rechazadas(), r.errores(), r.porSegundo(), r.p50Ms(), r.p99Ms());
+    }
+}
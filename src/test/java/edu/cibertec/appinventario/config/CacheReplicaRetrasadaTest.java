@@ -0,0 +1,157 @@
+package edu.cibertec.appinventario.config;
+
+import edu.cibertec.appinventario.dto.CategoriaRequestDto;
+import edu.cibertec.appinventario.dto.CategoriaResponseDto;
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.service.CategoriaService;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Réplica retrasada: el esquema "retrasada" de la misma base H2, que solo recibe los datos cuando la prueba
+// copia las tablas de la primaria. Tras una escritura de otro cliente, la réplica sigue con la versión
+// anterior. Hasta la primera copia el esquema no existe y la réplica queda fuera del reparto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bd_replica_retrasada;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.datasource.replicas.urls=jdbc:h2:mem:bd_replica_retrasada;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;SCHEMA=retrasada"
+})
+@ActiveProfiles("test")
+class CacheReplicaRetrasadaTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private ReplicasDataSource replicasDataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Categoria categoria;
+    private Marca marca;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        // Las escrituras se hacen como otro cliente: sin petición, el hilo no queda fijado en la primaria
+        RequestContextHolder.resetRequestAttributes();
+        LecturaPropia.limpiar();
+
+        categoria = new Categoria();
+        categoria.setNombre("Bebidas");
+        categoriaRepository.save(categoria);
+
+        marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        producto = new Producto();
+        producto.setCodigo("REP-1");
+        producto.setNombre("Nombre anterior");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(5);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        productoRepository.save(producto);
+
+        replicar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+    }
+
+    @Test
+    void laReplicaRetrasadaSirveLaVersionAnterior() {
+        productoService.update(producto.getId(), new ProductoRequestDto("REP-1", "Nombre nuevo", null,
+                BigDecimal.TEN, 5, categoria.getId(), marca.getId()));
+
+        // Las lecturas sin caché siguen yendo a la réplica, que aún no tiene la escritura
+        assertThat(productoService.getByCursor(null, 10, false, false).content())
+                .extracting(ProductoResponseDto::nombre)
+                .containsExactly("Nombre anterior");
+    }
+
+    @Test
+    void unaFilaRetrasadaNoLlegaALaCacheDeProductos() {
+        productoService.update(producto.getId(), new ProductoRequestDto("REP-1", "Nombre nuevo", null,
+                BigDecimal.TEN, 5, categoria.getId(), marca.getId()));
+        long primaria = replicasDataSource.getLecturasEnPrimaria();
+
+        assertThat(productoService.getById(producto.getId()).nombre()).isEqualTo("Nombre nuevo");
+        assertThat(productoService.findByCodigo("REP-1").nombre()).isEqualTo("Nombre nuevo");
+
+        assertThat(replicasDataSource.getLecturasEnPrimaria()).isEqualTo(primaria + 2);
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTOS).get(producto.getId(), ProductoResponseDto.class))
+                .extracting(ProductoResponseDto::nombre)
+                .isEqualTo("Nombre nuevo");
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTOS_POR_CODIGO).get("REP-1", ProductoResponseDto.class))
+                .extracting(ProductoResponseDto::nombre)
+                .isEqualTo("Nombre nuevo");
+    }
+
+    @Test
+    void unaFilaRetrasadaNoLlegaALasCachesDeCategorias() {
+        categoriaService.update(categoria.getId(), new CategoriaRequestDto("Refrescos", null));
+
+        assertThat(categoriaService.getById(categoria.getId()).nombre()).isEqualTo("Refrescos");
+        assertThat(categoriaService.getAll(false))
+                .extracting(CategoriaResponseDto::nombre)
+                .containsExactly("Refrescos");
+    }
+
+    // Copia el estado actual de la primaria en la réplica
+    private void replicar() {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS retrasada");
+        List<String> tablas = jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_schema = 'public' AND table_type = 'BASE TABLE'", String.class);
+        for (String tabla : tablas) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS retrasada." + tabla);
+            jdbcTemplate.execute("CREATE TABLE retrasada." + tabla + " AS SELECT * FROM public." + tabla);
+        }
+        // El pool de la réplica reintenta las conexiones que fallaron mientras el esquema no existía
+        for (int intento = 0; intento < 10 && replicasDataSource.getReplicasSanas().isEmpty(); intento++) {
+            replicasDataSource.comprobarSalud();
+        }
+        assertThat(replicasDataSource.getReplicasSanas()).containsExactly("replica-0");
+    }
+}
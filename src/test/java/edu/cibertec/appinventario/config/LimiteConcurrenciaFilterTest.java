@@ -0,0 +1,129 @@
+package edu.cibertec.appinventario.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteConcurrenciaFilterTest {
+
+    private final LimiteConcurrenciaFilter filter = new LimiteConcurrenciaFilter(1, Duration.ofMillis(50),
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void rechazaConServicioNoDisponibleCuandoNoHayPermisos() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salida = new CountDownLatch(1);
+
+        // La primera petición ocupa el único permiso hasta que se libera la salida
+        CompletableFuture<MockHttpServletResponse> ocupante = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(peticion("/api/productos"), response, (req, res) -> {
+                    dentro.countDown();
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filter.doFilter(peticion("/api/productos/1"), rechazada, new MockFilterChain());
+
+        assertThat(rechazada.getStatus()).isEqualTo(503);
+        assertThat(rechazada.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rechazada.getContentAsString()).contains("\"path\":\"/api/productos/1\"");
+
+        salida.countDown();
+        assertThat(ocupante.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse admitida = new MockHttpServletResponse();
+        filter.doFilter(peticion("/api/productos/1"), admitida, new MockFilterChain());
+        assertThat(admitida.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unaRespuestaEnStreamingConservaElPermisoHastaTerminar() throws Exception {
+        // Como StreamingResponseBody: la cadena inicia el procesamiento asíncrono y devuelve; la respuesta
+        // se escribe después en otro hilo
+        MockHttpServletRequest exportacion = peticion("/api/productos/export");
+        exportacion.setAsyncSupported(true);
+        MockHttpServletResponse streaming = new MockHttpServletResponse();
+        filter.doFilter(exportacion, streaming, (req, res) -> req.startAsync());
+        assertThat(exportacion.isAsyncStarted()).isTrue();
+
+        CompletableFuture<Void> escritura = CompletableFuture.runAsync(() -> {
+            try {
+                byte[] bloque = new byte[64 * 1024];
+                for (int i = 0; i < 32; i++) {
+                    streaming.getOutputStream().write(bloque);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filter.doFilter(peticion("/api/productos/1"), rechazada, new MockFilterChain());
+        assertThat(rechazada.getStatus()).isEqualTo(503);
+
+        escritura.get(5, TimeUnit.SECONDS);
+        ((MockAsyncContext) exportacion.getAsyncContext()).complete();
+        assertThat(streaming.getContentAsByteArray()).hasSize(32 * 64 * 1024);
+
+        MockHttpServletResponse admitida = new MockHttpServletResponse();
+        filter.doFilter(peticion("/api/productos/1"), admitida, new MockFilterChain());
+        assertThat(admitida.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void noLimitaRutasFueraDeLaApi() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salida = new CountDownLatch(1);
+        CompletableFuture<Void> ocupante = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(peticion("/api/productos"), new MockHttpServletResponse(), (req, res) -> {
+                    dentro.countDown();
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse documentacion = new MockHttpServletResponse();
+        filter.doFilter(peticion("/swagger-ui.html"), documentacion, new MockFilterChain());
+
+        assertThat(documentacion.getStatus()).isEqualTo(200);
+        salida.countDown();
+        ocupante.get(5, TimeUnit.SECONDS);
+    }
+
+    private static MockHttpServletRequest peticion(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.cibertec.appinventario.config;
+
+import edu.cibertec.appinventario.dto.CategoriaRequestDto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.service.CategoriaService;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Las pruebas desactivan la exportación de métricas salvo con @AutoConfigureObservability
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:bd_metricas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricasPrometheusTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @AfterEach
+    void tearDown() {
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void prometheusExponeServiciosConsultasPoolHibernateYCaches() throws Exception {
+        Integer id = categoriaService.create(new CategoriaRequestDto("Bebidas", null)).id();
+        categoriaService.getById(id);
+        productoService.getByCursor(null, 10, false, false);
+
+        String metricas = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(metricas)
+                // Servicios: histograma por clase y método
+                .containsPattern("inventario_servicio_seconds_bucket\\{[^}]*class=\"edu.cibertec.appinventario.service"
+                        + ".impl.ProductoServiceImpl\"[^}]*method=\"getByCursor\"[^}]*le=\"0.001\"")
+                .containsPattern("inventario_servicio_seconds_count\\{[^}]*class=\"edu.cibertec.appinventario"
+                        + ".service.impl.CategoriaServiceImpl\"[^}]*method=\"create\"")
+                // Consultas de repositorios
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{[^}]*repository=\"CategoriaRepository\"")
+                // Pool de conexiones, Hibernate y cachés (Spring y segundo nivel)
+                .contains("hikaricp_connections_active{")
+                .contains("hibernate_sessions_open_total{")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"categorias\"")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"hibernate.entidad.categorias\"");
+    }
+}
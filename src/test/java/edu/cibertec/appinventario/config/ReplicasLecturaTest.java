@@ -0,0 +1,132 @@
+package edu.cibertec.appinventario.config;
+
+import edu.cibertec.appinventario.dto.CategoriaRequestDto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.service.CategoriaService;
+import edu.cibertec.appinventario.service.ProductoService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// H2 como sustituto de dos réplicas: la primera apunta a la misma base de datos que la primaria
+// (replicación instantánea) y la segunda no existe, así que debe quedar fuera del reparto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bd_replicas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.datasource.replicas.urls=jdbc:h2:mem:bd_replicas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE,"
+                + "jdbc:h2:mem:replica_caida;IFEXISTS=TRUE",
+        "app.datasource.replicas.tiempo-conexion=PT0.5S"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicasLecturaTest {
+
+    @Autowired
+    private ReplicasDataSource replicasDataSource;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        LecturaPropia.limpiar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoriaRepository.deleteAll();
+        LecturaPropia.limpiar();
+    }
+
+    @Test
+    void lecturasDeSoloLecturaVanALasReplicasSanas() {
+        long replica = replicasDataSource.getLecturasPorReplica().get(0);
+        long primaria = replicasDataSource.getLecturasEnPrimaria();
+
+        for (int i = 0; i < 3; i++) {
+            productoService.getByCursor(null, 10, false, false);
+        }
+
+        assertThat(replicasDataSource.getReplicasSanas()).containsExactly("replica-0");
+        assertThat(replicasDataSource.getLecturasPorReplica()).containsExactly(replica + 3, 0L);
+        assertThat(replicasDataSource.getLecturasEnPrimaria()).isEqualTo(primaria);
+    }
+
+    @Test
+    void despuesDeEscribirLaMismaPeticionLeeDeLaPrimaria() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        try {
+            categoriaService.create(new CategoriaRequestDto("Bebidas", null));
+            long replica = replicasDataSource.getLecturasPorReplica().get(0);
+            long primaria = replicasDataSource.getLecturasEnPrimaria();
+
+            productoService.getByCursor(null, 10, false, false);
+            assertThat(replicasDataSource.getLecturasEnPrimaria()).isEqualTo(primaria + 1);
+
+            LecturaPropia.limpiar();
+            productoService.getByCursor(null, 10, false, false);
+            assertThat(replicasDataSource.getLecturasPorReplica().get(0)).isEqualTo(replica + 1);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void lasEscriturasFueraDeUnaPeticionNoFijanElHiloEnLaPrimaria() {
+        // Como en las tareas programadas: ningún filtro limpiaría la marca después. El contexto de prueba
+        // expone una petición simulada en el hilo, así que se retira
+        RequestContextHolder.resetRequestAttributes();
+        categoriaService.create(new CategoriaRequestDto("Bebidas", null));
+        long replica = replicasDataSource.getLecturasPorReplica().get(0);
+
+        productoService.getByCursor(null, 10, false, false);
+
+        assertThat(LecturaPropia.activa()).isFalse();
+        assertThat(replicasDataSource.getLecturasPorReplica().get(0)).isEqualTo(replica + 1);
+    }
+
+    @Test
+    void laCookieDeEscrituraMantieneAlClienteEnLaPrimaria() throws Exception {
+        Cookie escritura = mockMvc.perform(post("/api/categorias")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Bebidas\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(LecturaPropia.COOKIE))
+                .andReturn().getResponse().getCookie(LecturaPropia.COOKIE);
+
+        long replica = replicasDataSource.getLecturasPorReplica().get(0);
+        long primaria = replicasDataSource.getLecturasEnPrimaria();
+
+        mockMvc.perform(get("/api/productos/cursor").cookie(escritura)).andExpect(status().isOk());
+        assertThat(replicasDataSource.getLecturasEnPrimaria()).isEqualTo(primaria + 1);
+
+        mockMvc.perform(get("/api/productos/cursor")).andExpect(status().isOk());
+        assertThat(replicasDataSource.getLecturasPorReplica().get(0)).isEqualTo(replica + 1);
+    }
+}
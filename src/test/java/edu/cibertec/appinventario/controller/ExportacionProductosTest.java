@@ -0,0 +1,133 @@
+package edu.cibertec.appinventario.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportacionProductosTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @BeforeEach
+    void setUp() {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        for (int i = 0; i < 25; i++) {
+            Producto producto = new Producto();
+            producto.setCodigo("E-" + i);
+            producto.setNombre("Producto \"exportado\"\n" + i);
+            producto.setPrecio(BigDecimal.TEN);
+            producto.setStock(i);
+            producto.setCategoria(categoria);
+            producto.setMarca(marca);
+            productoRepository.save(producto);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void exportaUnProductoPorLineaEnNdjson() throws Exception {
+        List<ProductoResponseDto> productos = exportar(get("/api/productos/export"));
+
+        assertThat(productos).hasSize(25);
+        assertThat(productos).extracting(ProductoResponseDto::codigo).doesNotHaveDuplicates();
+        assertThat(productos).allSatisfy(p -> assertThat(p.nombre()).startsWith("Producto \"exportado\"\n"));
+    }
+
+    @Test
+    void losProductosDesactivadosSoloSeExportanSiSePide() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Producto producto = productoRepository.findByCodigo("E-" + i).orElseThrow();
+            producto.setActivo(false);
+            productoRepository.save(producto);
+        }
+
+        assertThat(exportar(get("/api/productos/export")))
+                .hasSize(20)
+                .allSatisfy(p -> assertThat(p.activo()).isTrue());
+        assertThat(exportar(get("/api/productos/export").param("incluirInactivos", "true")))
+                .hasSize(25);
+    }
+
+    @Test
+    void rechazaLosFormatosNoSoportados() throws Exception {
+        mockMvc.perform(get("/api/productos/export").param("format", "csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ProductoResponseDto> exportar(MockHttpServletRequestBuilder peticion) throws Exception {
+        MvcResult iniciada = mockMvc.perform(peticion)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String cuerpo = mockMvc.perform(asyncDispatch(iniciada))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Los saltos de línea dentro de los valores van escapados, así que cada línea es un producto
+        assertThat(cuerpo).endsWith("\n");
+        List<ProductoResponseDto> productos = new ArrayList<>();
+        for (String linea : cuerpo.split("\n")) {
+            assertThat(linea).startsWith("{").endsWith("}");
+            productos.add(objectMapper.readValue(linea, ProductoResponseDto.class));
+        }
+        return productos;
+    }
+}
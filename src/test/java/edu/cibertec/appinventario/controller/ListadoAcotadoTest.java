@@ -0,0 +1,150 @@
+package edu.cibertec.appinventario.controller;
+
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bd_listados;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.listados.maximo-resultados=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListadoAcotadoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    private Categoria grande;
+    private Categoria pequena;
+
+    @BeforeEach
+    void setUp() {
+        grande = categoria("Grande");
+        pequena = categoria("Pequeña");
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        for (int i = 5; i >= 1; i--) {
+            producto("G-" + i, "Producto " + i, grande, marca);
+        }
+        producto("P-1", "Producto pequeño", pequena, marca);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void dentroDelLimiteDevuelveLaListaCompleta() throws Exception {
+        mockMvc.perform(asyncDispatch(iniciar(get("/api/productos/por-categoria/{id}", pequena.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ListadoAcotado.CABECERA_STREAMING))
+                .andExpect(header().exists(HttpHeaders.CONTENT_LENGTH))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void porEncimaDelLimiteTransmiteElArregloCompleto() throws Exception {
+        double superados = superados("por-categoria");
+
+        mockMvc.perform(asyncDispatch(iniciar(get("/api/productos/por-categoria/{id}", grande.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ListadoAcotado.CABECERA_STREAMING, "true"))
+                .andExpect(jsonPath("$[*].codigo", contains("G-1", "G-2", "G-3", "G-4", "G-5")));
+        assertThat(superados("por-categoria")).isEqualTo(superados + 1);
+    }
+
+    @Test
+    void elListadoCompletoTambienSeAcota() throws Exception {
+        mockMvc.perform(asyncDispatch(iniciar(get("/api/productos"))))
+                .andExpect(jsonPath("$", hasSize(6)));
+        assertThat(superados("todos")).isPositive();
+    }
+
+    @Test
+    void laDocumentacionConservaElTipoDeLosListados() throws Exception {
+        for (String ruta : new String[]{"/api/productos", "/api/productos/por-categoria/{categoriaId}",
+                "/api/productos/por-marca/{marcaId}", "/api/productos/por-rango-precio", "/api/productos/con-stock"}) {
+            mockMvc.perform(get("/api-docs"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.paths['" + ruta + "'].get.responses['200'].content.*.schema.type",
+                            contains("array")))
+                    .andExpect(jsonPath("$.paths['" + ruta + "'].get.responses['200'].content.*.schema.items.$ref",
+                            contains("#/components/schemas/ProductoResponseDto")));
+        }
+    }
+
+    // El cuerpo se escribe en el executor de peticiones asíncronas de Spring MVC
+    private MvcResult iniciar(MockHttpServletRequestBuilder peticion) throws Exception {
+        return mockMvc.perform(peticion)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private double superados(String listado) {
+        Counter counter = meterRegistry.find(ListadoAcotado.METRICA_LIMITE_SUPERADO).tag("listado", listado).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoriaRepository.save(categoria);
+    }
+
+    private void producto(String codigo, String nombre, Categoria categoria, Marca marca) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre(nombre);
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(1);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        productoRepository.save(producto);
+    }
+}
@@ -0,0 +1,271 @@
+package edu.cibertec.appinventario.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Regresión de planes de consulta: el esquema lo crean las migraciones de Flyway (en un esquema propio)
+// y cada consulta de ProductoRepository se pasa por EXPLAIN. Con enable_seqscan = off, PostgreSQL solo
+// elige un Seq Scan sobre productos si ningún índice puede resolver la consulta, así que el resultado
+// no depende del volumen de datos de prueba. Requiere PostgreSQL 16+ (EXPLAIN GENERIC_PLAN).
+// Se ejecuta contra una instancia local (ver CargaMasivaServicePostgresTest).
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PG_TEST_URL", matches = ".+")
+class PlanesConsultaPostgresTest {
+
+    private static final String ESQUEMA = "planes_consulta";
+    private static final int FILAS = 20_000;
+    private static final PageRequest LIMITE = PageRequest.of(0, 101, Sort.by("nombre", "id"));
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        String url = System.getenv("PG_TEST_URL");
+        registry.add("spring.datasource.url",
+                () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + ESQUEMA + ",public");
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PG_TEST_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PG_TEST_PASSWORD", ""));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        // Esquema propiedad de las migraciones; Hibernate solo comprueba que coincide con las entidades
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.flyway.schemas", () -> ESQUEMA);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                SentenciasCapturadas.class::getName);
+    }
+
+    // Registra el SQL que Hibernate envía a la base de datos para poder pasarlo por EXPLAIN
+    public static class SentenciasCapturadas implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private MovimientoStockRepository movimientoStockRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        Integer productos = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM productos", Integer.class);
+        if (productos != null && productos >= FILAS) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO categorias (nombre, activo) SELECT 'Categoria ' || g, true "
+                + "FROM generate_series(1, 50) g");
+        jdbcTemplate.update("INSERT INTO marcas (nombre, activo) SELECT 'Marca ' || g, true "
+                + "FROM generate_series(1, 50) g");
+        jdbcTemplate.update("""
+                INSERT INTO productos (id, codigo, nombre, precio, stock, categoria_id, marca_id, activo)
+                SELECT nextval('productos_id_seq'), 'PLAN-' || g, 'Producto ' || md5(g::text),
+                       (g % 1000) + 0.99, g % 7,
+                       (SELECT min(id) FROM categorias) + g % 50, (SELECT min(id) FROM marcas) + g % 50,
+                       g % 10 <> 0
+                FROM generate_series(1, ?) g
+                """, FILAS);
+        // VACUUM actualiza el mapa de visibilidad que necesita el index-only scan
+        jdbcTemplate.execute("VACUUM ANALYZE categorias, marcas, productos");
+    }
+
+    @Test
+    void consultasPorClaveUsanIndices() {
+        assertSinSeqScan("findConDetalleById", () -> productoRepository.findConDetalleById(1));
+        assertSinSeqScan("findByCodigo", () -> productoRepository.findByCodigo("PLAN-1"));
+        assertSinSeqScan("existsByCodigo", () -> productoRepository.existsByCodigo("PLAN-1"));
+        assertSinSeqScan("findConDetalleByIdIn", () -> productoRepository.findConDetalleByIdIn(List.of(1, 2, 3)));
+        assertSinSeqScan("findByIdIn", () -> productoRepository.findByIdIn(List.of(1, 2, 3)));
+        assertSinSeqScan("findByCodigoIn", () -> productoRepository.findByCodigoIn(List.of("PLAN-1", "PLAN-2")));
+    }
+
+    @Test
+    void consultasPorFiltroUsanIndices() {
+        Integer categoriaId = jdbcTemplate.queryForObject("SELECT min(id) FROM categorias", Integer.class);
+        Integer marcaId = jdbcTemplate.queryForObject("SELECT min(id) FROM marcas", Integer.class);
+
+        assertSinSeqScan("findByCategoriaId", () -> productoRepository.findByCategoriaId(categoriaId, LIMITE));
+        assertSinSeqScan("findByMarcaId", () -> productoRepository.findByMarcaId(marcaId, LIMITE));
+        assertSinSeqScan("findByCategoriaNombre", () -> productoRepository.findByCategoriaNombre("Categoria 1", LIMITE));
+        assertSinSeqScan("findByMarcaNombre", () -> productoRepository.findByMarcaNombre("Marca 1", LIMITE));
+        assertSinSeqScan("findByStockGreaterThan", () -> productoRepository.findByStockGreaterThan(0, LIMITE));
+        assertSinSeqScan("findByPrecioBetween",
+                () -> productoRepository.findByPrecioBetween(BigDecimal.ONE, BigDecimal.TEN, LIMITE));
+        assertSinSeqScan("findByActivoTrue", () -> productoRepository.findByActivoTrue(LIMITE));
+        assertSinSeqScan("buscarIdsPorNombre",
+                () -> productoRepository.buscarIdsPorNombre("producto", "%producto%", PageRequest.of(0, 10)));
+        assertSinSeqScan("filtrar", () -> productoService.filtrar(
+                new FiltroProductoDto(categoriaId, null, BigDecimal.ONE, null, true, true, "prod"), null, 10, true));
+    }
+
+    @Test
+    void listadosEnStreamingUsanIndices() {
+        Integer categoriaId = jdbcTemplate.queryForObject("SELECT min(id) FROM categorias", Integer.class);
+        Integer marcaId = jdbcTemplate.queryForObject("SELECT min(id) FROM marcas", Integer.class);
+
+        assertSinSeqScan("streamByCategoriaId", () -> primero(productoRepository.streamByCategoriaId(categoriaId)));
+        assertSinSeqScan("streamByMarcaId", () -> primero(productoRepository.streamByMarcaId(marcaId)));
+        assertSinSeqScan("streamByStockGreaterThan", () -> primero(productoRepository.streamByStockGreaterThan(0)));
+        assertSinSeqScan("streamByPrecioBetween",
+                () -> primero(productoRepository.streamByPrecioBetween(BigDecimal.ONE, BigDecimal.TEN)));
+        assertSinSeqScan("streamAllConDetalleOrdenados",
+                () -> primero(productoRepository.streamAllConDetalleOrdenados()));
+    }
+
+    @Test
+    void lecturasPorDefectoSoloActivasUsanIndices() {
+        Integer categoriaId = jdbcTemplate.queryForObject("SELECT min(id) FROM categorias", Integer.class);
+
+        assertSinSeqScan("getByCursor", () -> productoService.getByCursor(null, 10, true, false));
+        assertSinSeqScan("getResumenByCursor", () -> productoService.getResumenByCursor(null, 10, false));
+        assertSinSeqScan("findByCategoria", () -> productoService.findByCategoria(categoriaId, false, 100));
+        assertSinSeqScan("findByRangoPrecio",
+                () -> productoService.findByRangoPrecio(BigDecimal.ONE, BigDecimal.TEN, false, 100));
+        assertSinSeqScan("buscarIdsPorNombreIncluyendoInactivos", () -> productoRepository
+                .buscarIdsPorNombreIncluyendoInactivos("producto", "%producto%", PageRequest.of(0, 10)));
+        assertSinSeqScan("findParaArchivar",
+                () -> productoRepository.findParaArchivar(LocalDateTime.now(), PageRequest.ofSize(100)));
+    }
+
+    @Test
+    void paginacionPorClaveUsaIndices() {
+        assertSinSeqScan("findPrimerosConDetalle", () -> productoRepository.findPrimerosConDetalle(PageRequest.ofSize(11)));
+        assertSinSeqScan("findSiguientesConDetalle",
+                () -> productoRepository.findSiguientesConDetalle("Producto 5", 1, PageRequest.ofSize(11)));
+        assertSinSeqScan("findPrimerosResumen", () -> productoRepository.findPrimerosResumen(PageRequest.ofSize(11)));
+        assertSinSeqScan("findSiguientesResumen",
+                () -> productoRepository.findSiguientesResumen("Producto 5", 1, PageRequest.ofSize(11)));
+        assertSinSeqScan("streamTextoIndexable", () -> {
+            try (var textos = productoRepository.streamTextoIndexable()) {
+                return textos.limit(1).toList();
+            }
+        });
+    }
+
+    @Test
+    void listadoResumidoSeResuelveSoloConElIndice() {
+        List<JsonNode> planes = explicar(() -> productoRepository.findPrimerosResumen(PageRequest.ofSize(11)));
+
+        assertThat(planes).singleElement()
+                .satisfies(plan -> assertThat(nodos(plan)).extracting(n -> n.path("Node Type").asText())
+                        .contains("Index Only Scan"));
+    }
+
+    @Test
+    void stockVigenteUsaLaClavePrimaria() {
+        assertSinSeqScan("bloquearParaStock", () -> productoRepository.bloquearParaStock(1));
+        assertSinSeqScan("stockVigente", () -> movimientoStockRepository.stockVigente(1));
+        assertSinSeqScan("stockVigente (lote)", () -> movimientoStockRepository.stockVigente(List.of(1, 2, 3)));
+    }
+
+    private static <T> List<T> primero(Stream<T> stream) {
+        try (stream) {
+            return stream.limit(1).toList();
+        }
+    }
+
+    private void assertSinSeqScan(String consulta, Supplier<?> llamada) {
+        for (JsonNode plan : explicar(llamada)) {
+            assertThat(nodos(plan))
+                    .as("Plan de %s:%n%s", consulta, plan.toPrettyString())
+                    .noneSatisfy(n -> {
+                        assertThat(n.path("Node Type").asText()).isEqualTo("Seq Scan");
+                        assertThat(n.path("Relation Name").asText()).isIn("productos", "movimientos_stock");
+                    });
+        }
+    }
+
+    // Ejecuta la llamada, captura el SQL de productos que genera y devuelve el plan genérico de cada sentencia
+    private List<JsonNode> explicar(Supplier<?> llamada) {
+        SentenciasCapturadas.SQL.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            llamada.get();
+            status.setRollbackOnly();
+        });
+        List<String> sentencias = SentenciasCapturadas.SQL.stream()
+                .filter(sql -> sql.contains("productos"))
+                .toList();
+        assertThat(sentencias).as("Sentencias capturadas").isNotEmpty();
+        return sentencias.stream().map(this::planGenerico).toList();
+    }
+
+    private JsonNode planGenerico(String sql) {
+        // Los parámetros JDBC (?) se sustituyen por $n para obtener el plan genérico de la sentencia preparada
+        StringBuilder explain = new StringBuilder("EXPLAIN (GENERIC_PLAN, FORMAT JSON) ");
+        int parametro = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                explain.append('$').append(++parametro);
+            } else {
+                explain.append(c);
+            }
+        }
+        String json = jdbcTemplate.execute((ConnectionCallback<String>) con -> {
+            try (Statement st = con.createStatement()) {
+                st.execute("SET enable_seqscan = off");
+                try (var rs = st.executeQuery(explain.toString())) {
+                    rs.next();
+                    return rs.getString(1);
+                } finally {
+                    st.execute("RESET enable_seqscan");
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(json).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Plan no válido para: " + sql, e);
+        }
+    }
+
+    private static List<JsonNode> nodos(JsonNode plan) {
+        List<JsonNode> nodos = new ArrayList<>();
+        nodos.add(plan);
+        for (JsonNode hijo : plan.path("Plans")) {
+            nodos.addAll(nodos(hijo));
+        }
+        return nodos;
+    }
+}
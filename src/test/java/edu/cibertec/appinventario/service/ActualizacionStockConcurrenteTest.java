@@ -0,0 +1,131 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActualizacionStockConcurrenteTest {
+
+    private static final int HILOS = 32;
+    private static final int PETICIONES = 400;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        producto = new Producto();
+        producto.setCodigo("STOCK-1");
+        producto.setNombre("Producto concurrente");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(100);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        producto = productoRepository.save(producto);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void incrementosConcurrentesNoSePierden() throws Exception {
+        AtomicInteger rechazadas = ejecutarEnParalelo(1);
+
+        assertThat(rechazadas).hasValue(0);
+        assertThat(movimientoStockService.stockVigente(producto.getId())).isEqualTo(100 + PETICIONES);
+        assertThat(stockCompactado()).isEqualTo(100 + PETICIONES);
+    }
+
+    @Test
+    void decrementosConcurrentesNoDejanStockNegativo() throws Exception {
+        AtomicInteger rechazadas = ejecutarEnParalelo(-1);
+
+        // Solo pueden aplicarse tantos decrementos como unidades había
+        assertThat(rechazadas).hasValue(PETICIONES - 100);
+        assertThat(movimientoStockService.stockVigente(producto.getId())).isZero();
+        assertThat(stockCompactado()).isZero();
+    }
+
+    private AtomicInteger ejecutarEnParalelo(int cantidad) throws Exception {
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < PETICIONES; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        productoService.actualizarStock(producto.getId(), cantidad);
+                    } catch (BadRequestException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return rechazadas;
+    }
+
+    // productos.stock una vez aplicados los movimientos pendientes
+    private int stockCompactado() {
+        movimientoStockService.compactar();
+        return productoRepository.findById(producto.getId()).orElseThrow().getStock();
+    }
+}
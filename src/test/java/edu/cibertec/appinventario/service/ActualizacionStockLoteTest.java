@@ -0,0 +1,141 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.LoteStockResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockRequestDto;
+import edu.cibertec.appinventario.dto.MovimientoStockResultadoDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActualizacionStockLoteTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Producto conStock;
+    private Producto escaso;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        conStock = productoRepository.save(producto("LOTE-1", 10, categoria, marca));
+        escaso = productoRepository.save(producto("LOTE-2", 3, categoria, marca));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void lasLineasSinReferenciaOConProductoInexistenteSeRechazanSinAfectarAlResto() {
+        LoteStockResponseDto resultado = productoService.actualizarStockEnLote(new LoteStockRequestDto(List.of(
+                new MovimientoStockRequestDto(null, null, 5),
+                new MovimientoStockRequestDto(-1, null, 5),
+                new MovimientoStockRequestDto(null, "NO-EXISTE", 5),
+                new MovimientoStockRequestDto(null, "LOTE-1", 2))));
+
+        assertThat(resultado.total()).isEqualTo(4);
+        assertThat(resultado.aplicados()).isEqualTo(1);
+        assertThat(resultado.rechazados()).isEqualTo(3);
+        assertThat(resultado.resultados())
+                .extracting(MovimientoStockResultadoDto::linea, MovimientoStockResultadoDto::aplicado,
+                        MovimientoStockResultadoDto::mensaje)
+                .containsExactly(
+                        tuple(0, false, "Debe indicar el id o el código del producto"),
+                        tuple(1, false, "Producto no encontrado"),
+                        tuple(2, false, "Producto no encontrado"),
+                        tuple(3, true, "Stock actualizado"));
+        // La línea por código se resuelve al ID del producto
+        assertThat(resultado.resultados().get(3).id()).isEqualTo(conStock.getId());
+        assertThat(movimientoStockService.stockVigente(conStock.getId())).isEqualTo(12);
+    }
+
+    @Test
+    void unaLineaSinStockSuficienteNoImpideAplicarLasDemas() {
+        LoteStockResponseDto resultado = productoService.actualizarStockEnLote(new LoteStockRequestDto(List.of(
+                new MovimientoStockRequestDto(conStock.getId(), null, -4),
+                new MovimientoStockRequestDto(escaso.getId(), null, -5),
+                new MovimientoStockRequestDto(null, "LOTE-2", -3))));
+
+        assertThat(resultado.resultados())
+                .extracting(MovimientoStockResultadoDto::aplicado, MovimientoStockResultadoDto::mensaje)
+                .containsExactly(
+                        tuple(true, "Stock actualizado"),
+                        tuple(false, "No hay suficiente stock disponible"),
+                        tuple(true, "Stock actualizado"));
+        assertThat(movimientoStockService.stockVigente(conStock.getId())).isEqualTo(6);
+        assertThat(movimientoStockService.stockVigente(escaso.getId())).isZero();
+    }
+
+    @Test
+    void unaSalidaPuedeApoyarseEnUnaEntradaAnteriorDelMismoLote() {
+        LoteStockResponseDto resultado = productoService.actualizarStockEnLote(new LoteStockRequestDto(List.of(
+                new MovimientoStockRequestDto(escaso.getId(), null, -5),
+                new MovimientoStockRequestDto(escaso.getId(), null, 4),
+                new MovimientoStockRequestDto(null, "LOTE-2", -5),
+                new MovimientoStockRequestDto(escaso.getId(), null, -3))));
+
+        // La primera salida no cuenta con la entrada posterior; la tercera sí con la anterior
+        assertThat(resultado.resultados())
+                .extracting(MovimientoStockResultadoDto::aplicado)
+                .containsExactly(false, true, true, false);
+        assertThat(productoService.getById(escaso.getId()).stock()).isEqualTo(2);
+    }
+
+    private static Producto producto(String codigo, int stock, Categoria categoria, Marca marca) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(stock);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        return producto;
+    }
+}
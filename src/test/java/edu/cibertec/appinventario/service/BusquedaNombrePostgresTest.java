@@ -0,0 +1,167 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.PageResponseDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las búsquedas usan pg_trgm: se ejecuta contra una instancia local de PostgreSQL (ver CargaMasivaServicePostgresTest).
+// Con PG_TEST_BENCHMARK=true se carga además 1 millón de productos y se miden las latencias de búsqueda
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PG_TEST_URL", matches = ".+")
+class BusquedaNombrePostgresTest {
+
+    private static final int FILAS_BENCHMARK = 1_000_000;
+    private static final int REPETICIONES = 200;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("PG_TEST_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PG_TEST_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PG_TEST_PASSWORD", ""));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Categoria categoria;
+    private Marca marca;
+
+    @BeforeEach
+    void setUp() {
+        // El esquema lo crea Hibernate; los índices de trigramas se aplican con la migración real
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V3__indices_trigramas_nombre.sql"))
+                .execute(dataSource);
+
+        categoria = new Categoria();
+        categoria.setNombre("Ferretería");
+        categoriaRepository.save(categoria);
+
+        marca = new Marca();
+        marca.setNombre("Acme");
+        marcaRepository.save(marca);
+
+        insertarProductos(List.of("Tornillo hexagonal", "Destornillador plano", "Martillo de goma",
+                "Tornillos autorroscantes", "Taladro percutor"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void buscaPorSubcadenaOrdenandoPorRelevancia() {
+        PageResponseDto<ProductoResponseDto> pagina = productoService.findByNombre("TORNILLO", 0, 10, false);
+
+        // Primero los que empiezan por el texto, luego el resto de coincidencias
+        List<String> nombres = pagina.content().stream().map(ProductoResponseDto::nombre).toList();
+        assertThat(nombres.subList(0, 2)).containsExactlyInAnyOrder("Tornillo hexagonal", "Tornillos autorroscantes");
+        assertThat(nombres.get(2)).isEqualTo("Destornillador plano");
+        assertThat(pagina.totalElements()).isEqualTo(3);
+        assertThat(pagina.content().get(0).categoria().nombre()).isEqualTo("Ferretería");
+    }
+
+    @Test
+    void toleraErroresDeTipeoYPagina() {
+        assertThat(productoService.findByNombre("martilo de goma", 0, 10, false).content())
+                .extracting(ProductoResponseDto::nombre)
+                .contains("Martillo de goma");
+
+        PageResponseDto<ProductoResponseDto> segunda = productoService.findByNombre("tornillo", 1, 2, false);
+        assertThat(segunda.content()).hasSize(1);
+        assertThat(segunda.hasNext()).isFalse();
+
+        assertThat(categoriaService.findByNombre("ferre", 0, 10, false).content()).hasSize(1);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "PG_TEST_BENCHMARK", matches = "true")
+    void latenciaDeBusquedaConUnMillonDeProductos() {
+        jdbcTemplate.update("""
+                INSERT INTO productos (id, codigo, nombre, precio, stock, categoria_id, marca_id, activo, fecha_creacion)
+                SELECT nextval('productos_id_seq'), 'BM-' || g,
+                       (ARRAY['Tornillo', 'Tuerca', 'Arandela', 'Clavo', 'Perno'])[1 + g % 5] || ' ' || md5(g::text),
+                       10, 1, ?, ?, true, now()
+                FROM generate_series(1, ?) g
+                """, categoria.getId(), marca.getId(), FILAS_BENCHMARK);
+        jdbcTemplate.execute("ANALYZE productos");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT p.id FROM productos p
+                WHERE lower(p.nombre) LIKE '%a1b2%' OR lower(p.nombre) % 'a1b2'
+                """, String.class));
+        assertThat(plan).contains("idx_productos_nombre_trgm");
+
+        for (String texto : List.of("tuerca a1b", "arandela ff0", "3c59d")) {
+            long[] tiempos = new long[REPETICIONES];
+            for (int i = 0; i < REPETICIONES; i++) {
+                long inicio = System.nanoTime();
+                productoService.findByNombre(texto, 0, 20, false);
+                tiempos[i] = System.nanoTime() - inicio;
+            }
+            Arrays.sort(tiempos);
+            log.info("Búsqueda '{}' sobre {} filas: p50 {} ms, p95 {} ms, p99 {} ms",
+                    texto, FILAS_BENCHMARK, milisegundos(tiempos[REPETICIONES / 2]),
+                    milisegundos(tiempos[REPETICIONES * 95 / 100]), milisegundos(tiempos[REPETICIONES * 99 / 100]));
+        }
+    }
+
+    private static String milisegundos(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private void insertarProductos(List<String> nombres) {
+        for (int i = 0; i < nombres.size(); i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO productos (id, codigo, nombre, precio, stock, categoria_id, marca_id, activo, fecha_creacion)
+                    VALUES (nextval('productos_id_seq'), ?, ?, 10, 1, ?, ?, true, now())
+                    """, "BUS-" + i, nombres.get(i), categoria.getId(), marca.getId());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CargaResultadoDto;
+import edu.cibertec.appinventario.dto.EntidadCarga;
+import edu.cibertec.appinventario.dto.FormatoCarga;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// COPY solo existe en PostgreSQL: se ejecuta contra una instancia local, por ejemplo
+// PG_TEST_URL=jdbc:postgresql://localhost:5432/bd_inventario_test PG_TEST_USER=postgres PG_TEST_PASSWORD=postgres
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PG_TEST_URL", matches = ".+")
+class CargaMasivaServicePostgresTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("PG_TEST_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PG_TEST_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PG_TEST_PASSWORD", ""));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private CargaMasivaService cargaMasivaService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private MarcaService marcaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void cargaCatalogosYRechazaFilasInvalidas() {
+        CargaResultadoDto categorias = cargar(EntidadCarga.CATEGORIAS, FormatoCarga.CSV, """
+                nombre,descripcion
+                Bebidas,Bebidas frías
+                Limpieza,
+                Bebidas,Duplicada
+                """);
+        assertThat(categorias.leidos()).isEqualTo(3);
+        assertThat(categorias.insertados()).isEqualTo(2);
+
+        CargaResultadoDto marcas = cargar(EntidadCarga.MARCAS, FormatoCarga.NDJSON, """
+                {"nombre": "Acme", "paisOrigen": "Perú"}
+                {"nombre": "Globex", "descripcion": "Marca \\"global\\""}
+                """);
+        assertThat(marcas.insertados()).isEqualTo(2);
+
+        Integer categoriaId = categoriaRepository.findAll().get(0).getId();
+        Integer marcaId = marcaRepository.findAll().get(0).getId();
+
+        StringBuilder csv = new StringBuilder("codigo,nombre,descripcion,precio,stock,categoria_id,marca_id\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("CP-").append(i).append(",Producto ").append(i).append(",,10.50,5,")
+                    .append(categoriaId).append(',').append(marcaId).append('\n');
+        }
+        // Código repetido, categoría inexistente y precio no numérico
+        csv.append("CP-0,Repetido,,1,1,").append(categoriaId).append(',').append(marcaId).append('\n');
+        csv.append("CP-X,Sin categoria,,1,1,-1,").append(marcaId).append('\n');
+        csv.append("CP-Y,Precio malo,,abc,1,").append(categoriaId).append(',').append(marcaId).append('\n');
+
+        CargaResultadoDto productos = cargar(EntidadCarga.PRODUCTOS, FormatoCarga.CSV, csv.toString());
+        assertThat(productos.leidos()).isEqualTo(123);
+        assertThat(productos.insertados()).isEqualTo(120);
+        assertThat(productos.rechazados()).isEqualTo(3);
+
+        List<Producto> cargados = productoRepository.findAll();
+        assertThat(cargados).extracting(Producto::getId).doesNotHaveDuplicates();
+
+        // Los IDs reservados por la carga no chocan con los que asigna Hibernate después
+        Producto nuevo = new Producto();
+        nuevo.setCodigo("JPA-1");
+        nuevo.setNombre("Producto JPA");
+        nuevo.setPrecio(BigDecimal.ONE);
+        nuevo.setStock(1);
+        nuevo.setCategoria(cargados.get(0).getCategoria());
+        nuevo.setMarca(cargados.get(0).getMarca());
+        productoRepository.save(nuevo);
+        assertThat(productoRepository.count()).isEqualTo(121);
+    }
+
+    @Test
+    void laCargaVaciaLosListadosCacheadosDelCatalogo() {
+        // Llenar la caché de listados antes de la carga
+        assertThat(categoriaService.getAllSimple()).isEmpty();
+        assertThat(marcaService.getAll(false)).isEmpty();
+
+        cargar(EntidadCarga.CATEGORIAS, FormatoCarga.CSV, """
+                nombre,descripcion
+                Bebidas,Bebidas frías
+                """);
+        cargar(EntidadCarga.MARCAS, FormatoCarga.NDJSON, """
+                {"nombre": "Acme", "paisOrigen": "Perú"}
+                """);
+
+        assertThat(categoriaService.getAllSimple()).hasSize(1);
+        assertThat(marcaService.getAll(false)).hasSize(1);
+    }
+
+    private CargaResultadoDto cargar(EntidadCarga entidad, FormatoCarga formato, String contenido) {
+        return cargaMasivaService.cargar(entidad, formato,
+                new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,89 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.config.CacheConfig;
+import edu.cibertec.appinventario.dto.CategoriaRequestDto;
+import edu.cibertec.appinventario.dto.CategoriaResponseDto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogoCacheTest {
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private CategoriaResponseDto categoria;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        categoria = categoriaService.create(new CategoriaRequestDto("Bebidas", "Bebidas frías"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void lecturasRepetidasNoConsultanLaBaseDeDatos() {
+        categoriaService.getAll(false);
+        categoriaService.getAllSimple();
+        categoriaService.getById(categoria.id());
+        categoriaService.existsById(categoria.id());
+
+        statistics.clear();
+        assertThat(categoriaService.getAll(false)).hasSize(1);
+        assertThat(categoriaService.getAllSimple()).hasSize(1);
+        assertThat(categoriaService.getById(categoria.id()).nombre()).isEqualTo("Bebidas");
+        assertThat(categoriaService.existsById(categoria.id())).isTrue();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void escriturasInvalidanLasEntradasAfectadas() {
+        categoriaService.getById(categoria.id());
+        categoriaService.getAll(false);
+
+        categoriaService.update(categoria.id(), new CategoriaRequestDto("Gaseosas", "Bebidas frías"));
+        assertThat(categoriaService.getById(categoria.id()).nombre()).isEqualTo("Gaseosas");
+        assertThat(categoriaService.getAll(false)).extracting(CategoriaResponseDto::nombre).containsExactly("Gaseosas");
+
+        categoriaService.create(new CategoriaRequestDto("Limpieza", null));
+        assertThat(categoriaService.getAll(false)).hasSize(2);
+
+        categoriaService.delete(categoria.id());
+        assertThat(categoriaService.getAllSimple()).hasSize(1);
+    }
+
+    @Test
+    void existsByIdNoCacheaIdsInexistentes() {
+        assertThat(categoriaService.existsById(-1)).isFalse();
+        assertThat(cacheManager.getCache(CacheConfig.CATEGORIAS_EXISTENTES).get(-1)).isNull();
+    }
+}
@@ -0,0 +1,210 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.LoteStockResponseDto;
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.dto.MovimientoStockRequestDto;
+import edu.cibertec.appinventario.dto.MovimientoStockResultadoDto;
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovimientosStockTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Categoria categoria;
+    private Marca marca;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        producto = new Producto();
+        producto.setCodigo("MOV-1");
+        producto.setNombre("Producto con movimientos");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(10);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        producto = productoRepository.save(producto);
+
+        // Partir sin pendientes de otras pruebas
+        movimientoStockService.compactar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void losMovimientosCuentanAntesDeCompactarseYLuegoPasanAlProducto() {
+        productoService.actualizarStock(producto.getId(), 5);
+        assertThat(productoService.actualizarStock(producto.getId(), -3).stock()).isEqualTo(12);
+
+        // Solo se insertaron movimientos: la fila del producto conserva la última compactación
+        assertThat(stockCompactado()).isEqualTo(10);
+        assertThat(productoService.getById(producto.getId()).stock()).isEqualTo(12);
+        assertThat(productoService.findByCodigo("MOV-1").stock()).isEqualTo(12);
+
+        assertThat(movimientoStockService.compactar()).isEqualTo(2);
+
+        assertThat(stockCompactado()).isEqualTo(12);
+        assertThat(movimientoStockService.stockVigente(producto.getId())).isEqualTo(12);
+        assertThat(movimientoStockService.getHistorial(producto.getId(), null, 10).content())
+                .extracting(MovimientoStockDto::cantidad, MovimientoStockDto::aplicado)
+                .containsExactly(tuple(-3, true), tuple(5, true));
+    }
+
+    @Test
+    void lasSalidasSeValidanContraElStockVigente() {
+        productoService.actualizarStock(producto.getId(), 5);
+
+        assertThat(productoService.actualizarStock(producto.getId(), -15).stock()).isZero();
+        assertThatThrownBy(() -> productoService.actualizarStock(producto.getId(), -1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void historialPaginadoDelMasRecienteAlMasAntiguo() {
+        for (int cantidad = 1; cantidad <= 5; cantidad++) {
+            productoService.actualizarStock(producto.getId(), cantidad);
+        }
+
+        List<Integer> cantidades = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            CursorPageResponseDto<MovimientoStockDto> pagina =
+                    movimientoStockService.getHistorial(producto.getId(), cursor, 2);
+            pagina.content().forEach(m -> cantidades.add(m.cantidad()));
+            cursor = pagina.nextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(3);
+        assertThat(cantidades).containsExactly(5, 4, 3, 2, 1);
+        assertThatThrownBy(() -> movimientoStockService.getHistorial(producto.getId(), "no-es-un-cursor", 2))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void editarElProductoRegistraLaDiferenciaComoAjuste() {
+        productoService.actualizarStock(producto.getId(), 4);
+
+        ProductoRequestDto edicion = new ProductoRequestDto("MOV-1", "Producto editado", null, BigDecimal.ONE,
+                7, categoria.getId(), marca.getId());
+        assertThat(productoService.update(producto.getId(), edicion).stock()).isEqualTo(7);
+
+        assertThat(movimientoStockService.getHistorial(producto.getId(), null, 1).content())
+                .singleElement()
+                .satisfies(m -> {
+                    assertThat(m.tipo()).isEqualTo(TipoMovimientoStock.AJUSTE);
+                    assertThat(m.cantidad()).isEqualTo(-7);
+                });
+        movimientoStockService.compactar();
+        assertThat(stockCompactado()).isEqualTo(7);
+    }
+
+    @Test
+    void elLoteSeValidaLineaALineaContraElStockVigente() {
+        LoteStockResponseDto resultado = productoService.actualizarStockEnLote(new LoteStockRequestDto(List.of(
+                new MovimientoStockRequestDto(producto.getId(), null, 5),
+                new MovimientoStockRequestDto(null, "MOV-1", -15),
+                new MovimientoStockRequestDto(producto.getId(), null, -1))));
+
+        assertThat(resultado.resultados()).extracting(MovimientoStockResultadoDto::aplicado)
+                .containsExactly(true, true, false);
+        assertThat(movimientoStockService.stockVigente(producto.getId())).isZero();
+        assertThat(movimientoStockService.getHistorial(producto.getId(), null, 10).content())
+                .extracting(MovimientoStockDto::tipo)
+                .containsOnly(TipoMovimientoStock.LOTE)
+                .hasSize(2);
+    }
+
+    @Test
+    void guardarUnProductoCargadoAntesDeUnaCompactacionNoLaDeshace() {
+        productoService.actualizarStock(producto.getId(), 5);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Producto cargado = productoRepository.findById(producto.getId()).orElseThrow();
+            assertThat(cargado.getStock()).isEqualTo(10);
+
+            // La compactación se confirma en otra transacción entre la carga y el guardado
+            try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+                assertThat(executor.submit(movimientoStockService::compactar).get()).isEqualTo(1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+
+            cargado.setNombre("Producto editado");
+            productoRepository.saveAndFlush(cargado);
+        });
+
+        assertThat(stockCompactado()).isEqualTo(15);
+        assertThat(movimientoStockService.stockVigente(producto.getId())).isEqualTo(15);
+    }
+
+    private int stockCompactado() {
+        return productoRepository.findById(producto.getId()).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,115 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.exception.ResourceNotFoundException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoCacheTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Categoria categoria;
+    private Marca marca;
+    private ProductoResponseDto producto;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        producto = productoService.create(solicitud("SKU-1", "Producto caliente"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void lecturasRepetidasNoConsultanLaBaseDeDatos() {
+        productoService.findByCodigo("SKU-1");
+        productoService.getById(producto.id());
+
+        statistics.clear();
+        assertThat(productoService.findByCodigo("SKU-1").categoria().nombre()).isEqualTo("Categoria");
+        assertThat(productoService.getById(producto.id()).marca().nombre()).isEqualTo("Marca");
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void actualizarStockInvalidaAmbasEntradas() {
+        productoService.findByCodigo("SKU-1");
+        productoService.getById(producto.id());
+
+        productoService.actualizarStock(producto.id(), 5);
+
+        assertThat(productoService.findByCodigo("SKU-1").stock()).isEqualTo(15);
+        assertThat(productoService.getById(producto.id()).stock()).isEqualTo(15);
+    }
+
+    @Test
+    void updateInvalidaElCodigoAnterior() {
+        productoService.findByCodigo("SKU-1");
+
+        productoService.update(producto.id(), solicitud("SKU-2", "Producto renombrado"));
+
+        assertThatThrownBy(() -> productoService.findByCodigo("SKU-1"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(productoService.findByCodigo("SKU-2").nombre()).isEqualTo("Producto renombrado");
+    }
+
+    private ProductoRequestDto solicitud(String codigo, String nombre) {
+        return new ProductoRequestDto(codigo, nombre, null, BigDecimal.TEN, 10,
+                categoria.getId(), marca.getId());
+    }
+}
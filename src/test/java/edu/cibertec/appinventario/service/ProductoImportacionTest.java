@@ -0,0 +1,145 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ErrorImportacionDto;
+import edu.cibertec.appinventario.dto.ImportacionResultadoDto;
+import edu.cibertec.appinventario.dto.ProductoRequestDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoImportacionTest {
+
+    @Autowired
+    private ProductoImportacionService productoImportacionService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    private Categoria categoria;
+    private Marca marca;
+
+    @BeforeEach
+    void setUp() {
+        categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        Producto existente = new Producto();
+        existente.setCodigo("IMP-0");
+        existente.setNombre("Producto existente");
+        existente.setPrecio(BigDecimal.TEN);
+        existente.setStock(1);
+        existente.setCategoria(categoria);
+        existente.setMarca(marca);
+        productoRepository.save(existente);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void cadaFilaRechazadaIndicaSuPosicionYElMotivo() {
+        ImportacionResultadoDto resultado = productoImportacionService.importar(List.of(
+                producto("IMP-1", "Válido", categoria.getId(), marca.getId()),
+                producto("IMP-2", "", categoria.getId(), marca.getId()),
+                producto("IMP-1", "Código repetido", categoria.getId(), marca.getId()),
+                producto("IMP-0", "Ya existe", categoria.getId(), marca.getId()),
+                producto("IMP-3", "Sin categoría", -1, marca.getId()),
+                producto("IMP-4", "Sin marca", categoria.getId(), -1)));
+
+        assertThat(resultado.recibidos()).isEqualTo(6);
+        assertThat(resultado.insertados()).isEqualTo(1);
+        assertThat(resultado.rechazados()).isEqualTo(5);
+        assertThat(resultado.errores())
+                .extracting(ErrorImportacionDto::linea, ErrorImportacionDto::codigo)
+                .containsExactlyInAnyOrder(tuple(2, "IMP-2"), tuple(3, "IMP-1"), tuple(4, "IMP-0"),
+                        tuple(5, "IMP-3"), tuple(6, "IMP-4"));
+        assertThat(resultado.errores())
+                .extracting(ErrorImportacionDto::mensaje)
+                .containsExactlyInAnyOrder(
+                        "nombre: El nombre debe tener entre 2 y 100 caracteres; nombre: El nombre es obligatorio",
+                        "Código repetido en la importación",
+                        "Ya existe un producto con el código: IMP-0",
+                        "Categoria no encontrada con id: '-1'",
+                        "Marca no encontrada con id: '-1'");
+        assertThat(productoRepository.existsByCodigo("IMP-1")).isTrue();
+    }
+
+    @Test
+    void elCsvNumeraLasFilasDeDatosSinCabeceraNiLineasEnBlanco() {
+        String csv = """
+                ﻿codigo,nombre,descripcion,precio,stock,categoriaId,marcaId
+                IMP-1,"Arroz, extra","Bolsa de 5 kg, grano ""largo\""",10.50,3,%1$d,%2$d
+
+                IMP-2,Azúcar,,caro,3,%1$d,%2$d
+                IMP-3,Harina,,4.20,7,%1$d,-1
+                """.formatted(categoria.getId(), marca.getId());
+
+        ImportacionResultadoDto resultado = productoImportacionService.importarCsv(flujo(csv));
+
+        assertThat(resultado.recibidos()).isEqualTo(3);
+        assertThat(resultado.insertados()).isEqualTo(1);
+        assertThat(resultado.errores())
+                .extracting(ErrorImportacionDto::linea, ErrorImportacionDto::codigo, ErrorImportacionDto::mensaje)
+                .containsExactlyInAnyOrder(
+                        tuple(2, "IMP-2", "Valor numérico no válido en precio, stock, categoriaId o marcaId"),
+                        tuple(3, "IMP-3", "Marca no encontrada con id: '-1'"));
+
+        Producto importado = productoRepository.findByCodigo("IMP-1").orElseThrow();
+        assertThat(importado.getNombre()).isEqualTo("Arroz, extra");
+        assertThat(importado.getDescripcion()).isEqualTo("Bolsa de 5 kg, grano \"largo\"");
+    }
+
+    @Test
+    void unCsvSinLasColumnasObligatoriasSeRechazaCompleto() {
+        assertThatThrownBy(() -> productoImportacionService.importarCsv(flujo("codigo,nombre\nIMP-1,Arroz\n")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("precio");
+        assertThatThrownBy(() -> productoImportacionService.importarCsv(flujo("")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private ProductoRequestDto producto(String codigo, String nombre, Integer categoriaId, Integer marcaId) {
+        return new ProductoRequestDto(codigo, nombre, null, BigDecimal.ONE, 5, categoriaId, marcaId);
+    }
+
+    private static InputStream flujo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
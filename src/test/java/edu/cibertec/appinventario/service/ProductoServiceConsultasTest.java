@@ -0,0 +1,338 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.CursorPageResponseDto;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.dto.FiltroProductosResponseDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.dto.ProductoSimpleDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductoServiceConsultasTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private ConteoEstimadoService conteoEstimadoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Categoria categoria;
+    private Marca marca;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Varias categorías y marcas distintas para que un N+1 sea visible en el conteo
+        for (int i = 0; i < 3; i++) {
+            Categoria c = new Categoria();
+            c.setNombre("Categoria " + i);
+            categoria = categoriaRepository.save(c);
+
+            Marca m = new Marca();
+            m.setNombre("Marca " + i);
+            marca = marcaRepository.save(m);
+
+            for (int j = 0; j < 3; j++) {
+                Producto p = new Producto();
+                p.setCodigo("P-" + i + "-" + j);
+                p.setNombre("Producto " + i + "-" + j);
+                p.setPrecio(BigDecimal.valueOf(10L + j));
+                p.setStock(j);
+                p.setCategoria(categoria);
+                p.setMarca(marca);
+                productoRepository.save(p);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void getAllEjecutaUnaSolaConsulta() {
+        List<ProductoResponseDto> productos = contarSentencias(1, () -> productoService.getAll(false, 100));
+
+        assertThat(productos).hasSize(9);
+        assertThat(productos).allSatisfy(p -> {
+            assertThat(p.categoria().nombre()).isNotNull();
+            assertThat(p.marca().nombre()).isNotNull();
+        });
+    }
+
+    @Test
+    void getPaginatedEjecutaConsultaYConteo() {
+        var pagina = contarSentencias(2, () -> productoService.getPaginated(0, 5, true, false));
+
+        assertThat(pagina.content()).hasSize(5);
+        assertThat(pagina.totalElements()).isEqualTo(9);
+        assertThat(pagina.hasNext()).isTrue();
+    }
+
+    @Test
+    void elConteoEstimadoNoInvalidaLaTransaccionDeQuienLoPide() {
+        // Sin las estadísticas de PostgreSQL se cuenta; la transacción de lectura debe poder confirmarse
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        Long total = lectura.execute(status -> {
+            conteoEstimadoService.refrescar();
+            return conteoEstimadoService.estimarProductos(true);
+        });
+
+        assertThat(total).isEqualTo(9);
+    }
+
+    @Test
+    void elTotalEstimadoDescuentaLosProductosDesactivados() {
+        for (Producto producto : productoRepository.findAll().subList(0, 2)) {
+            producto.setActivo(false);
+            productoRepository.save(producto);
+        }
+        conteoEstimadoService.refrescar();
+
+        assertThat(conteoEstimadoService.estimarProductos(true)).isEqualTo(9);
+        assertThat(conteoEstimadoService.estimarProductos(false)).isEqualTo(7);
+
+        var activos = productoService.getPaginated(0, 5, false, false);
+        assertThat(activos.totalElements()).isEqualTo(7);
+        assertThat(activos.totalPages()).isEqualTo(2);
+        assertThat(productoService.getPaginated(0, 5, false, true).totalElements()).isEqualTo(9);
+    }
+
+    @Test
+    void getPaginatedSinTotalNoEjecutaConteo() {
+        // El total estimado se cachea en la primera llamada
+        productoService.getPaginated(0, 5, false, false);
+
+        var primera = contarSentencias(1, () -> productoService.getPaginated(0, 5, false, false));
+        var ultima = contarSentencias(1, () -> productoService.getPaginated(1, 5, false, false));
+
+        assertThat(primera.hasNext()).isTrue();
+        assertThat(primera.approximateTotal()).isTrue();
+        assertThat(ultima.content()).hasSize(4);
+        assertThat(ultima.hasNext()).isFalse();
+    }
+
+    @Test
+    void getByCursorRecorreTodasLasPaginasSinConteo() {
+        List<String> codigos = new ArrayList<>();
+        String cursor = null;
+        do {
+            String actual = cursor;
+            CursorPageResponseDto<ProductoResponseDto> pagina =
+                    contarSentencias(1, () -> productoService.getByCursor(actual, 4, false, false));
+            assertThat(pagina.totalElements()).isNull();
+            pagina.content().forEach(p -> codigos.add(p.codigo()));
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+
+        assertThat(codigos).hasSize(9).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void getResumenByCursorRecorreTodasLasPaginas() {
+        List<String> codigos = new ArrayList<>();
+        String cursor = null;
+        do {
+            String actual = cursor;
+            CursorPageResponseDto<ProductoSimpleDto> pagina =
+                    contarSentencias(1, () -> productoService.getResumenByCursor(actual, 4, false));
+            pagina.content().forEach(p -> codigos.add(p.codigo()));
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+
+        assertThat(codigos).hasSize(9).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void getByCursorDesempataPorIdCuandoSeRepiteElNombre() {
+        List<Integer> repetidos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Producto p = new Producto();
+            p.setCodigo("R-" + i);
+            p.setNombre("Producto 1-1");
+            p.setPrecio(BigDecimal.ONE);
+            p.setStock(1);
+            p.setCategoria(categoria);
+            p.setMarca(marca);
+            repetidos.add(productoRepository.save(p).getId());
+        }
+
+        List<ProductoResponseDto> recorridos = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponseDto<ProductoResponseDto> pagina = productoService.getByCursor(cursor, 2, false, false);
+            recorridos.addAll(pagina.content());
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+
+        // Los homónimos aparecen una sola vez, seguidos y ordenados por id aunque caigan en páginas distintas
+        assertThat(recorridos).hasSize(14);
+        assertThat(recorridos).extracting(ProductoResponseDto::id).doesNotHaveDuplicates();
+        assertThat(recorridos).filteredOn(p -> p.nombre().equals("Producto 1-1"))
+                .extracting(ProductoResponseDto::id)
+                .isSorted()
+                .containsAll(repetidos);
+        assertThat(recorridos).extracting(ProductoResponseDto::nombre).isSorted();
+    }
+
+    @Test
+    void getByCursorRechazaCursoresManipuladosYPaginasDesmedidas() {
+        String cursor = productoService.getByCursor(null, 4, false, false).nextCursor();
+
+        assertThatThrownBy(() -> productoService.getByCursor(cursor + "!", 4, false, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productoService.getByCursor("%%%", 4, false, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productoService.getByCursor(null, Integer.MAX_VALUE, false, false))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productoService.getResumenByCursor(null, 0, false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void exportarEntregaTodosLosProductosSinPaginar() {
+        List<ProductoResponseDto> exportados = new ArrayList<>();
+        contarSentencias(1, () -> {
+            productoService.exportar(false, exportados::add);
+            return null;
+        });
+
+        assertThat(exportados).hasSize(9);
+        assertThat(exportados).extracting(ProductoResponseDto::codigo).doesNotHaveDuplicates();
+        assertThat(exportados).allSatisfy(p -> {
+            assertThat(p.categoria().nombre()).isNotNull();
+            assertThat(p.marca().nombre()).isNotNull();
+        });
+    }
+
+    @Test
+    void findByRangoPrecioEjecutaUnaSolaConsulta() {
+        List<ProductoResponseDto> productos = contarSentencias(1,
+                () -> productoService.findByRangoPrecio(BigDecimal.valueOf(10), BigDecimal.valueOf(11), false, 100));
+
+        assertThat(productos).hasSize(6);
+    }
+
+    @Test
+    void findProductosConStockEjecutaUnaSolaConsulta() {
+        List<ProductoResponseDto> productos = contarSentencias(1, () -> productoService.findProductosConStock(false, 100));
+
+        assertThat(productos).hasSize(6);
+    }
+
+    @Test
+    void findByCategoriaNoDependeDelNumeroDeResultados() {
+        // Verificación de existencia de la categoría + consulta de productos
+        List<ProductoResponseDto> productos = contarSentencias(2,
+                () -> productoService.findByCategoria(categoria.getId(), false, 100));
+
+        assertThat(productos).hasSize(3);
+    }
+
+    @Test
+    void findByMarcaNoDependeDelNumeroDeResultados() {
+        // Verificación de existencia de la marca + consulta de productos
+        List<ProductoResponseDto> productos = contarSentencias(2,
+                () -> productoService.findByMarca(marca.getId(), false, 100));
+
+        assertThat(productos).hasSize(3);
+    }
+
+    @Test
+    void filtrarCombinaCriteriosYCalculaFacetasEnTresConsultas() {
+        FiltroProductoDto filtro = new FiltroProductoDto(null, marca.getId(), BigDecimal.valueOf(11), null,
+                true, true, null);
+
+        FiltroProductosResponseDto resultado = contarSentencias(3,
+                () -> productoService.filtrar(filtro, null, 10, true));
+
+        assertThat(resultado.pagina().content()).extracting(ProductoResponseDto::codigo)
+                .containsExactly("P-2-1", "P-2-2");
+        // La faceta de marca ignora el propio filtro de marca
+        assertThat(resultado.marcas()).hasSize(3).allSatisfy(f -> assertThat(f.total()).isEqualTo(2));
+        assertThat(resultado.categorias()).singleElement()
+                .satisfies(f -> assertThat(f.id()).isEqualTo(categoria.getId()));
+    }
+
+    @Test
+    void filtrarRecorrePaginasPorCursorConTerminosDeNombre() {
+        FiltroProductoDto filtro = new FiltroProductoDto(null, null, null, null, null, null, "2 producto");
+
+        List<String> codigos = new ArrayList<>();
+        String cursor = null;
+        do {
+            String actual = cursor;
+            CursorPageResponseDto<ProductoResponseDto> pagina =
+                    contarSentencias(1, () -> productoService.filtrar(filtro, actual, 2, false)).pagina();
+            pagina.content().forEach(p -> codigos.add(p.codigo()));
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+
+        assertThat(codigos).containsExactly("P-0-2", "P-1-2", "P-2-0", "P-2-1", "P-2-2");
+    }
+
+    @Test
+    void filtrarRechazaRangoDePreciosInvertido() {
+        FiltroProductoDto filtro = new FiltroProductoDto(null, null, BigDecimal.TEN, BigDecimal.ONE,
+                null, null, null);
+
+        assertThatThrownBy(() -> productoService.filtrar(filtro, null, 10, true))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private <T> T contarSentencias(long esperadas, Supplier<T> llamada) {
+        statistics.clear();
+        T resultado = llamada.get();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Sentencias SQL ejecutadas")
+                .isEqualTo(esperadas);
+        return resultado;
+    }
+}
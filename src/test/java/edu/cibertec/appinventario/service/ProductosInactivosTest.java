@@ -0,0 +1,158 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.ArchivoResultadoDto;
+import edu.cibertec.appinventario.dto.CategoriaResponseDto;
+import edu.cibertec.appinventario.dto.FiltroProductoDto;
+import edu.cibertec.appinventario.dto.FiltroProductosResponseDto;
+import edu.cibertec.appinventario.dto.ProductoResponseDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.model.ProductoHistorico;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoHistoricoRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductosInactivosTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ArchivoProductoService archivoProductoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProductoHistoricoRepository productoHistoricoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Categoria vigente;
+    private Categoria descontinuada;
+    private Producto activo;
+    private Producto inactivo;
+    private Producto deCategoriaInactiva;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        vigente = categoria("Bebidas");
+        descontinuada = categoria("Descontinuados");
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        activo = producto("ACT-1", "Agua mineral", vigente, marca);
+        inactivo = producto("INA-1", "Agua saborizada", vigente, marca);
+        deCategoriaInactiva = producto("ACT-2", "Vino tinto", descontinuada, marca);
+
+        productoService.delete(inactivo.getId());
+        categoriaService.delete(descontinuada.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoHistoricoRepository.deleteAll();
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void listadosExcluyenInactivosSalvoQueSePidan() {
+        assertThat(productoService.getAll(false, 100)).extracting(ProductoResponseDto::codigo)
+                .containsExactlyInAnyOrder("ACT-1", "ACT-2");
+        assertThat(productoService.getAll(true, 100)).hasSize(3);
+        assertThat(productoService.getByCursor(null, 10, true, false).totalElements()).isEqualTo(2);
+        assertThat(productoService.findByCategoria(vigente.getId(), false, 100)).extracting(ProductoResponseDto::codigo)
+                .containsExactly("ACT-1");
+
+        assertThat(categoriaService.getAll(false)).extracting(CategoriaResponseDto::nombre).containsExactly("Bebidas");
+        assertThat(categoriaService.getAll(true)).hasSize(2);
+    }
+
+    @Test
+    void lasRelacionesDesactivadasSiguenCargandose() {
+        // El filtro solo recorta la entidad consultada, no la categoría de un producto activo
+        ProductoResponseDto vino = productoService.findByCategoria(descontinuada.getId(), false, 100).get(0);
+
+        assertThat(vino.codigo()).isEqualTo("ACT-2");
+        assertThat(vino.categoria().nombre()).isEqualTo("Descontinuados");
+        assertThat(productoService.getById(inactivo.getId()).activo()).isFalse();
+    }
+
+    @Test
+    void filtrarSinEstadoDevuelveSoloActivos() {
+        FiltroProductosResponseDto porDefecto = productoService.filtrar(
+                new FiltroProductoDto(vigente.getId(), null, null, null, null, null, null), null, 10, true);
+        FiltroProductosResponseDto inactivos = productoService.filtrar(
+                new FiltroProductoDto(null, null, null, null, null, false, null), null, 10, true);
+
+        assertThat(porDefecto.pagina().content()).extracting(ProductoResponseDto::codigo).containsExactly("ACT-1");
+        assertThat(porDefecto.marcas()).singleElement().satisfies(f -> assertThat(f.total()).isEqualTo(1));
+        assertThat(inactivos.pagina().content()).extracting(ProductoResponseDto::codigo).containsExactly("INA-1");
+    }
+
+    @Test
+    void archivarMueveSoloLosDesactivadosHaceTiempo() {
+        Producto antiguo = producto("INA-2", "Gaseosa retornable", vigente, activo.getMarca());
+        antiguo.setActivo(false);
+        antiguo.setFechaDesactivacion(LocalDateTime.now().minusYears(2));
+        productoRepository.save(antiguo);
+
+        ArchivoResultadoDto resultado = archivoProductoService.archivar();
+
+        assertThat(resultado.archivados()).isEqualTo(1);
+        assertThat(productoRepository.findById(antiguo.getId())).isEmpty();
+        assertThat(productoRepository.findById(inactivo.getId())).isPresent();
+        ProductoHistorico historico = productoHistoricoRepository.findById(antiguo.getId()).orElseThrow();
+        assertThat(historico.getCodigo()).isEqualTo("INA-2");
+        assertThat(historico.getCategoriaId()).isEqualTo(vigente.getId());
+        assertThat(historico.getFechaArchivado()).isNotNull();
+    }
+
+    private Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoriaRepository.save(categoria);
+    }
+
+    private Producto producto(String codigo, String nombre, Categoria categoria, Marca marca) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre(nombre);
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(5);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        return productoRepository.save(producto);
+    }
+}
@@ -0,0 +1,174 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.dto.LoteStockRequestDto;
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.dto.MovimientoStockRequestDto;
+import edu.cibertec.appinventario.dto.MovimientoStockResultadoDto;
+import edu.cibertec.appinventario.dto.ReservaStockDto;
+import edu.cibertec.appinventario.dto.ReservaStockRequestDto;
+import edu.cibertec.appinventario.dto.StockDisponibleDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.EstadoReservaStock;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.model.ReservaStock;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.ReservaStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservasStockTest {
+
+    @Autowired
+    private ReservaStockService reservaStockService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
+    @Autowired
+    private ReservaStockRepository reservaStockRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        producto = new Producto();
+        producto.setCodigo("RES-1");
+        producto.setNombre("Producto reservable");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(10);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        producto = productoRepository.save(producto);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void lasReservasRetienenUnidadesSinModificarElStock() {
+        reservaStockService.reservar(producto.getId(), new ReservaStockRequestDto(6, null));
+
+        assertThat(reservaStockService.getDisponible(producto.getId()))
+                .isEqualTo(new StockDisponibleDto(producto.getId(), 10, 6, 4));
+        assertThat(productoService.getById(producto.getId()).stock()).isEqualTo(10);
+        assertThat(movimientoStockService.getHistorial(producto.getId(), null, 10).content()).isEmpty();
+
+        // Ni otra reserva ni una salida pueden tomar las unidades retenidas
+        assertThatThrownBy(() -> reservaStockService.reservar(producto.getId(), new ReservaStockRequestDto(5, null)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productoService.actualizarStock(producto.getId(), -5))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(productoService.actualizarStock(producto.getId(), -4).stock()).isEqualTo(6);
+
+        LoteStockRequestDto lote = new LoteStockRequestDto(List.of(
+                new MovimientoStockRequestDto(producto.getId(), null, -1),
+                new MovimientoStockRequestDto(producto.getId(), null, 2),
+                new MovimientoStockRequestDto(producto.getId(), null, -2)));
+        assertThat(productoService.actualizarStockEnLote(lote).resultados())
+                .extracting(MovimientoStockResultadoDto::aplicado)
+                .containsExactly(false, true, true);
+    }
+
+    @Test
+    void confirmarRegistraLaSalidaYLiberarDevuelveLasUnidades() {
+        ReservaStockDto confirmada = reservaStockService.reservar(producto.getId(), new ReservaStockRequestDto(3, null));
+        ReservaStockDto liberada = reservaStockService.reservar(producto.getId(), new ReservaStockRequestDto(5, null));
+        productoService.getById(producto.getId());
+
+        assertThat(reservaStockService.confirmar(producto.getId(), confirmada.id()).estado())
+                .isEqualTo(EstadoReservaStock.CONFIRMADA);
+        reservaStockService.liberar(producto.getId(), liberada.id());
+
+        assertThat(reservaStockService.getDisponible(producto.getId()))
+                .isEqualTo(new StockDisponibleDto(producto.getId(), 7, 0, 7));
+        assertThat(productoService.getById(producto.getId()).stock()).isEqualTo(7);
+        assertThat(movimientoStockService.getHistorial(producto.getId(), null, 10).content())
+                .singleElement()
+                .extracting(MovimientoStockDto::tipo, MovimientoStockDto::cantidad)
+                .containsExactly(TipoMovimientoStock.RESERVA, -3);
+
+        // Una reserva confirmada o liberada no se puede volver a usar
+        assertThatThrownBy(() -> reservaStockService.confirmar(producto.getId(), confirmada.id()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> reservaStockService.confirmar(producto.getId(), liberada.id()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void lasReservasVencidasDejanDeContarYElBarridoLasExpira() {
+        ReservaStockDto reserva = reservaStockService.reservar(producto.getId(), new ReservaStockRequestDto(8, 60));
+        vencer(reserva.id());
+
+        assertThat(reservaStockService.getDisponible(producto.getId()).disponible()).isEqualTo(10);
+        assertThatThrownBy(() -> reservaStockService.confirmar(producto.getId(), reserva.id()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("expirado");
+
+        assertThat(reservaStockService.expirarVencidas()).isEqualTo(1);
+        assertThat(reservaStockService.expirarVencidas()).isZero();
+        assertThat(reservaStockRepository.findById(reserva.id()))
+                .map(ReservaStock::getEstado)
+                .hasValue(EstadoReservaStock.EXPIRADA);
+    }
+
+    @Test
+    void laDuracionNoPuedeExcederElMaximo() {
+        assertThatThrownBy(() -> reservaStockService.reservar(producto.getId(),
+                new ReservaStockRequestDto(1, 3 * 60 * 60)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void vencer(Long reservaId) {
+        ReservaStock reserva = reservaStockRepository.findById(reservaId).orElseThrow();
+        reserva.setExpiracion(LocalDateTime.now().minusSeconds(1));
+        reservaStockRepository.save(reserva);
+    }
+}
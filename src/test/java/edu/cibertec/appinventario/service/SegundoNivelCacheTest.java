@@ -0,0 +1,112 @@
+package edu.cibertec.appinventario.service;
+
+import edu.cibertec.appinventario.config.HibernateCacheConfig;
+import edu.cibertec.appinventario.dto.CacheEstadisticasDto;
+import edu.cibertec.appinventario.dto.CategoriaRequestDto;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SegundoNivelCacheTest {
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+
+        categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void categoriaSeLeeDeLaCacheEnOtraTransaccion() {
+        categoriaRepository.findById(categoria.getId());
+
+        Categoria cacheada = contarSentencias(0, () -> categoriaRepository.findById(categoria.getId()).orElseThrow());
+
+        assertThat(cacheada.getNombre()).isEqualTo("Categoria");
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.REGION_CATEGORIAS).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void actualizarCategoriaRefrescaLaEntradaCacheada() {
+        categoriaRepository.findById(categoria.getId());
+
+        categoriaService.update(categoria.getId(), new CategoriaRequestDto("Bebidas", null));
+
+        assertThat(contarSentencias(0, () -> categoriaRepository.findById(categoria.getId()).orElseThrow())
+                .getNombre()).isEqualTo("Bebidas");
+    }
+
+    @Test
+    void estadisticasIncluyenLasRegionesDeHibernate() {
+        categoriaRepository.findById(categoria.getId());
+        categoriaRepository.findById(categoria.getId());
+
+        assertThat(cacheService.getEstadisticas())
+                .filteredOn(e -> e.nombre().equals("hibernate." + HibernateCacheConfig.REGION_CATEGORIAS))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.tamano()).isEqualTo(1);
+                    assertThat(e.aciertos()).isPositive();
+                })
+                .extracting(CacheEstadisticasDto::tasaAciertos)
+                .isNotEqualTo(0.0);
+    }
+
+    private <T> T contarSentencias(long esperadas, Supplier<T> llamada) {
+        statistics.clear();
+        T resultado = llamada.get();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Sentencias SQL ejecutadas")
+                .isEqualTo(esperadas);
+        return resultado;
+    }
+}
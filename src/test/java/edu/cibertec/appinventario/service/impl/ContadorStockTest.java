@@ -0,0 +1,81 @@
+package edu.cibertec.appinventario.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContadorStockTest {
+
+    @Test
+    void salidasConcurrentesNoDejanStockNegativo() throws Exception {
+        ContadorStock contador = new ContadorStock(1_000, 8);
+        AtomicInteger aplicadas = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < 3_000; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    if (contador.retirar(1)) {
+                        aplicadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+
+        assertThat(aplicadas).hasValue(1_000);
+        assertThat(contador.valor()).isZero();
+    }
+
+    @Test
+    void unaSalidaPuedeUsarUnidadesRepartidasEntreFranjas() throws Exception {
+        ContadorStock contador = new ContadorStock(0, 8);
+
+        // Cada hilo virtual suma en su propia franja
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                executor.submit(() -> contador.sumar(1));
+            }
+        }
+
+        assertThat(contador.retirar(11)).isFalse();
+        assertThat(contador.valor()).isEqualTo(10);
+        assertThat(contador.retirar(10)).isTrue();
+        assertThat(contador.valor()).isZero();
+    }
+
+    @Test
+    void lasEntradasConTopeYLosAjustesSoloSeAplicanSiSeConfirman() {
+        ContadorStock contador = new ContadorStock(10, 4);
+        List<Long> anotadas = new ArrayList<>();
+
+        assertThat(contador.sumar(5, 15, anotadas::add)).isTrue();
+        assertThat(contador.sumar(1, 15, anotadas::add)).isFalse();
+        contador.fijar(3, anotadas::add);
+        assertThat(anotadas).containsExactly(5L, -12L);
+        assertThat(contador.valor()).isEqualTo(3);
+
+        assertThatThrownBy(() -> contador.fijar(8, diferencia -> {
+            throw new IllegalStateException("Registro no disponible");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> contador.sumar(2, 15, cantidad -> {
+            throw new IllegalStateException("Registro no disponible");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(contador.valor()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,80 @@
+package edu.cibertec.appinventario.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceTrigramasTest {
+
+    private static final double UMBRAL = 0.6;
+
+    private IndiceTrigramas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTrigramas();
+        indice.indexar(1, "FER-001", "Tornillo hexagonal", "Acero inoxidable");
+        indice.indexar(2, "FER-002", "Destornillador plano", null);
+        indice.indexar(3, "FER-003", "Martillo de goma", "Mango de fibra");
+        indice.indexar(4, "ELE-010", "Taladro percutor", "Incluye maletín");
+    }
+
+    @Test
+    void sugierePorPrefijoMientrasSeEscribe() {
+        assertThat(ids(indice.buscar("torn", 10, UMBRAL))).first().isEqualTo(1);
+        assertThat(ids(indice.buscar("ta", 10, UMBRAL))).containsExactly(4);
+        assertThat(indice.buscar("t", 10, UMBRAL)).isEmpty();
+        assertThat(ids(indice.buscar("ele-0", 10, UMBRAL))).containsExactly(4);
+    }
+
+    @Test
+    void toleraErroresDeTipeoTildesYMayusculas() {
+        assertThat(ids(indice.buscar("MARTILO", 10, UMBRAL))).containsExactly(3);
+        assertThat(ids(indice.buscar("maletin", 10, UMBRAL))).containsExactly(4);
+    }
+
+    @Test
+    void priorizaLaCoincidenciaExactaDelCodigo() {
+        indice.indexar(5, "FER-0010", "Broca", null);
+        indice.indexar(6, "FER-001", "Tornillo", null);
+
+        assertThat(ids(indice.buscar("fer-001", 10, UMBRAL))).first().isEqualTo(6);
+    }
+
+    @Test
+    void respetaElLimite() {
+        assertThat(indice.buscar("fer", 2, UMBRAL)).hasSize(2);
+    }
+
+    @Test
+    void actualizaYEliminaDocumentos() {
+        indice.indexar(1, "FER-001", "Tuerca", null);
+        assertThat(ids(indice.buscar("tornillo", 10, UMBRAL))).doesNotContain(1);
+        assertThat(ids(indice.buscar("tuerca", 10, UMBRAL))).containsExactly(1);
+
+        long postings = indice.postings();
+        indice.eliminar(1);
+        assertThat(indice.buscar("tuerca", 10, UMBRAL)).isEmpty();
+        assertThat(indice.documentos()).isEqualTo(3);
+        assertThat(indice.postings()).isLessThan(postings);
+    }
+
+    @Test
+    void mantieneListasOrdenadasConInsercionesDesordenadas() {
+        IndiceTrigramas desordenado = new IndiceTrigramas();
+        for (int id : new int[]{50, 10, 30, 20, 40}) {
+            desordenado.indexar(id, "C-" + id, "Arandela " + id, null);
+        }
+        assertThat(desordenado.buscar("arandela", 10, UMBRAL)).hasSize(5);
+        desordenado.eliminar(30);
+        assertThat(ids(desordenado.buscar("arandela", 10, UMBRAL))).containsExactlyInAnyOrder(10, 20, 40, 50);
+        assertThat(desordenado.bytesEstimados()).isPositive();
+    }
+
+    private List<Integer> ids(List<IndiceTrigramas.Resultado> resultados) {
+        return resultados.stream().map(r -> r.documento().id()).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package edu.cibertec.appinventario.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LectorCsvTest {
+
+    @Test
+    void separaPorComasYRecortaEspacios() {
+        assertThat(LectorCsv.campos("P-1, Arroz ,10.50,3")).containsExactly("P-1", "Arroz", "10.50", "3");
+    }
+
+    @Test
+    void lasComasEntreComillasNoSeparanCampos() {
+        assertThat(LectorCsv.campos("P-1,\"Arroz, extra\",\"Bolsa de 5 kg, grano largo\",10"))
+                .containsExactly("P-1", "Arroz, extra", "Bolsa de 5 kg, grano largo", "10");
+    }
+
+    @Test
+    void dosComillasSeguidasSonUnaComillaLiteral() {
+        assertThat(LectorCsv.campos("P-1,\"Televisor 32\"\" HD\",\"\"\"Oferta\"\"\""))
+                .containsExactly("P-1", "Televisor 32\" HD", "\"Oferta\"");
+    }
+
+    @Test
+    void conservaLosCamposVacios() {
+        assertThat(LectorCsv.campos("P-1,,\"\",")).containsExactly("P-1", "", "", "");
+        assertThat(LectorCsv.campos("")).containsExactly("");
+    }
+}
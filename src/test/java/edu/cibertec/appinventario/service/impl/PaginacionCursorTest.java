@@ -0,0 +1,65 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaginacionCursorTest {
+
+    @Test
+    void elCursorConservaLaClaveAunqueElNombreContengaSeparadores() {
+        String cursor = PaginacionCursor.codificar("Cable: USB-C / 2 m ñ", 42);
+
+        assertThat(PaginacionCursor.decodificar(cursor))
+                .isEqualTo(new PaginacionCursor.Posicion("Cable: USB-C / 2 m ñ", 42));
+    }
+
+    @Test
+    void elCursorPorFechaConservaLaClave() {
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+        String cursor = PaginacionCursor.codificar(fecha.toString(), 7L);
+
+        assertThat(PaginacionCursor.decodificarInstante(cursor))
+                .isEqualTo(new PaginacionCursor.Instante(fecha, 7L));
+    }
+
+    @Test
+    void sinCursorSeEmpiezaDesdeElPrincipio() {
+        assertThat(PaginacionCursor.decodificar(null)).isNull();
+        assertThat(PaginacionCursor.decodificar(" ")).isNull();
+    }
+
+    @Test
+    void unCursorManipuladoSeRechaza() {
+        assertThatThrownBy(() -> PaginacionCursor.decodificar("no es base64!"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PaginacionCursor.decodificar(base64("sin separador")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PaginacionCursor.decodificar(base64("uno:Producto")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PaginacionCursor.decodificarInstante(base64("3:ayer")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void elTamanoDePaginaEstaAcotado() {
+        assertThat(PaginacionCursor.limite(PaginacionCursor.TAMANO_MAXIMO).getPageSize())
+                .isEqualTo(PaginacionCursor.TAMANO_MAXIMO + 1);
+        assertThatThrownBy(() -> PaginacionCursor.limite(0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PaginacionCursor.limite(PaginacionCursor.TAMANO_MAXIMO + 1))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PaginacionCursor.limite(Integer.MAX_VALUE))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String base64(String valor) {
+        return Base64.getUrlEncoder().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
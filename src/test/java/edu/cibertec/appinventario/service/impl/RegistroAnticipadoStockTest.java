@@ -0,0 +1,75 @@
+package edu.cibertec.appinventario.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistroAnticipadoStockTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void losRegistrosConfirmadosSeLeenEnOrdenYSeAcumulanPorProducto() throws IOException {
+        try (RegistroAnticipadoStock registro = new RegistroAnticipadoStock(directorio, 11, 1024)) {
+            registro.anotar(1, 5).join();
+            registro.anotar(2, -1).join();
+            registro.anotar(1, -3).join();
+
+            RegistroAnticipadoStock.Pendientes pendientes = registro.tomarPendientes();
+            assertThat(pendientes.cantidades()).isEqualTo(Map.of(1, 2L, 2, -1L));
+            assertThat(pendientes.hastaSecuencia()).isEqualTo(13);
+            assertThat(registro.tomarPendientes().cantidades()).isEmpty();
+        }
+
+        assertThat(RegistroAnticipadoStock.leer(directorio)).containsExactly(
+                new RegistroAnticipadoStock.Registro(11, 1, 5),
+                new RegistroAnticipadoStock.Registro(12, 2, -1),
+                new RegistroAnticipadoStock.Registro(13, 1, -3));
+    }
+
+    @Test
+    void unRegistroIncompletoAlFinalSeDescarta() throws IOException {
+        try (RegistroAnticipadoStock registro = new RegistroAnticipadoStock(directorio, 1, 1024)) {
+            registro.anotar(1, 5).join();
+        }
+        Path segmento;
+        try (var archivos = Files.list(directorio)) {
+            segmento = archivos.findFirst().orElseThrow();
+        }
+        Files.write(segmento, new byte[]{0, 0, 0, 0, 0, 0, 0, 2, 0, 0}, StandardOpenOption.APPEND);
+
+        assertThat(RegistroAnticipadoStock.leer(directorio))
+                .containsExactly(new RegistroAnticipadoStock.Registro(1, 1, 5));
+    }
+
+    @Test
+    void losSegmentosVolcadosSeBorranYElRegistroCerradoRechazaMovimientos() throws IOException {
+        RegistroAnticipadoStock registro = new RegistroAnticipadoStock(directorio, 1, RegistroAnticipadoStock.TAMANO_REGISTRO);
+        for (int i = 0; i < 3; i++) {
+            registro.anotar(1, 1).join();
+        }
+        assertThat(segmentos()).hasSize(3);
+
+        registro.liberarHasta(registro.tomarPendientes().hastaSecuencia());
+        assertThat(segmentos()).hasSize(1);
+
+        registro.close();
+        assertThatThrownBy(() -> registro.anotar(1, 1).join()).hasMessageContaining("cerrado");
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (var archivos = Files.list(directorio)) {
+            return archivos.toList();
+        }
+    }
+}
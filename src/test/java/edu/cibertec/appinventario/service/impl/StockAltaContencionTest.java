@@ -0,0 +1,289 @@
+package edu.cibertec.appinventario.service.impl;
+
+import edu.cibertec.appinventario.dto.MovimientoStockDto;
+import edu.cibertec.appinventario.exception.BadRequestException;
+import edu.cibertec.appinventario.model.Categoria;
+import edu.cibertec.appinventario.model.Marca;
+import edu.cibertec.appinventario.model.Producto;
+import edu.cibertec.appinventario.model.PuntoControlStock;
+import edu.cibertec.appinventario.model.TipoMovimientoStock;
+import edu.cibertec.appinventario.repository.CategoriaRepository;
+import edu.cibertec.appinventario.repository.MarcaRepository;
+import edu.cibertec.appinventario.repository.MovimientoStockRepository;
+import edu.cibertec.appinventario.repository.ProductoRepository;
+import edu.cibertec.appinventario.repository.PuntoControlStockRepository;
+import edu.cibertec.appinventario.service.MovimientoStockService;
+import edu.cibertec.appinventario.service.ProductoService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Base de datos propia: los productos de alta contención son los tres primeros que se crean (ids 1 a 3), uno
+// por prueba para que no compartan contador
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bd_alta_contencion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.stock.alta-contencion.productos=1,2,3",
+        "app.stock.alta-contencion.franjas=4",
+        "app.stock.alta-contencion.intervalo-volcado=PT1H",
+        "app.stock.alta-contencion.instancia=pruebas"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StockAltaContencionTest {
+
+    private static final Path DIRECTORIO = crearDirectorio();
+
+    @DynamicPropertySource
+    static void directorio(DynamicPropertyRegistry registry) {
+        registry.add("app.stock.alta-contencion.directorio", DIRECTORIO::toString);
+    }
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
+    @Autowired
+    private StockAltaContencion altaContencion;
+
+    @Autowired
+    private MovimientoStockRepository movimientoStockRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PuntoControlStockRepository puntoControlStockRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Producto caliente;
+    private Producto deshecho;
+    private Producto ajustado;
+    private Producto normal;
+
+    @BeforeAll
+    void setUp() {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoria");
+        categoriaRepository.save(categoria);
+
+        Marca marca = new Marca();
+        marca.setNombre("Marca");
+        marcaRepository.save(marca);
+
+        caliente = productoRepository.save(producto("CAL-1", categoria, marca));
+        deshecho = productoRepository.save(producto("CAL-2", categoria, marca));
+        ajustado = productoRepository.save(producto("CAL-3", categoria, marca));
+        normal = productoRepository.save(producto("NOR-1", categoria, marca));
+        assertThat(ajustado.getId()).isEqualTo(3);
+    }
+
+    @AfterAll
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        marcaRepository.deleteAll();
+    }
+
+    @Test
+    void lasSalidasConcurrentesSeValidanEnMemoriaYSeVuelcanEnUnSoloMovimiento() throws Exception {
+        assertThat(altaContencion.gestiona(caliente.getId())).isTrue();
+        assertThat(altaContencion.gestiona(normal.getId())).isFalse();
+        altaContencion.volcar();
+        long puntoControl = puntoControlStockRepository.findById("pruebas").map(PuntoControlStock::getSecuencia)
+                .orElse(0L);
+
+        movimientoStockService.fijar(caliente.getId(), 100, TipoMovimientoStock.AJUSTE);
+
+        AtomicInteger aplicadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        productoService.actualizarStock(caliente.getId(), -1);
+                        aplicadas.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+
+        assertThat(aplicadas).hasValue(100);
+        assertThat(rechazadas).hasValue(200);
+        assertThat(productoService.getById(caliente.getId()).stock()).isZero();
+
+        // Solo se anotaron el ajuste y las 100 salidas aceptadas, y nada llega a la base de datos hasta el volcado
+        assertThat(movimientoStockService.getHistorial(caliente.getId(), null, 10).content()).isEmpty();
+
+        altaContencion.volcar();
+
+        assertThat(movimientoStockService.getHistorial(caliente.getId(), null, 10).content())
+                .singleElement()
+                .satisfies(m -> {
+                    assertThat(m.tipo()).isEqualTo(TipoMovimientoStock.VOLCADO);
+                    assertThat(m.cantidad()).isEqualTo(-10);
+                });
+        assertThat(movimientoStockRepository.stockVigente(caliente.getId())).isZero();
+        assertThat(puntoControlStockRepository.findById("pruebas"))
+                .map(PuntoControlStock::getSecuencia)
+                .hasValue(puntoControl + 101);
+    }
+
+    @Test
+    void losMovimientosDeUnaTransaccionDeshechaNoSeAplican() {
+        movimientoStockService.fijar(deshecho.getId(), 50, TipoMovimientoStock.AJUSTE);
+        assertThat(movimientoStockService.stockVigente(deshecho.getId())).isEqualTo(50);
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> transaccion.executeWithoutResult(status -> {
+            movimientoStockService.registrar(deshecho.getId(), -20, TipoMovimientoStock.ACTUALIZACION);
+            movimientoStockService.registrar(deshecho.getId(), 5, TipoMovimientoStock.ACTUALIZACION);
+            movimientoStockService.registrarEnLote(List.of(deshecho.getId(), normal.getId()), List.of(-10, 1),
+                    TipoMovimientoStock.LOTE);
+            movimientoStockService.fijar(deshecho.getId(), 1, TipoMovimientoStock.AJUSTE);
+            // Mientras la transacción sigue abierta, las salidas ya retienen sus unidades
+            assertThat(movimientoStockService.stockVigente(deshecho.getId())).isEqualTo(20);
+            throw new IllegalStateException("Fallo posterior a los movimientos");
+        })).hasMessage("Fallo posterior a los movimientos");
+
+        assertThat(movimientoStockService.stockVigente(deshecho.getId())).isEqualTo(50);
+
+        // Las salidas deshechas se compensan en el registro: el volcado suma cero
+        altaContencion.volcar();
+        assertThat(movimientoStockRepository.stockVigente(deshecho.getId())).isEqualTo(50);
+    }
+
+    @Test
+    void fijarNoDependeDeLasSalidasConcurrentes() throws Exception {
+        movimientoStockService.fijar(ajustado.getId(), 1_000, TipoMovimientoStock.AJUSTE);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    movimientoStockService.registrar(ajustado.getId(), -1, TipoMovimientoStock.ACTUALIZACION);
+                    return null;
+                }));
+            }
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                // Un ajuste a un valor absoluto nunca falla por stock insuficiente
+                movimientoStockService.fijar(ajustado.getId(), 0, TipoMovimientoStock.AJUSTE);
+                return null;
+            }));
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                try {
+                    tarea.get();
+                } catch (ExecutionException e) {
+                    // Las salidas posteriores al ajuste a cero se rechazan
+                    assertThat(e.getCause()).isInstanceOf(BadRequestException.class);
+                }
+            }
+        }
+
+        assertThat(movimientoStockService.stockVigente(ajustado.getId())).isZero();
+        altaContencion.volcar();
+        assertThat(movimientoStockRepository.stockVigente(ajustado.getId())).isZero();
+    }
+
+    @Test
+    void alArrancarSeVuelcaSoloLoPosteriorAlPuntoDeControl(@TempDir Path registros) throws IOException {
+        try (RegistroAnticipadoStock registro = new RegistroAnticipadoStock(registros, 1, 1024)) {
+            registro.anotar(normal.getId(), 7).join();
+            registro.anotar(normal.getId(), -2).join();
+        }
+
+        StockAltaContencion recuperacion = instancia(registros);
+        recuperacion.start();
+        recuperacion.stop();
+
+        assertThat(movimientoStockRepository.stockVigente(normal.getId())).isEqualTo(15);
+        assertThat(puntoControlStockRepository.findById("recuperacion"))
+                .map(PuntoControlStock::getSecuencia)
+                .hasValue(2L);
+
+        // Un registro que el punto de control ya cubre no se vuelve a aplicar
+        try (RegistroAnticipadoStock registro = new RegistroAnticipadoStock(registros, 1, 1024)) {
+            registro.anotar(normal.getId(), 100).join();
+        }
+        StockAltaContencion repetida = instancia(registros);
+        repetida.start();
+        repetida.stop();
+
+        assertThat(movimientoStockRepository.stockVigente(normal.getId())).isEqualTo(15);
+        assertThat(movimientoStockService.getHistorial(normal.getId(), null, 10).content())
+                .extracting(MovimientoStockDto::tipo)
+                .containsExactly(TipoMovimientoStock.VOLCADO);
+    }
+
+    private StockAltaContencion instancia(Path registros) {
+        return new StockAltaContencion(movimientoStockRepository, productoRepository, puntoControlStockRepository,
+                transactionManager, Set.of(normal.getId()), 1, registros, "recuperacion");
+    }
+
+    private static Producto producto(String codigo, Categoria categoria, Marca marca) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(10);
+        producto.setCategoria(categoria);
+        producto.setMarca(marca);
+        return producto;
+    }
+
+    private static Path crearDirectorio() {
+        try {
+            return Files.createTempDirectory("stock-alta-contencion");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}